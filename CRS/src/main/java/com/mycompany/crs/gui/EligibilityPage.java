@@ -1,6 +1,6 @@
 package com.mycompany.crs.gui;
 
-import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
 import com.mycompany.crs.service.EligibilityService;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -9,6 +9,7 @@ import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.List;
+import java.util.Map;
 
 /**
  * EligibilityPage - WITH SEARCH FUNCTIONALITY
@@ -26,7 +27,7 @@ public class EligibilityPage extends JFrame {
     private JLabel statsLabel;
     private JLabel titleLabel;
     private JTextField searchField;
-    private List<Student> allIneligibleStudents;
+    private List<StudentSummary> allIneligibleStudents;
     
     public EligibilityPage() {
         eligibilityService = new EligibilityService();
@@ -229,6 +230,7 @@ public class EligibilityPage extends JFrame {
         
         JButton refreshButton = createStyledButton("🔄 Refresh", new Color(108, 117, 125));
         refreshButton.addActionListener(e -> {
+            eligibilityService.invalidateCache(); // reload from disk
             loadIneligibleStudents();
             clearSearch();
             JOptionPane.showMessageDialog(this, 
@@ -290,11 +292,11 @@ public class EligibilityPage extends JFrame {
     private void loadIneligibleStudents() {
         tableModel.setRowCount(0);
         
-        allIneligibleStudents = eligibilityService.getIneligibleStudents();
+        allIneligibleStudents = eligibilityService.getIneligibleStudentSummaries();
         
-        for (Student student : allIneligibleStudents) {
-            double cgpa = student.calculateCGPA();
-            int failedCourses = student.countFailedCourses();
+        for (StudentSummary student : allIneligibleStudents) {
+            double cgpa = student.getCGPA();
+            int failedCourses = student.getFailedCourses();
             String reason = student.getEligibilityReason();
             String status = student.getEnrollmentStatus();
             
@@ -371,6 +373,24 @@ public class EligibilityPage extends JFrame {
         }
         
         statsLabel.setText(statsText);
+        statsLabel.setToolTipText(breakdownText());
+    }
+    
+    // Eligibility per year and per major, shown when hovering the statistics
+    private String breakdownText() {
+        StringBuilder html = new StringBuilder("<html><b>By year</b>");
+        appendBreakdown(html, eligibilityService.getEligibilityStatisticsByYear());
+        html.append("<br><b>By major</b>");
+        appendBreakdown(html, eligibilityService.getEligibilityStatisticsByMajor());
+        return html.append("</html>").toString();
+    }
+    
+    private void appendBreakdown(StringBuilder html, Map<String, Object[]> groups) {
+        for (Map.Entry<String, Object[]> group : groups.entrySet()) {
+            Object[] stats = group.getValue();
+            html.append(String.format("<br>%s: %d students, %d eligible (%.1f%%)",
+                    group.getKey(), (int) stats[0], (int) stats[1], (double) stats[3]));
+        }
     }
     
     private void viewStudentDetails() {
@@ -1,13 +1,16 @@
 package com.mycompany.crs.gui;
 
-import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
 import com.mycompany.crs.model.Enrollment;
+import com.mycompany.crs.model.EnrollmentRequest;
+import com.mycompany.crs.model.EnrollmentResult;
 import com.mycompany.crs.service.EligibilityService;
 import javax.swing.*;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
 import java.util.List;
 
 public class EnrollmentPage extends JFrame {
@@ -198,6 +201,7 @@ public class EnrollmentPage extends JFrame {
         // Uses the regular createButton helper method for the bottom panel
         JButton refreshButton = createButton("🔄 Refresh", new Color(108, 117, 125));
         refreshButton.addActionListener(e -> {
+            eligibilityService.invalidateCache(); // reload from disk
             loadEligibleStudents();
             JOptionPane.showMessageDialog(this, "✓ Data refreshed successfully!",
                                          "Refresh", JOptionPane.INFORMATION_MESSAGE);
@@ -216,11 +220,15 @@ public class EnrollmentPage extends JFrame {
             }
         });
 
+        JButton enrollAllButton = createButton("📋 Enroll All Eligible", new Color(40, 167, 69));
+        enrollAllButton.addActionListener(e -> processAllEnrollments());
+
         JButton closeButton = createButton("✕ Close", new Color(220, 53, 69));
         closeButton.addActionListener(e -> dispose());
 
         bottomPanel.add(refreshButton);
         bottomPanel.add(enrollSelectedButton);
+        bottomPanel.add(enrollAllButton);
         bottomPanel.add(closeButton);
 
         add(bottomPanel, BorderLayout.SOUTH);
@@ -289,16 +297,16 @@ public class EnrollmentPage extends JFrame {
     private void loadEligibleStudents() {
         tableModel.setRowCount(0);
 
-        List<Student> eligibleStudents = eligibilityService.getEligibleStudents();
+        List<StudentSummary> eligibleStudents = eligibilityService.getEligibleStudentSummaries();
 
-        for (Student student : eligibleStudents) {
+        for (StudentSummary student : eligibleStudents) {
             Object[] row = {
                 student.getStudentId(),
                 student.getFullName(),
                 student.getMajor(),
                 student.getYear(),
-                String.format("%.2f", student.calculateCGPA()),
-                student.countFailedCourses(),
+                String.format("%.2f", student.getCGPA()),
+                student.getFailedCourses(),
                 student.getEnrollmentStatus()
             };
 
@@ -416,6 +424,77 @@ public class EnrollmentPage extends JFrame {
         enrollDialog.setVisible(true);
     }
 
+    // Enroll every listed student who is not enrolled yet, in one batch,
+    // each into the year after their current one
+    private void processAllEnrollments() {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            if (!"Enrolled".equals(tableModel.getValueAt(row, 6))) {
+                rows.add(row);
+            }
+        }
+        if (rows.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                "✓ All eligible students are already enrolled!",
+                "Nothing to Enroll",
+                JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        JComboBox<String> semesterCombo = new JComboBox<>(new String[]{"Spring", "Summer", "Fall"});
+        JTextField enrolledByField = new JTextField("Academic Officer");
+        JPanel formPanel = new JPanel(new GridLayout(2, 2, 10, 10));
+        formPanel.add(createBoldLabel("Next Semester:"));
+        formPanel.add(semesterCombo);
+        formPanel.add(createBoldLabel("Enrolled By:"));
+        formPanel.add(enrolledByField);
+
+        int choice = JOptionPane.showConfirmDialog(this, formPanel,
+                "Enroll " + rows.size() + " Students", JOptionPane.OK_CANCEL_OPTION);
+        if (choice != JOptionPane.OK_OPTION) {
+            return;
+        }
+        String nextSemester = (String) semesterCombo.getSelectedItem();
+        String enrolledBy = enrolledByField.getText().trim();
+        if (enrolledBy.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                "⚠ Please enter who is processing these enrollments.",
+                "Validation Error",
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        String[] years = {"Freshman", "Sophomore", "Junior", "Senior"};
+        List<EnrollmentRequest> requests = new ArrayList<>();
+        for (int row : rows) {
+            String currentYear = (String) tableModel.getValueAt(row, 3);
+            requests.add(new EnrollmentRequest((String) tableModel.getValueAt(row, 0), nextSemester,
+                    years[Math.min(getYearIndex(currentYear) + 1, 3)], enrolledBy));
+        }
+
+        List<EnrollmentResult> results = eligibilityService.processEnrollments(requests);
+        int enrolled = 0;
+        StringBuilder failures = new StringBuilder();
+        int failed = 0;
+        for (EnrollmentResult result : results) {
+            if (result.isSuccess()) {
+                enrolled++;
+            } else if (failed++ < 10) {
+                failures.append("\n• ").append(result.getStudentId()).append(": ").append(result.getMessage());
+            }
+        }
+        if (failed > 10) {
+            failures.append("\n… and ").append(failed - 10).append(" more");
+        }
+
+        JOptionPane.showMessageDialog(this,
+            String.format("✓ Enrolled %d of %d students for %s.", enrolled, results.size(), nextSemester)
+                + (failed > 0 ? "\n\nNot enrolled:" + failures : ""),
+            "Bulk Enrollment",
+            failed > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+        loadEligibleStudents();
+    }
+
     private JLabel createBoldLabel(String text) {
         JLabel label = new JLabel(text);
         label.setFont(new Font("Segoe UI", Font.BOLD, 14));
@@ -56,7 +56,7 @@ public class CourseEnrollment implements Serializable {
     /**
      * Convert total score to letter grade
      */
-    private String scoreToLetterGrade(double score) {
+    private static String scoreToLetterGrade(double score) {
         if (score >= 90) return "A";
         else if (score >= 85) return "A-";
         else if (score >= 80) return "B+";
@@ -72,7 +72,7 @@ public class CourseEnrollment implements Serializable {
     /**
      * Convert letter grade to grade point (4.0 scale)
      */
-    private double letterToGradePoint(String grade) {
+    private static double letterToGradePoint(String grade) {
         switch (grade) {
             case "A": return 4.0;
             case "A-": return 3.7;
@@ -88,6 +88,14 @@ public class CourseEnrollment implements Serializable {
         }
     }
     
+    /**
+     * Grade point for a pair of scores, without creating an enrollment
+     * (same result as getGradePoint() after calculateGrades())
+     */
+    public static double gradePointFor(int examScore, int assignmentScore) {
+        return letterToGradePoint(scoreToLetterGrade(examScore + assignmentScore));
+    }
+    
     /**
      * Check if this course enrollment is a failure
      */
@@ -0,0 +1,59 @@
+package com.mycompany.crs.model;
+
+/**
+ * EnrollmentRequest - One student to enroll in a bulk enrollment
+ *
+ * Carries the same details as one call to
+ * EligibilityService.processEnrollment().
+ *
+ * OOP Concepts Demonstrated:
+ * - Encapsulation: Read-only, values fixed when it is created
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public class EnrollmentRequest {
+
+    private final String studentId;
+    private final String nextSemester;
+    private final String nextYear;
+    private final String enrolledBy;
+
+    /**
+     * Constructor
+     *
+     * @param studentId Student ID
+     * @param nextSemester Next semester (Spring/Summer/Fall)
+     * @param nextYear Next year level
+     * @param enrolledBy Officer processing enrollment
+     */
+    public EnrollmentRequest(String studentId, String nextSemester, String nextYear, String enrolledBy) {
+        this.studentId = studentId;
+        this.nextSemester = nextSemester;
+        this.nextYear = nextYear;
+        this.enrolledBy = enrolledBy;
+    }
+
+    // Getters
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getNextSemester() {
+        return nextSemester;
+    }
+
+    public String getNextYear() {
+        return nextYear;
+    }
+
+    public String getEnrolledBy() {
+        return enrolledBy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EnrollmentRequest{Student='%s', Semester='%s', Year='%s', By='%s'}",
+                studentId, nextSemester, nextYear, enrolledBy);
+    }
+}
@@ -0,0 +1,66 @@
+package com.mycompany.crs.model;
+
+/**
+ * EnrollmentResult - Outcome of one request of a bulk enrollment
+ *
+ * Holds the new Enrollment if the student was enrolled, otherwise the
+ * reason the request was refused.
+ *
+ * OOP Concepts Demonstrated:
+ * - Encapsulation: Read-only, values fixed when it is created
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public class EnrollmentResult {
+
+    private final EnrollmentRequest request;
+    private final Enrollment enrollment;
+    private final String message;
+
+    /**
+     * Constructor
+     *
+     * @param request The request this answers
+     * @param enrollment New enrollment, or null if the student was not enrolled
+     * @param message What happened (the reason if the request was refused)
+     */
+    public EnrollmentResult(EnrollmentRequest request, Enrollment enrollment, String message) {
+        this.request = request;
+        this.enrollment = enrollment;
+        this.message = message;
+    }
+
+    // Getters
+    public EnrollmentRequest getRequest() {
+        return request;
+    }
+
+    public String getStudentId() {
+        return request.getStudentId();
+    }
+
+    /**
+     * @return the new enrollment, or null if the student was not enrolled
+     */
+    public Enrollment getEnrollment() {
+        return enrollment;
+    }
+
+    public boolean isSuccess() {
+        return enrollment != null;
+    }
+
+    /**
+     * @return what happened (the reason if the request was refused)
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EnrollmentResult{Student='%s', Success=%s, Message='%s'}",
+                getStudentId(), isSuccess(), message);
+    }
+}
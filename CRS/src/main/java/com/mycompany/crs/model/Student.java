@@ -28,6 +28,7 @@ public class Student implements Serializable {
     private List<CourseEnrollment> enrolledCourses;
     private boolean isEligible;
     private String enrollmentStatus; // "Not Enrolled", "Enrolled", "Pending"
+    private long version; // bumped by the store on every save
     
     /**
      * Full constructor
@@ -135,6 +136,19 @@ public class Student implements Serializable {
         this.enrollmentStatus = enrollmentStatus;
     }
     
+    /**
+     * Version stamp of the stored copy this student was read from
+     * (0 if it was never saved); stores that detect concurrent updates
+     * compare it with the stored one
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
     /**
      * Calculate CGPA based on all enrolled courses
      * Formula: CGPA = (Total Grade Points) / (Total Credit Hours)
@@ -159,6 +173,15 @@ public class Student implements Serializable {
             totalCreditHours += credits;
         }
         
+        return calculateCGPA(totalGradePoints, totalCreditHours);
+    }
+    
+    /**
+     * CGPA from totals already summed over the enrolled courses
+     * 
+     * @return CGPA rounded to 2 decimal places (0.0 if no credit hours)
+     */
+    public static double calculateCGPA(double totalGradePoints, int totalCreditHours) {
         if (totalCreditHours == 0) {
             return 0.0;
         }
@@ -217,19 +240,31 @@ public class Student implements Serializable {
         double cgpa = calculateCGPA();
         int failedCourses = countFailedCourses();
         
-        this.isEligible = (cgpa >= 2.0 && failedCourses <= 3);
+        this.isEligible = meetsEligibilityCriteria(cgpa, failedCourses);
         return this.isEligible;
     }
     
+    /**
+     * Eligibility criteria for a given CGPA and number of failed courses
+     */
+    public static boolean meetsEligibilityCriteria(double cgpa, int failedCourses) {
+        return cgpa >= 2.0 && failedCourses <= 3;
+    }
+    
     /**
      * Get detailed eligibility reason/status message
      * 
      * @return String describing why student is/isn't eligible
      */
     public String getEligibilityReason() {
-        double cgpa = calculateCGPA();
-        int failedCourses = countFailedCourses();
-        
+        return eligibilityReason(calculateCGPA(), countFailedCourses());
+    }
+    
+    /**
+     * Eligibility reason/status message for a given CGPA and number of
+     * failed courses
+     */
+    public static String eligibilityReason(double cgpa, int failedCourses) {
         if (cgpa < 2.0 && failedCourses > 3) {
             return String.format("CGPA below 2.0 (%.2f) AND more than 3 failed courses (%d)", 
                                cgpa, failedCourses);
@@ -0,0 +1,115 @@
+package com.mycompany.crs.model;
+
+import java.io.Serializable;
+
+/**
+ * StudentSummary - What list screens show of a student
+ *
+ * Holds the student's details with the CGPA and failed-course count
+ * already computed, but not the enrolled courses, so a list of summaries
+ * takes a fraction of the memory of the same list of Students. Load the
+ * full Student (e.g. for StudentDetailsPage) when the courses are needed.
+ *
+ * OOP Concepts Demonstrated:
+ * - Encapsulation: Read-only view, values fixed when it is created
+ * - Composition: Refers to the full Student through studentId
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public class StudentSummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String studentId;
+    private final String firstName;
+    private final String lastName;
+    private final String major;
+    private final String year;
+    private final String enrollmentStatus;
+    private final double cgpa;
+    private final int failedCourses;
+
+    /**
+     * Constructor
+     */
+    public StudentSummary(String studentId, String firstName, String lastName, String major,
+                          String year, String enrollmentStatus, double cgpa, int failedCourses) {
+        this.studentId = studentId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.major = major;
+        this.year = year;
+        this.enrollmentStatus = enrollmentStatus;
+        this.cgpa = cgpa;
+        this.failedCourses = failedCourses;
+    }
+
+    /**
+     * Summary of a loaded student
+     */
+    public StudentSummary(Student student) {
+        this(student.getStudentId(), student.getFirstName(), student.getLastName(),
+             student.getMajor(), student.getYear(), student.getEnrollmentStatus(),
+             student.calculateCGPA(), student.countFailedCourses());
+    }
+
+    // Getters
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+
+    public String getMajor() {
+        return major;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public String getEnrollmentStatus() {
+        return enrollmentStatus;
+    }
+
+    /**
+     * @return CGPA, as Student.calculateCGPA() computed it
+     */
+    public double getCGPA() {
+        return cgpa;
+    }
+
+    /**
+     * @return failed courses, as Student.countFailedCourses() counted them
+     */
+    public int getFailedCourses() {
+        return failedCourses;
+    }
+
+    /**
+     * Eligibility for progression (same criteria as Student.checkEligibility())
+     */
+    public boolean isEligible() {
+        return Student.meetsEligibilityCriteria(cgpa, failedCourses);
+    }
+
+    public String getEligibilityReason() {
+        return Student.eligibilityReason(cgpa, failedCourses);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StudentSummary{ID='%s', Name='%s %s', Major='%s', Year='%s', CGPA=%.2f, Failed=%d}",
+                studentId, firstName, lastName, major, year, cgpa, failedCourses);
+    }
+}
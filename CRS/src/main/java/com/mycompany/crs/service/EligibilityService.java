@@ -1,10 +1,18 @@
 package com.mycompany.crs.service;
 
 import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
 import com.mycompany.crs.model.Enrollment;
+import com.mycompany.crs.model.EnrollmentRequest;
+import com.mycompany.crs.model.EnrollmentResult;
+import com.mycompany.crs.store.StudentConflictException;
 import com.mycompany.crs.util.FileManager;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * EligibilityService - Business logic for Eligibility Check & Enrollment
@@ -20,8 +28,12 @@ import java.util.List;
  * 2. Listing ineligible students
  * 3. Processing enrollments
  * 
+ * Students are read through the shared StudentRepository, so after the
+ * first load the pages are served from memory; invalidateCache() makes
+ * the next read load from disk again.
+ * 
  * @author YourName
- * @version 1.0
+ * @version 1.3
  */
 public class EligibilityService {
     
@@ -29,13 +41,18 @@ public class EligibilityService {
     private static final double MIN_CGPA = 2.0;
     private static final int MAX_FAILED_COURSES = 3;
     
+    // Saves tried before a conflicting enrollment (or batch) is given up
+    private static final int MAX_ENROLLMENT_ATTEMPTS = 3;
+    
     private FileManager fileManager;
+    private StudentRepository repository;
     
     /**
      * Constructor
      */
     public EligibilityService() {
         this.fileManager = new FileManager();
+        this.repository = StudentRepository.getInstance();
     }
     
     /**
@@ -44,7 +61,7 @@ public class EligibilityService {
      * @return List of all students
      */
     public List<Student> getAllStudents() {
-        return fileManager.loadStudents();
+        return repository.findAll();
     }
     
     /**
@@ -60,17 +77,8 @@ public class EligibilityService {
      * @return List of ineligible students
      */
     public List<Student> getIneligibleStudents() {
-        List<Student> allStudents = getAllStudents();
-        List<Student> ineligibleStudents = new ArrayList<>();
-        
-        for (Student student : allStudents) {
-            // Check eligibility
-            student.checkEligibility();
-            
-            if (!student.isEligible()) {
-                ineligibleStudents.add(student);
-            }
-        }
+        // Check eligibility of each student, keep the ineligible ones
+        List<Student> ineligibleStudents = repository.findAll(student -> !student.checkEligibility());
         
         System.out.println("Found " + ineligibleStudents.size() + " ineligible students");
         return ineligibleStudents;
@@ -82,21 +90,37 @@ public class EligibilityService {
      * @return List of eligible students
      */
     public List<Student> getEligibleStudents() {
-        List<Student> allStudents = getAllStudents();
-        List<Student> eligibleStudents = new ArrayList<>();
-        
-        for (Student student : allStudents) {
-            student.checkEligibility();
-            
-            if (student.isEligible()) {
-                eligibleStudents.add(student);
-            }
-        }
+        List<Student> eligibleStudents = repository.findAll(Student::checkEligibility);
         
         System.out.println("Found " + eligibleStudents.size() + " eligible students");
         return eligibleStudents;
     }
     
+    /**
+     * Summaries of the students who are NOT eligible, for list screens:
+     * CGPA and failed courses without the course lists
+     * 
+     * @return List of ineligible student summaries
+     */
+    public List<StudentSummary> getIneligibleStudentSummaries() {
+        List<StudentSummary> ineligible = repository.findSummaries(summary -> !summary.isEligible());
+        
+        System.out.println("Found " + ineligible.size() + " ineligible students");
+        return ineligible;
+    }
+    
+    /**
+     * Summaries of the students who ARE eligible, for list screens
+     * 
+     * @return List of eligible student summaries
+     */
+    public List<StudentSummary> getEligibleStudentSummaries() {
+        List<StudentSummary> eligible = repository.findSummaries(StudentSummary::isEligible);
+        
+        System.out.println("Found " + eligible.size() + " eligible students");
+        return eligible;
+    }
+    
     /**
      * Get student by ID
      * 
@@ -104,15 +128,17 @@ public class EligibilityService {
      * @return Student object or null
      */
     public Student getStudentById(String studentId) {
-        List<Student> students = getAllStudents();
-        
-        for (Student student : students) {
-            if (student.getStudentId().equals(studentId)) {
-                return student;
-            }
-        }
-        
-        return null;
+        return repository.findById(studentId);
+    }
+    
+    /**
+     * Get students whose ID starts with a prefix (e.g. a cohort)
+     * 
+     * @param prefix ID prefix
+     * @return Matching students
+     */
+    public List<Student> getStudentsByIdPrefix(String prefix) {
+        return repository.findAll(student -> student.getStudentId().startsWith(prefix));
     }
     
     /**
@@ -166,36 +192,199 @@ public class EligibilityService {
      */
     public Enrollment processEnrollment(String studentId, String nextSemester, 
                                        String nextYear, String enrolledBy) {
+        // A shared store rejects the save if another workstation changed the
+        // student meanwhile; start again from the saved student
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tryEnrollment(studentId, nextSemester, nextYear, enrolledBy);
+            } catch (StudentConflictException e) {
+                if (attempt == MAX_ENROLLMENT_ATTEMPTS) {
+                    System.err.println("✗ Error: " + e.getMessage());
+                    return null;
+                }
+                System.out.println("ℹ " + studentId + " was changed by another user, retrying");
+            }
+        }
+    }
+    
+    // One attempt of processEnrollment()
+    private Enrollment tryEnrollment(String studentId, String nextSemester, 
+                                     String nextYear, String enrolledBy)
+            throws StudentConflictException {
         Student student = getStudentById(studentId);
         
+        String problem = checkEnrollment(student, nextSemester, nextYear);
+        if (problem != null) {
+            System.err.println("✗ Error: " + problem);
+            return null;
+        }
+        
+        Enrollment enrollment = createEnrollment(generateEnrollmentId(studentId), studentId,
+                                                 nextSemester, nextYear, enrolledBy);
+        
+        // Update student status and save the enrollment record together
+        student.setEnrollmentStatus("Enrolled");
+        if (!repository.recordEnrollment(student, enrollment)) {
+            return null;
+        }
+        
+        System.out.println("✓ Successfully enrolled student: " + studentId);
+        return enrollment;
+    }
+    
+    /**
+     * Process the enrollments of many students at once (e.g. at semester
+     * rollover)
+     * 
+     * Every request is checked as processEnrollment() would, then all the
+     * accepted students and their enrollment records are saved as one
+     * change instead of one change per student. A request that is refused
+     * does not stop the others.
+     * 
+     * @param requests Students to enroll (at most one request per student)
+     * @return One result per request, in the same order
+     */
+    public List<EnrollmentResult> processEnrollments(List<EnrollmentRequest> requests) {
+        EnrollmentResult[] results = new EnrollmentResult[requests.size()];
+        List<Integer> pending = new ArrayList<>();
+        Set<String> requested = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (requested.add(requests.get(i).getStudentId())) {
+                pending.add(i);
+            } else {
+                results[i] = new EnrollmentResult(requests.get(i), null,
+                                                  "Student is already in this batch");
+            }
+        }
+        
+        // A shared store rejects the batch if another workstation changed one
+        // of its students; the rest is checked again and saved again
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            List<Integer> batch = new ArrayList<>();
+            List<Student> students = new ArrayList<>();
+            List<String> studentIds = new ArrayList<>();
+            for (int i : pending) {
+                EnrollmentRequest request = requests.get(i);
+                Student student = getStudentById(request.getStudentId());
+                String problem = checkEnrollment(student, request.getNextSemester(), request.getNextYear());
+                if (problem != null) {
+                    results[i] = new EnrollmentResult(request, null, problem);
+                    continue;
+                }
+                batch.add(i);
+                students.add(student);
+                studentIds.add(request.getStudentId());
+            }
+            pending.clear();
+            if (batch.isEmpty()) {
+                break;
+            }
+            
+            // Enrollment IDs of the whole batch in one read of the enrollments
+            Map<String, Integer> sequences = fileManager.nextEnrollmentSequences(studentIds);
+            List<Enrollment> enrollments = new ArrayList<>();
+            for (int j = 0; j < batch.size(); j++) {
+                EnrollmentRequest request = requests.get(batch.get(j));
+                Integer sequence = sequences.get(request.getStudentId());
+                String enrollmentId = sequence != null
+                    ? String.format("ENR-%s-%03d", request.getStudentId(), sequence)
+                    : generateEnrollmentId(request.getStudentId());
+                enrollments.add(createEnrollment(enrollmentId, request.getStudentId(),
+                        request.getNextSemester(), request.getNextYear(), request.getEnrolledBy()));
+                students.get(j).setEnrollmentStatus("Enrolled");
+            }
+            
+            long[] readAt = new long[students.size()];
+            for (int j = 0; j < students.size(); j++) {
+                readAt[j] = students.get(j).getVersion();
+            }
+            try {
+                boolean saved = repository.recordEnrollments(students, enrollments);
+                for (int j = 0; j < batch.size(); j++) {
+                    Enrollment enrollment = enrollments.get(j);
+                    results[batch.get(j)] = saved
+                        ? new EnrollmentResult(requests.get(batch.get(j)), enrollment,
+                                               "Enrolled as " + enrollment.getEnrollmentId())
+                        : new EnrollmentResult(requests.get(batch.get(j)), null,
+                                               "Could not save the enrollment");
+                }
+            } catch (StudentConflictException e) {
+                // Students whose version moved were saved (another shard);
+                // their enrollment records still have to be
+                List<Integer> savedIndexes = new ArrayList<>();
+                List<Enrollment> savedEnrollments = new ArrayList<>();
+                for (int j = 0; j < batch.size(); j++) {
+                    if (students.get(j).getVersion() != readAt[j]) {
+                        savedIndexes.add(batch.get(j));
+                        savedEnrollments.add(enrollments.get(j));
+                    } else if (attempt < MAX_ENROLLMENT_ATTEMPTS) {
+                        pending.add(batch.get(j));
+                    } else {
+                        results[batch.get(j)] = new EnrollmentResult(requests.get(batch.get(j)), null,
+                                                                     e.getMessage());
+                    }
+                }
+                boolean appended = savedEnrollments.isEmpty()
+                                   || fileManager.appendEnrollments(savedEnrollments);
+                for (int j = 0; j < savedIndexes.size(); j++) {
+                    Enrollment enrollment = savedEnrollments.get(j);
+                    results[savedIndexes.get(j)] = appended
+                        ? new EnrollmentResult(requests.get(savedIndexes.get(j)), enrollment,
+                                               "Enrolled as " + enrollment.getEnrollmentId())
+                        : new EnrollmentResult(requests.get(savedIndexes.get(j)), null,
+                                               "Status saved but not the enrollment record");
+                }
+                if (!pending.isEmpty()) {
+                    System.out.println("ℹ " + e.getStudentId() + " was changed by another user, retrying "
+                                       + pending.size() + " enrollments");
+                }
+            }
+        }
+        
+        int enrolled = 0;
+        for (EnrollmentResult result : results) {
+            if (result.isSuccess()) {
+                enrolled++;
+            }
+        }
+        System.out.println("✓ Enrolled " + enrolled + " of " + requests.size() + " students");
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Check that a student can be enrolled
+     * 
+     * @return null if so, otherwise the reason
+     */
+    private String checkEnrollment(Student student, String nextSemester, String nextYear) {
         // Validate student exists
         if (student == null) {
-            System.err.println("✗ Error: Student not found");
-            return null;
+            return "Student not found";
         }
         
         // Check eligibility
         if (!student.checkEligibility()) {
-            System.err.println("✗ Error: Student is not eligible for enrollment");
-            System.err.println("  Reason: " + student.getEligibilityReason());
-            return null;
+            return "Student is not eligible for enrollment (" + student.getEligibilityReason() + ")";
         }
         
         // Check if already enrolled
         if ("Enrolled".equals(student.getEnrollmentStatus())) {
-            System.err.println("✗ Error: Student is already enrolled for next semester");
-            return null;
+            return "Student is already enrolled for next semester";
         }
         
         // Validate enrollment data
         if (!validateEnrollmentData(nextSemester, nextYear)) {
-            System.err.println("✗ Error: Invalid enrollment data");
-            return null;
+            return "Invalid enrollment data";
         }
         
-        // Generate unique enrollment ID
-        String enrollmentId = generateEnrollmentId(studentId);
-        
+        return null;
+    }
+    
+    /**
+     * Create a confirmed enrollment record
+     */
+    private Enrollment createEnrollment(String enrollmentId, String studentId, String nextSemester,
+                                        String nextYear, String enrolledBy) {
         // Create enrollment record
         Enrollment enrollment = new Enrollment(
             enrollmentId,
@@ -206,17 +395,6 @@ public class EligibilityService {
         );
         enrollment.setStatus("Confirmed");
         enrollment.setRemarks("Enrolled for progression to next level");
-        
-        // Update student status
-        student.setEnrollmentStatus("Enrolled");
-        fileManager.updateStudent(student);
-        
-        // Save enrollment record
-        List<Enrollment> enrollments = fileManager.loadEnrollments();
-        enrollments.add(enrollment);
-        fileManager.saveEnrollments(enrollments);
-        
-        System.out.println("✓ Successfully enrolled student: " + studentId);
         return enrollment;
     }
     
@@ -227,36 +405,61 @@ public class EligibilityService {
      * @return List of enrollments
      */
     public List<Enrollment> getStudentEnrollments(String studentId) {
-        List<Enrollment> allEnrollments = fileManager.loadEnrollments();
-        List<Enrollment> studentEnrollments = new ArrayList<>();
-        
-        for (Enrollment enrollment : allEnrollments) {
-            if (enrollment.getStudentId().equals(studentId)) {
-                studentEnrollments.add(enrollment);
-            }
-        }
-        
-        return studentEnrollments;
+        return fileManager.loadEnrollments(studentId);
     }
     
     /**
      * Get eligibility statistics
      * 
+     * Counted once when the students are first loaded and updated as they
+     * are saved, so this reads four numbers (see EligibilityStatistics)
+     * 
      * @return Array [Total, Eligible, Ineligible, Eligibility Rate %]
      */
     public Object[] getEligibilityStatistics() {
-        List<Student> allStudents = getAllStudents();
-        List<Student> eligible = getEligibleStudents();
-        List<Student> ineligible = getIneligibleStudents();
-        
-        int total = allStudents.size();
-        int eligibleCount = eligible.size();
-        int ineligibleCount = ineligible.size();
+        return repository.getStatistics().getOverall();
+    }
+    
+    /**
+     * Get eligibility statistics per major
+     * 
+     * @return Major name to Array [Total, Eligible, Ineligible, Eligibility Rate %]
+     */
+    public Map<String, Object[]> getEligibilityStatisticsByMajor() {
+        return repository.getStatistics().getByMajor();
+    }
+    
+    /**
+     * Get eligibility statistics per year level
+     * 
+     * @return Year name to Array [Total, Eligible, Ineligible, Eligibility Rate %]
+     */
+    public Map<String, Object[]> getEligibilityStatisticsByYear() {
+        return repository.getStatistics().getByYear();
+    }
+    
+    /**
+     * Drop the cached student data, so the next read loads it from disk
+     * (e.g. after other workstations changed it)
+     */
+    public void invalidateCache() {
+        repository.invalidate();
+    }
+    
+    /**
+     * Get statistics of the student cache
+     * 
+     * @return Array [Hits, Misses, Hit Rate %]
+     */
+    public Object[] getCacheStatistics() {
+        long hits = repository.getHits();
+        long misses = repository.getMisses();
+        long reads = hits + misses;
         
-        double eligibilityRate = total > 0 ? (eligibleCount * 100.0 / total) : 0.0;
-        eligibilityRate = Math.round(eligibilityRate * 100.0) / 100.0;
+        double hitRate = reads > 0 ? (hits * 100.0 / reads) : 0.0;
+        hitRate = Math.round(hitRate * 100.0) / 100.0;
         
-        return new Object[]{total, eligibleCount, ineligibleCount, eligibilityRate};
+        return new Object[]{hits, misses, hitRate};
     }
     
     /**
@@ -292,23 +495,18 @@ public class EligibilityService {
     
     /**
      * Generate unique enrollment ID
-     * Format: ENR-{StudentID}-{Count}
+     * Format: ENR-{StudentID}-{Sequence}
      * 
      * @param studentId Student ID
      * @return Generated enrollment ID
      */
     private String generateEnrollmentId(String studentId) {
-        List<Enrollment> enrollments = fileManager.loadEnrollments();
-        int count = 0;
-        
-        // Count existing enrollments for this student
-        for (Enrollment e : enrollments) {
-            if (e.getStudentId().equals(studentId)) {
-                count++;
-            }
+        // The store keeps a counter per student, so nothing is scanned
+        int sequence = fileManager.nextEnrollmentSequence(studentId);
+        if (sequence < 1) {
+            sequence = fileManager.loadEnrollments(studentId).size() + 1;
         }
-        
-        return String.format("ENR-%s-%03d", studentId, count + 1);
+        return String.format("ENR-%s-%03d", studentId, sequence);
     }
     
     /**
@@ -316,13 +514,19 @@ public class EligibilityService {
      * Recalculates eligibility for all students
      */
     public void refreshEligibilityStatus() {
-        List<Student> students = getAllStudents();
-        
-        for (Student student : students) {
-            student.checkEligibility();
-        }
+        // Only students whose status changed are written back. Read from
+        // disk, not the cache: the saved flags are the ones to compare with,
+        // and cached students may have been checked already
+        // (checkEligibility() updates the flag in memory)
+        List<Student> changed = new ArrayList<>();
+        fileManager.forEachStudent(student -> {
+            boolean before = student.isEligible();
+            if (student.checkEligibility() != before) {
+                changed.add(student);
+            }
+        });
         
-        fileManager.saveStudents(students);
+        repository.saveRefreshedEligibility(changed);
         System.out.println("✓ Refreshed eligibility status for all students");
     }
 }
\ No newline at end of file
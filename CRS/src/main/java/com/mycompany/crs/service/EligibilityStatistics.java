@@ -0,0 +1,112 @@
+package com.mycompany.crs.service;
+
+import com.mycompany.crs.model.StudentSummary;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * EligibilityStatistics - Eligible/ineligible counts, overall and by major and year
+ *
+ * Built in one pass over the student summaries, then kept up to date by
+ * StudentRepository: a saved student's old summary is taken out of the
+ * counts and the new one added, so a grade change, an enrollment or a
+ * move to another year costs a few map updates and reading the numbers
+ * never goes over the students again.
+ *
+ * Every result has the layout of EligibilityService.getEligibilityStatistics():
+ * [Total, Eligible, Ineligible, Eligibility Rate %].
+ *
+ * OOP Concepts Demonstrated:
+ * - Encapsulation: Counts change only through add() and remove()
+ * - Aggregation: One counter per group, combined in this class
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public class EligibilityStatistics {
+
+    // Students in a group and how many of them are eligible
+    private static final class Counter {
+        int total;
+        int eligible;
+
+        Object[] toArray() {
+            double rate = total > 0 ? (eligible * 100.0 / total) : 0.0;
+            rate = Math.round(rate * 100.0) / 100.0;
+            return new Object[]{total, eligible, total - eligible, rate};
+        }
+    }
+
+    // Guarded by this
+    private final Counter overall = new Counter();
+    private final Map<String, Counter> byMajor = new TreeMap<>();
+    private final Map<String, Counter> byYear = new TreeMap<>();
+
+    /**
+     * Constructor - no students counted yet
+     */
+    EligibilityStatistics() {
+    }
+
+    /**
+     * Count a student in
+     */
+    synchronized void add(StudentSummary summary) {
+        change(summary, 1);
+    }
+
+    /**
+     * Take a student out of the counts (a summary given to add() before)
+     */
+    synchronized void remove(StudentSummary summary) {
+        change(summary, -1);
+    }
+
+    /**
+     * @return [Total, Eligible, Ineligible, Eligibility Rate %] of all students
+     */
+    public synchronized Object[] getOverall() {
+        return overall.toArray();
+    }
+
+    /**
+     * @return statistics per major, by major name
+     */
+    public synchronized Map<String, Object[]> getByMajor() {
+        return toArrays(byMajor);
+    }
+
+    /**
+     * @return statistics per year (Freshman, Sophomore, ...), by year name
+     */
+    public synchronized Map<String, Object[]> getByYear() {
+        return toArrays(byYear);
+    }
+
+    private void change(StudentSummary summary, int delta) {
+        int eligible = summary.isEligible() ? delta : 0;
+        overall.total += delta;
+        overall.eligible += eligible;
+        count(byMajor, summary.getMajor(), delta, eligible);
+        count(byYear, summary.getYear(), delta, eligible);
+    }
+
+    private static void count(Map<String, Counter> groups, String name, int delta, int eligible) {
+        String key = name == null || name.trim().isEmpty() ? "Unknown" : name;
+        Counter counter = groups.computeIfAbsent(key, k -> new Counter());
+        counter.total += delta;
+        counter.eligible += eligible;
+        if (counter.total == 0) {
+            groups.remove(key); // groups without students are not listed
+        }
+    }
+
+    private static Map<String, Object[]> toArrays(Map<String, Counter> groups) {
+        Map<String, Object[]> arrays = new LinkedHashMap<>();
+        for (Map.Entry<String, Counter> entry : groups.entrySet()) {
+            arrays.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return arrays;
+    }
+}
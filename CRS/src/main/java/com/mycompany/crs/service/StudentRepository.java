@@ -0,0 +1,347 @@
+package com.mycompany.crs.service;
+
+import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
+import com.mycompany.crs.model.Enrollment;
+import com.mycompany.crs.store.StudentConflictException;
+import com.mycompany.crs.util.FileManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * StudentRepository - In-memory copy of the student data, shared by the services
+ *
+ * Reads are served from memory after the first load; saves are written
+ * through to FileManager and, once they succeed, applied to the copy:
+ *
+ *   summaries  all student summaries, loaded together on first use (list
+ *              screens and statistics)
+ *   students   full students, all of them after findAll(), or one at a
+ *              time as findById() asks for them
+ *
+ * The eligibility statistics are counted while the summaries are loaded
+ * and then kept up to date with them (EligibilityStatistics).
+ *
+ * Every read counts as a hit (answered from memory) or a miss (had to
+ * load). invalidate() drops the copy, e.g. when other workstations share
+ * the data directory or data was saved without going through here.
+ *
+ * The Students handed out are the cached objects: change one only to
+ * save it through this repository. A save that fails reloads the student,
+ * so the copy never keeps a change that is not on disk.
+ *
+ * OOP Concepts Demonstrated:
+ * - Singleton: One repository per process, so every page shares the cache
+ * - Encapsulation: Callers never see how or when data is loaded
+ * - Delegation: File access stays in FileManager
+ *
+ * @author YourName
+ * @version 1.3
+ */
+public class StudentRepository {
+
+    private static StudentRepository instance;
+
+    private final FileManager fileManager;
+
+    // Guarded by this; null = not loaded
+    private Map<String, StudentSummary> summaries;
+    private EligibilityStatistics statistics; // of the summaries
+    private final Map<String, Student> students = new LinkedHashMap<>();
+    private boolean allStudents;
+    private long hits;
+    private long misses;
+
+    /**
+     * @return the repository shared by the whole application
+     */
+    public static synchronized StudentRepository getInstance() {
+        if (instance == null) {
+            instance = new StudentRepository(new FileManager());
+        }
+        return instance;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param fileManager Where the data is loaded from and saved to
+     */
+    public StudentRepository(FileManager fileManager) {
+        this.fileManager = fileManager;
+    }
+
+    // ==========================================================
+    // Reads
+    // ==========================================================
+
+    /**
+     * @return all students (loaded on the first call)
+     */
+    public synchronized List<Student> findAll() {
+        return loadStudents() ? new ArrayList<>(students.values()) : new ArrayList<>();
+    }
+
+    /**
+     * @return the students matching a condition
+     */
+    public synchronized List<Student> findAll(Predicate<Student> condition) {
+        List<Student> matches = new ArrayList<>();
+        if (!loadStudents()) {
+            return matches;
+        }
+        for (Student student : students.values()) {
+            if (condition.test(student)) {
+                matches.add(student);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @param studentId Student ID
+     * @return the student, or null if there is none
+     */
+    public synchronized Student findById(String studentId) {
+        Student student = students.get(studentId);
+        if (student != null || allStudents) {
+            hits++;
+            return student;
+        }
+        misses++;
+        student = fileManager.loadStudent(studentId);
+        if (student != null) {
+            students.put(studentId, student);
+        }
+        return student;
+    }
+
+    /**
+     * @return summaries of all students (loaded on the first call)
+     */
+    public synchronized List<StudentSummary> findAllSummaries() {
+        return loadSummaries() ? new ArrayList<>(summaries.values()) : new ArrayList<>();
+    }
+
+    /**
+     * @return summaries of the students matching a condition
+     */
+    public synchronized List<StudentSummary> findSummaries(Predicate<StudentSummary> condition) {
+        List<StudentSummary> matches = new ArrayList<>();
+        if (!loadSummaries()) {
+            return matches;
+        }
+        for (StudentSummary summary : summaries.values()) {
+            if (condition.test(summary)) {
+                matches.add(summary);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return eligibility statistics of all students, kept up to date as
+     *         students are saved (counted on the first call)
+     */
+    public synchronized EligibilityStatistics getStatistics() {
+        return loadSummaries() ? statistics : new EligibilityStatistics();
+    }
+
+    // ==========================================================
+    // Writes (through to FileManager)
+    // ==========================================================
+
+    /**
+     * Save a changed student
+     *
+     * @return true if successful
+     * @throws StudentConflictException if another process saved the student
+     *         since it was loaded; the repository then holds the saved one
+     */
+    public synchronized boolean save(Student student) throws StudentConflictException {
+        boolean saved = false;
+        try {
+            saved = fileManager.updateStudent(student);
+        } finally {
+            afterSave(student, saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Save a processed enrollment and the student's new status as one change
+     *
+     * @return true if successful
+     * @throws StudentConflictException if another process saved the student
+     *         since it was loaded; the repository then holds the saved one
+     */
+    public synchronized boolean recordEnrollment(Student student, Enrollment enrollment)
+            throws StudentConflictException {
+        boolean saved = false;
+        try {
+            saved = fileManager.recordEnrollment(student, enrollment);
+        } finally {
+            afterSave(student, saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Save the enrollments of several students and their new statuses as
+     * one change
+     *
+     * @return true if successful
+     * @throws StudentConflictException if another process saved one of the
+     *         students since it was loaded (see FileManager.recordEnrollments);
+     *         the repository then holds the saved students
+     */
+    public synchronized boolean recordEnrollments(List<Student> enrolled, List<Enrollment> enrollments)
+            throws StudentConflictException {
+        boolean saved = false;
+        try {
+            saved = fileManager.recordEnrollments(enrolled, enrollments);
+        } finally {
+            for (Student student : enrolled) {
+                afterSave(student, saved);
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Save students whose eligibility was recomputed, as one change
+     *
+     * @return true if successful
+     */
+    public synchronized boolean saveRefreshedEligibility(Collection<Student> changed) {
+        boolean saved = fileManager.saveRefreshedEligibility(changed);
+        for (Student student : changed) {
+            afterSave(student, saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Forget everything loaded; the next read loads from disk again
+     */
+    public synchronized void invalidate() {
+        summaries = null;
+        statistics = null;
+        students.clear();
+        allStudents = false;
+    }
+
+    // ==========================================================
+    // Metrics
+    // ==========================================================
+
+    /**
+     * @return reads answered from memory
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return reads that had to load from disk
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // ==========================================================
+    // Loading
+    // ==========================================================
+
+    // false if the students could not be loaded
+    private boolean loadStudents() {
+        if (allStudents) {
+            hits++;
+            return true;
+        }
+        misses++;
+        Map<String, Student> loaded = new LinkedHashMap<>();
+        if (!fileManager.forEachStudent(student -> loaded.put(student.getStudentId(), student))) {
+            return false; // nothing kept, so it is tried again
+        }
+        // Loaded students replace the ones fetched one at a time
+        students.clear();
+        students.putAll(loaded);
+        Map<String, StudentSummary> fresh = new LinkedHashMap<>();
+        EligibilityStatistics counted = new EligibilityStatistics();
+        for (Student student : loaded.values()) {
+            StudentSummary summary = new StudentSummary(student);
+            fresh.put(student.getStudentId(), summary);
+            counted.add(summary);
+        }
+        summaries = fresh;
+        statistics = counted;
+        allStudents = true;
+        System.out.println("✓ Loaded " + loaded.size() + " students into memory");
+        return true;
+    }
+
+    // false if the summaries could not be loaded
+    private boolean loadSummaries() {
+        if (summaries != null) {
+            hits++;
+            return true;
+        }
+        misses++;
+        Map<String, StudentSummary> fresh = new LinkedHashMap<>();
+        EligibilityStatistics counted = new EligibilityStatistics();
+        boolean loaded = fileManager.forEachStudentSummary(summary -> {
+            fresh.put(summary.getStudentId(), summary);
+            counted.add(summary);
+        });
+        if (!loaded) {
+            return false; // nothing kept, so it is tried again
+        }
+        summaries = fresh;
+        statistics = counted;
+        System.out.println("✓ Loaded " + fresh.size() + " student summaries into memory");
+        return true;
+    }
+
+    // A saved student replaces the cached one; after a failure the stored
+    // one is reloaded. It is only dropped when the store says it is gone;
+    // if it cannot be read either, everything is loaded again on next use
+    private void afterSave(Student student, boolean saved) {
+        String id = student.getStudentId();
+        if (!saved) {
+            Student[] stored = {null};
+            if (!fileManager.loadStudent(id, s -> stored[0] = s)) {
+                invalidate();
+                return;
+            }
+            student = stored[0];
+        }
+        if (student == null) {
+            students.remove(id);
+            replaceSummary(id, null);
+            return;
+        }
+        if (allStudents || students.containsKey(id)) {
+            students.put(id, student);
+        }
+        replaceSummary(id, new StudentSummary(student));
+    }
+
+    // Statistics follow: the old summary is counted out, the new one in
+    private void replaceSummary(String id, StudentSummary summary) {
+        if (summaries == null) {
+            return;
+        }
+        StudentSummary old = summary == null ? summaries.remove(id) : summaries.put(id, summary);
+        if (old != null) {
+            statistics.remove(old);
+        }
+        if (summary != null) {
+            statistics.add(summary);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.mycompany.crs.store;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * AtomicFile - Replace a file so that a crash leaves either the old or the new copy
+ *
+ * The content is written to "&lt;name&gt;.tmp" in the same directory, forced
+ * to disk, and renamed over the target with an atomic move. The directory
+ * is then forced too, so the rename itself survives a power loss (where
+ * the platform allows it). A temp file left behind by a crash is simply
+ * overwritten by the next write.
+ *
+ * Callers must not write the same target from two threads at once (the
+ * stores use GroupCommit for that). Public for the other data files of
+ * the application, such as the parsed data cache.
+ *
+ * @author YourName
+ * @version 1.1
+ */
+public final class AtomicFile {
+
+    /**
+     * Writes the new content to the stream it is given
+     */
+    @FunctionalInterface
+    public interface Writer {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private AtomicFile() {
+    }
+
+    /**
+     * Replace target with the bytes produced by writer
+     */
+    public static void write(Path target, Writer writer) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             BufferedOutputStream out = new BufferedOutputStream(file, 64 * 1024)) {
+            writer.writeTo(out);
+            out.flush();
+            file.getFD().sync();
+        }
+
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(dir);
+    }
+
+    // Not possible on every platform (e.g. Windows); the rename is still atomic there
+    static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // best effort
+        }
+    }
+}
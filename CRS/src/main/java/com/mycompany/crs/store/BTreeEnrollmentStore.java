@@ -0,0 +1,149 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Enrollment;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * BTreeEnrollmentStore - Enrollments in a B+tree file keyed by enrollment ID
+ *
+ * data/enrollments.btree holds one record per enrollment (the payload of
+ * LogEnrollmentStore) under its enrollment ID. Generated IDs have the form
+ * ENR-&lt;student&gt;-&lt;n&gt;, so one student's enrollments are a single
+ * prefix range of the tree: findByStudent() and nextSequence() read those
+ * leaves only. Saving an enrollment with an existing ID updates it in place.
+ *
+ * Enrollments come back in ID order (per student, by number). Numbers
+ * handed out by nextSequence() are not reused within a run.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public class BTreeEnrollmentStore implements EnrollmentStore {
+
+    private final Path file;
+    private BTreeFile tree;
+    private final Map<String, Integer> reserved = new HashMap<>();
+
+    /**
+     * @param file Tree file (enrollments.btree)
+     * @param importFrom Store to copy enrollments from when the tree file
+     *        does not exist yet (may be null)
+     */
+    public BTreeEnrollmentStore(String file, EnrollmentStore importFrom) throws IOException {
+        this.file = Paths.get(file);
+        if (Files.exists(this.file)) {
+            tree = new BTreeFile(this.file, true);
+        } else if (importFrom != null && importFrom.exists()) {
+            List<Enrollment> imported = importFrom.loadAll();
+            replaceAll(imported);
+            System.out.println("✓ Imported " + imported.size() + " enrollments into " + file);
+        }
+    }
+
+    @Override
+    public synchronized boolean exists() {
+        return tree != null;
+    }
+
+    @Override
+    public synchronized List<Enrollment> loadAll() throws IOException {
+        List<Enrollment> enrollments = new ArrayList<>();
+        if (tree != null) {
+            tree.scan("", (id, record) -> enrollments.add(LogEnrollmentStore.decode(record)));
+        }
+        return enrollments;
+    }
+
+    // Enrollments whose ID is not generated are only found by loadAll()
+    @Override
+    public synchronized List<Enrollment> findByStudent(String studentId) throws IOException {
+        List<Enrollment> found = new ArrayList<>();
+        if (tree != null) {
+            tree.scan(LogEnrollmentStore.idPrefix(studentId), (id, record) -> {
+                Enrollment enrollment = LogEnrollmentStore.decode(record);
+                if (studentId.equals(enrollment.getStudentId())) {
+                    found.add(enrollment);
+                }
+            });
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized int nextSequence(String studentId) throws IOException {
+        int last = reserved.getOrDefault(studentId, 0);
+        for (Enrollment enrollment : findByStudent(studentId)) {
+            last = Math.max(last, LogEnrollmentStore.idSequence(enrollment));
+        }
+        reserved.put(studentId, last + 1);
+        return last + 1;
+    }
+
+    @Override
+    public void append(Enrollment enrollment) throws IOException {
+        appendAll(Collections.singletonList(enrollment));
+    }
+
+    @Override
+    public synchronized void appendAll(Collection<Enrollment> enrollments) throws IOException {
+        if (tree == null) {
+            replaceAll(Collections.emptyList());
+        }
+        try {
+            for (Enrollment enrollment : enrollments) {
+                tree.put(key(enrollment), encode(enrollment));
+            }
+            tree.commit();
+        } catch (IOException | RuntimeException e) {
+            tree.rollback();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void replaceAll(List<Enrollment> enrollments) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        BTreeFile.delete(tmp);
+        try (BTreeFile fresh = new BTreeFile(tmp, false)) {
+            for (Enrollment enrollment : enrollments) {
+                fresh.put(key(enrollment), encode(enrollment));
+            }
+        }
+        closeTree();
+        LogFiles.moveAtomically(tmp, file);
+        tree = new BTreeFile(file, true);
+        reserved.clear();
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        closeTree();
+        reserved.clear();
+        BTreeFile.delete(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeTree();
+    }
+
+    private static String key(Enrollment enrollment) throws IOException {
+        if (enrollment.getEnrollmentId() == null) {
+            throw new IOException("Enrollment of " + enrollment.getStudentId() + " has no ID");
+        }
+        return enrollment.getEnrollmentId();
+    }
+
+    private static byte[] encode(Enrollment enrollment) throws IOException {
+        return LogEnrollmentStore.encode(enrollment, LogEnrollmentStore.idSequence(enrollment));
+    }
+
+    private void closeTree() throws IOException {
+        if (tree != null) {
+            tree.close();
+            tree = null;
+        }
+    }
+}
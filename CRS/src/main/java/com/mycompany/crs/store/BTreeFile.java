@@ -0,0 +1,751 @@
+package com.mycompany.crs.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * BTreeFile - Page-based B+tree mapping string keys to byte records
+ *
+ * The file is an array of fixed 4 KB pages:
+ *
+ *   header    page 0: magic, version, page size, root page, page count,
+ *             first free page, number of entries
+ *   inner     sorted separator keys and the child page of each key range
+ *   leaf      sorted keys with their records, plus the next leaf, so a
+ *             key range is read leaf by leaf
+ *   overflow  chained pages holding a record too large for a leaf
+ *   free      overflow pages given back, reused before the file grows
+ *
+ * Decoded pages are kept in an LRU page cache of a fixed number of pages
+ * (-Dcrs.store.btreeCachePages, default 1024 = 4 MB), so memory use does
+ * not grow with the file. Changes stay in the cache until commit(), or
+ * until a changed page is evicted.
+ *
+ * Records are updated in place. Before a page of the committed tree is
+ * overwritten, its old contents go to a rollback journal (file-journal,
+ * empty between commits) that is forced to disk first; commit() forces the
+ * file and then empties the journal. rollback(), and opening a file whose journal is not empty,
+ * copy the old pages back, so a failed or interrupted commit leaves the
+ * tree as it was at the last commit.
+ *
+ * Not thread-safe; the stores using it synchronize.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+final class BTreeFile implements Closeable {
+
+    static final int PAGE_SIZE = 4096;
+    static final int MAX_KEY_BYTES = 255;
+    private static final int MAX_INLINE_BYTES = 1024;
+
+    private static final int MAGIC = 0x43525354;         // "CRST"
+    private static final int JOURNAL_MAGIC = 0x4352534A; // "CRSJ"
+    private static final int VERSION = 1;
+
+    // Header fields
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_PAGE_SIZE = 8;
+    private static final int H_ROOT = 12;
+    private static final int H_PAGE_COUNT = 16;
+    private static final int H_FREE = 20;
+    private static final int H_ENTRIES = 24;
+
+    // Page types
+    private static final byte LEAF = 1;
+    private static final byte INNER = 2;
+    private static final byte OVERFLOW = 3;
+    private static final byte FREE = 4;
+
+    private static final int NODE_HEADER_BYTES = 7;     // type, count, next leaf / first child
+    private static final int OVERFLOW_HEADER_BYTES = 9; // type, next page, length
+    private static final int JOURNAL_ENTRY_BYTES = 4 + PAGE_SIZE + 4;
+
+    /**
+     * Receives the entries found by scan()
+     */
+    @FunctionalInterface
+    interface EntryVisitor {
+        void entry(String key, byte[] value) throws IOException;
+    }
+
+    /** A record: in the leaf, or in a chain of overflow pages */
+    private static final class Value {
+        final byte[] inline;
+        final int length;
+        final int firstPage;
+
+        Value(byte[] inline, int length, int firstPage) {
+            this.inline = inline;
+            this.length = length;
+            this.firstPage = firstPage;
+        }
+
+        int encodedBytes() {
+            return 5 + (inline != null ? length : 4);
+        }
+    }
+
+    /** A decoded leaf or inner page */
+    private static final class Node {
+        final int page;
+        final boolean leaf;
+        final List<String> keys = new ArrayList<>();
+        final List<Value> values;     // leaf
+        final List<Integer> children; // inner, one more than keys
+        int next;                     // leaf: next leaf page, 0 = last
+        boolean dirty;
+
+        Node(int page, boolean leaf) {
+            this.page = page;
+            this.leaf = leaf;
+            this.values = leaf ? new ArrayList<>() : null;
+            this.children = leaf ? null : new ArrayList<>();
+        }
+
+        int encodedBytes() {
+            int bytes = NODE_HEADER_BYTES;
+            for (int i = 0; i < keys.size(); i++) {
+                bytes += 2 + keyBytes(keys.get(i)) + (leaf ? values.get(i).encodedBytes() : 4);
+            }
+            return bytes;
+        }
+    }
+
+    private final Path path;
+    private final Path journalPath;
+    private final boolean journaling;
+    private final int cachePages;
+    private FileChannel channel;
+    private FileChannel journal;
+    private long journalEnd;
+    private boolean journalUnsynced;
+
+    private int root;
+    private int pageCount;
+    private int freePage;
+    private long entries;
+    private boolean headerDirty;
+    private int committedPages;
+    private final Set<Integer> journaled = new HashSet<>();
+    private final LinkedHashMap<Integer, Node> cache = new LinkedHashMap<>(64, 0.75f, true);
+
+    // Metrics
+    private long cacheHits;
+    private long pageReads;
+    private long pageWrites;
+
+    /**
+     * Open a tree file, creating an empty tree if it does not exist
+     *
+     * @param path Tree file
+     * @param journaling false for a file that is thrown away if writing it
+     *        fails (e.g. one being rebuilt under a temporary name)
+     */
+    BTreeFile(Path path, boolean journaling) throws IOException {
+        this.path = path;
+        this.journalPath = path.resolveSibling(path.getFileName() + "-journal");
+        this.journaling = journaling;
+        this.cachePages = Math.max(16, Integer.getInteger("crs.store.btreeCachePages", 1024));
+        boolean fresh = !Files.exists(path);
+        if (fresh) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE);
+        try {
+            if (fresh) {
+                root = 1;
+                pageCount = 2;
+                committedPages = 0;
+                Node leaf = new Node(root, true);
+                leaf.dirty = true;
+                cache.put(root, leaf);
+                headerDirty = true;
+                commit();
+            } else {
+                recover();
+                readHeader();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // ==========================================================
+    // Reads
+    // ==========================================================
+
+    /**
+     * @return number of keys
+     */
+    long size() {
+        return entries;
+    }
+
+    /**
+     * @return record stored under key, or null
+     */
+    byte[] get(String key) throws IOException {
+        Node leaf = findLeaf(key);
+        int i = Collections.binarySearch(leaf.keys, key);
+        byte[] value = i < 0 ? null : read(leaf.values.get(i));
+        evict();
+        return value;
+    }
+
+    /**
+     * Visit the keys starting with prefix in key order ("" visits all).
+     * The visitor must not change the tree.
+     */
+    void scan(String prefix, EntryVisitor visitor) throws IOException {
+        Node leaf = findLeaf(prefix);
+        int i = Collections.binarySearch(leaf.keys, prefix);
+        i = i < 0 ? -i - 1 : i;
+        while (true) {
+            // Keys sharing a prefix are adjacent: stop at the first that does not match
+            for (; i < leaf.keys.size(); i++) {
+                String key = leaf.keys.get(i);
+                if (!key.startsWith(prefix)) {
+                    evict();
+                    return;
+                }
+                visitor.entry(key, read(leaf.values.get(i)));
+            }
+            if (leaf.next == 0) {
+                break;
+            }
+            int next = leaf.next;
+            evict();
+            leaf = node(next);
+            i = 0;
+        }
+        evict();
+    }
+
+    // ==========================================================
+    // Writes
+    // ==========================================================
+
+    /**
+     * Insert a key or replace its record (visible at once, durable after commit())
+     *
+     * @return true if the key is new
+     */
+    boolean put(String key, byte[] value) throws IOException {
+        if (keyBytes(key) > MAX_KEY_BYTES) {
+            throw new IOException("Key too long for " + path + ": " + key);
+        }
+        List<Node> parents = new ArrayList<>();
+        Node node = node(root);
+        while (!node.leaf) {
+            parents.add(node);
+            node = node(node.children.get(childIndex(node, key)));
+        }
+
+        int i = Collections.binarySearch(node.keys, key);
+        boolean added = i < 0;
+        // A new largest key (IDs in order): full pages can be left behind
+        boolean atEnd = added && -i - 1 == node.keys.size() && node.next == 0;
+        if (added) {
+            node.keys.add(-i - 1, key);
+            node.values.add(-i - 1, store(value));
+            entries++;
+            headerDirty = true;
+        } else {
+            release(node.values.get(i));
+            node.values.set(i, store(value));
+        }
+        node.dirty = true;
+
+        // Split full pages from the leaf up; a split root adds a level
+        for (int depth = parents.size() - 1; node.encodedBytes() > PAGE_SIZE; depth--) {
+            Node right = newNode(node.leaf);
+            String separator = split(node, right, atEnd);
+            if (depth < 0) {
+                Node newRoot = newNode(false);
+                newRoot.children.add(node.page);
+                newRoot.keys.add(separator);
+                newRoot.children.add(right.page);
+                root = newRoot.page;
+                headerDirty = true;
+                break;
+            }
+            Node parent = parents.get(depth);
+            int at = parent.children.indexOf(node.page);
+            parent.keys.add(at, separator);
+            parent.children.add(at + 1, right.page);
+            parent.dirty = true;
+            atEnd = atEnd && at + 1 == parent.keys.size();
+            node = parent;
+        }
+        evict();
+        return added;
+    }
+
+    /**
+     * Make every change since the last commit durable
+     */
+    void commit() throws IOException {
+        List<Node> dirty = new ArrayList<>();
+        for (Node node : cache.values()) {
+            if (node.dirty) {
+                dirty.add(node);
+            }
+        }
+        if (dirty.isEmpty() && !headerDirty) {
+            return;
+        }
+        // Old images first, one sync for all of them
+        for (Node node : dirty) {
+            journal(node.page);
+        }
+        journal(0);
+        syncJournal();
+
+        for (Node node : dirty) {
+            writeNode(node);
+        }
+        writeHeader();
+        channel.force(true);
+        endTransaction();
+    }
+
+    /**
+     * Undo every change since the last commit
+     */
+    void rollback() throws IOException {
+        cache.clear();
+        journalUnsynced = false;
+        recover();
+        readHeader();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            commit();
+        } finally {
+            channel.close();
+            channel = null;
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            if (journalEnd == 0) {
+                Files.deleteIfExists(journalPath); // else needed by the next open
+            }
+        }
+    }
+
+    /**
+     * Remove a tree file and its journal
+     */
+    static void delete(Path path) throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(path.resolveSibling(path.getFileName() + "-journal"));
+    }
+
+    // ==========================================================
+    // Metrics
+    // ==========================================================
+
+    long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * @return pages read from the file (cache misses)
+     */
+    long getPageReads() {
+        return pageReads;
+    }
+
+    long getPageWrites() {
+        return pageWrites;
+    }
+
+    int getCachedPages() {
+        return cache.size();
+    }
+
+    // ==========================================================
+    // Tree
+    // ==========================================================
+
+    private Node findLeaf(String key) throws IOException {
+        Node node = node(root);
+        while (!node.leaf) {
+            node = node(node.children.get(childIndex(node, key)));
+        }
+        return node;
+    }
+
+    // Child i holds the keys below keys[i]; keys equal to a separator go right
+    private static int childIndex(Node inner, String key) {
+        int i = Collections.binarySearch(inner.keys, key);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    // Move the upper half (by bytes) of a full node to right, or only the
+    // last key when appending; returns the separator
+    private static String split(Node left, Node right, boolean atEnd) {
+        int half = left.encodedBytes() / 2;
+        int bytes = NODE_HEADER_BYTES;
+        int n = left.keys.size();
+        int at = atEnd ? n - 1 : 1;
+        for (; at < n - 1; at++) {
+            bytes += 2 + keyBytes(left.keys.get(at - 1))
+                     + (left.leaf ? left.values.get(at - 1).encodedBytes() : 4);
+            if (bytes >= half) {
+                break;
+            }
+        }
+        right.dirty = true;
+        if (left.leaf) {
+            right.keys.addAll(left.keys.subList(at, n));
+            right.values.addAll(left.values.subList(at, n));
+            left.keys.subList(at, n).clear();
+            left.values.subList(at, n).clear();
+            right.next = left.next;
+            left.next = right.page;
+            return right.keys.get(0);
+        }
+        // Inner: the key at the split point moves up
+        String separator = left.keys.get(at);
+        right.keys.addAll(left.keys.subList(at + 1, n));
+        right.children.addAll(left.children.subList(at + 1, n + 1));
+        left.keys.subList(at, n).clear();
+        left.children.subList(at + 1, n + 1).clear();
+        return separator;
+    }
+
+    private Node newNode(boolean leaf) throws IOException {
+        Node node = new Node(allocatePage(), leaf);
+        node.dirty = true;
+        cache.put(node.page, node);
+        return node;
+    }
+
+    private Node node(int page) throws IOException {
+        Node node = cache.get(page);
+        if (node != null) {
+            cacheHits++;
+            return node;
+        }
+        node = decode(page, readPage(page));
+        cache.put(page, node);
+        return node;
+    }
+
+    // Called between operations, never while a caller holds nodes it changes.
+    // Evicts down to 3/4 of the cache, so changed pages are journaled and
+    // written in batches with one journal sync each
+    private void evict() throws IOException {
+        if (cache.size() <= cachePages) {
+            return;
+        }
+        List<Node> victims = new ArrayList<>();
+        Iterator<Node> eldest = cache.values().iterator();
+        for (int n = cache.size() - cachePages * 3 / 4; n > 0; n--) {
+            Node node = eldest.next();
+            if (node.dirty) {
+                victims.add(node);
+                journal(node.page);
+            }
+            eldest.remove();
+        }
+        for (Node node : victims) {
+            writeNode(node);
+        }
+    }
+
+    // ==========================================================
+    // Records and overflow pages
+    // ==========================================================
+
+    private Value store(byte[] value) throws IOException {
+        if (value.length <= MAX_INLINE_BYTES) {
+            return new Value(value, value.length, 0);
+        }
+        int chunk = PAGE_SIZE - OVERFLOW_HEADER_BYTES;
+        int pages = (value.length + chunk - 1) / chunk;
+        int[] chain = new int[pages];
+        for (int i = 0; i < pages; i++) {
+            chain[i] = allocatePage();
+        }
+        for (int i = 0; i < pages; i++) {
+            int from = i * chunk;
+            int length = Math.min(chunk, value.length - from);
+            ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+            page.put(OVERFLOW).putInt(i + 1 < pages ? chain[i + 1] : 0).putInt(length)
+                .put(value, from, length);
+            writePage(chain[i], page);
+        }
+        return new Value(null, value.length, chain[0]);
+    }
+
+    private byte[] read(Value value) throws IOException {
+        if (value.inline != null) {
+            return value.inline;
+        }
+        byte[] bytes = new byte[value.length];
+        int filled = 0;
+        for (int page = value.firstPage; filled < bytes.length; ) {
+            ByteBuffer buffer = readPage(page);
+            if (page == 0 || buffer.get(0) != OVERFLOW) {
+                throw new IOException("Damaged overflow chain in " + path);
+            }
+            int next = buffer.getInt(1);
+            int length = buffer.getInt(5);
+            buffer.position(OVERFLOW_HEADER_BYTES);
+            buffer.get(bytes, filled, length);
+            filled += length;
+            page = next;
+        }
+        return bytes;
+    }
+
+    // Put the overflow pages of a replaced record on the free list
+    private void release(Value value) throws IOException {
+        for (int page = value.firstPage; page != 0; ) {
+            int next = readPage(page).getInt(1);
+            ByteBuffer free = ByteBuffer.allocate(PAGE_SIZE);
+            free.put(FREE).putInt(freePage);
+            writePage(page, free);
+            freePage = page;
+            headerDirty = true;
+            page = next;
+        }
+    }
+
+    private int allocatePage() throws IOException {
+        headerDirty = true;
+        if (freePage != 0) {
+            int page = freePage;
+            freePage = readPage(page).getInt(1);
+            return page;
+        }
+        return pageCount++;
+    }
+
+    // ==========================================================
+    // Page encoding
+    // ==========================================================
+
+    private Node decode(int page, ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        if (type != LEAF && type != INNER) {
+            throw new IOException("Damaged page " + page + " in " + path);
+        }
+        Node node = new Node(page, type == LEAF);
+        int count = buffer.getShort() & 0xFFFF;
+        if (node.leaf) {
+            node.next = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                node.keys.add(readKey(buffer));
+                boolean inline = buffer.get() == 1;
+                int length = buffer.getInt();
+                if (inline) {
+                    byte[] bytes = new byte[length];
+                    buffer.get(bytes);
+                    node.values.add(new Value(bytes, length, 0));
+                } else {
+                    node.values.add(new Value(null, length, buffer.getInt()));
+                }
+            }
+        } else {
+            node.children.add(buffer.getInt());
+            for (int i = 0; i < count; i++) {
+                node.keys.add(readKey(buffer));
+                node.children.add(buffer.getInt());
+            }
+        }
+        return node;
+    }
+
+    private void writeNode(Node node) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        buffer.put(node.leaf ? LEAF : INNER).putShort((short) node.keys.size());
+        if (node.leaf) {
+            buffer.putInt(node.next);
+            for (int i = 0; i < node.keys.size(); i++) {
+                writeKey(buffer, node.keys.get(i));
+                Value value = node.values.get(i);
+                buffer.put((byte) (value.inline != null ? 1 : 0)).putInt(value.length);
+                if (value.inline != null) {
+                    buffer.put(value.inline);
+                } else {
+                    buffer.putInt(value.firstPage);
+                }
+            }
+        } else {
+            buffer.putInt(node.children.get(0));
+            for (int i = 0; i < node.keys.size(); i++) {
+                writeKey(buffer, node.keys.get(i));
+                buffer.putInt(node.children.get(i + 1));
+            }
+        }
+        writePage(node.page, buffer);
+        node.dirty = false;
+    }
+
+    private static String readKey(ByteBuffer buffer) {
+        byte[] key = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private static void writeKey(ByteBuffer buffer, String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static int keyBytes(String key) {
+        int bytes = key.length();
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) >= 0x80) {
+                return key.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return bytes;
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = readPage(0);
+        if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != VERSION
+                || header.getInt(H_PAGE_SIZE) != PAGE_SIZE) {
+            throw new IOException("Not a B+tree file: " + path);
+        }
+        root = header.getInt(H_ROOT);
+        pageCount = header.getInt(H_PAGE_COUNT);
+        freePage = header.getInt(H_FREE);
+        entries = header.getLong(H_ENTRIES);
+        if (root <= 0 || root >= pageCount || (long) pageCount * PAGE_SIZE > channel.size()) {
+            throw new IOException("Damaged B+tree file: " + path);
+        }
+        committedPages = pageCount;
+        headerDirty = false;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+        header.putInt(H_MAGIC, MAGIC).putInt(H_VERSION, VERSION).putInt(H_PAGE_SIZE, PAGE_SIZE)
+              .putInt(H_ROOT, root).putInt(H_PAGE_COUNT, pageCount).putInt(H_FREE, freePage)
+              .putLong(H_ENTRIES, entries);
+        writePage(0, header);
+        headerDirty = false;
+    }
+
+    // ==========================================================
+    // Pages and journal
+    // ==========================================================
+
+    private ByteBuffer readPage(int page) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        if (LogFiles.readFully(channel, buffer, (long) page * PAGE_SIZE) < PAGE_SIZE) {
+            throw new IOException("Page " + page + " missing from " + path);
+        }
+        pageReads++;
+        buffer.flip();
+        return buffer;
+    }
+
+    // Every write to the file goes through here, after its page is journaled
+    private void writePage(int page, ByteBuffer buffer) throws IOException {
+        journal(page);
+        syncJournal();
+        buffer.clear();
+        LogFiles.writeFully(channel, buffer, (long) page * PAGE_SIZE);
+        pageWrites++;
+    }
+
+    // Save the committed image of a page, once per transaction; pages
+    // added since the last commit are cut off by a rollback instead
+    private void journal(int page) throws IOException {
+        if (!journaling || page >= committedPages || !journaled.add(page)) {
+            return;
+        }
+        if (journal == null) {
+            journal = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                                       StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        if (journalEnd == 0) {
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(JOURNAL_MAGIC).putInt(committedPages);
+            header.flip();
+            journalEnd = LogFiles.writeFully(journal, header, 0);
+        }
+        ByteBuffer image = readPage(page);
+        CRC32 crc = new CRC32();
+        crc.update(image.array());
+        ByteBuffer entry = ByteBuffer.allocate(JOURNAL_ENTRY_BYTES);
+        entry.putInt(page).put(image.array()).putInt((int) crc.getValue());
+        entry.flip();
+        journalEnd = LogFiles.writeFully(journal, entry, journalEnd);
+        journalUnsynced = true;
+    }
+
+    private void syncJournal() throws IOException {
+        if (journalUnsynced) {
+            journal.force(false);
+            journalUnsynced = false;
+        }
+    }
+
+    // The commit point: once the journal is empty the new pages stand
+    private void endTransaction() throws IOException {
+        if (journal != null && journalEnd > 0) {
+            journal.truncate(0);
+            journal.force(false);
+        }
+        journalEnd = 0;
+        journaled.clear();
+        committedPages = pageCount;
+    }
+
+    // Copy journaled pages back and drop pages added after the last commit
+    private void recover() throws IOException {
+        if (journal == null && Files.exists(journalPath)) {
+            journal = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        if (journal != null && journal.size() >= 8) {
+            ByteBuffer header = ByteBuffer.allocate(8);
+            LogFiles.readFully(journal, header, 0);
+            if (header.getInt(0) == JOURNAL_MAGIC) {
+                int restored = 0;
+                ByteBuffer entry = ByteBuffer.allocate(JOURNAL_ENTRY_BYTES);
+                CRC32 crc = new CRC32();
+                for (long at = 8; at + JOURNAL_ENTRY_BYTES <= journal.size(); at += JOURNAL_ENTRY_BYTES) {
+                    entry.clear();
+                    LogFiles.readFully(journal, entry, at);
+                    crc.reset();
+                    crc.update(entry.array(), 4, PAGE_SIZE);
+                    if ((int) crc.getValue() != entry.getInt(4 + PAGE_SIZE)) {
+                        break; // written but never synced: its page was not touched
+                    }
+                    LogFiles.writeFully(channel, ByteBuffer.wrap(entry.array(), 4, PAGE_SIZE),
+                                        (long) entry.getInt(0) * PAGE_SIZE);
+                    restored++;
+                }
+                channel.truncate((long) header.getInt(4) * PAGE_SIZE);
+                channel.force(true);
+                if (restored > 0) {
+                    System.out.println("✓ Rolled back " + restored + " pages of " + path
+                                       + " to the last commit");
+                }
+            }
+        }
+        endTransaction();
+    }
+}
@@ -0,0 +1,193 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * BTreeStudentStore - Students in a B+tree file keyed by student ID
+ *
+ * data/students.btree holds one StudentCodec record per student under its
+ * ID (see BTreeFile). Only the pages on the path to a student are read,
+ * through a page cache of fixed size, so get() and put() cost a few page
+ * reads whatever the number of students, and forEach() and
+ * findByIdPrefix() walk the leaves without holding every student in memory.
+ *
+ * put() and putAll() update records in place and commit once per call.
+ * replaceAll() builds a new tree under a temporary name and moves it over
+ * the old one; the old tree stays open until the move has succeeded.
+ *
+ * Students come back in ID order, not in the order they were saved.
+ *
+ * @author YourName
+ * @version 1.1
+ */
+public class BTreeStudentStore implements StudentStore {
+
+    private final Path file;
+    private BTreeFile tree;
+
+    /**
+     * @param file Tree file (students.btree)
+     * @param importFrom Store to copy students from when the tree file
+     *        does not exist yet (may be null)
+     */
+    public BTreeStudentStore(String file, StudentStore importFrom) throws IOException {
+        this.file = Paths.get(file);
+        if (Files.exists(this.file)) {
+            tree = new BTreeFile(this.file, true);
+        } else if (importFrom != null && importFrom.exists()) {
+            List<Student> imported = importFrom.loadAll();
+            replaceAll(imported);
+            System.out.println("✓ Imported " + imported.size() + " students into " + file);
+        }
+    }
+
+    // ==========================================================
+    // StudentStore
+    // ==========================================================
+
+    @Override
+    public synchronized boolean exists() {
+        return tree != null;
+    }
+
+    @Override
+    public synchronized int size() {
+        return tree == null ? 0 : (int) tree.size();
+    }
+
+    @Override
+    public synchronized List<Student> loadAll() throws IOException {
+        List<Student> students = new ArrayList<>(size());
+        forEach(students::add);
+        return students;
+    }
+
+    @Override
+    public synchronized void forEach(Consumer<Student> action) throws IOException {
+        if (tree != null) {
+            tree.scan("", (id, record) -> action.accept(decode(record)));
+        }
+    }
+
+    @Override
+    public synchronized void forEachSummary(Consumer<StudentSummary> action) throws IOException {
+        if (tree != null) {
+            tree.scan("", (id, record) -> action.accept(StudentCodec.decodeSummary(record, 0, record.length)));
+        }
+    }
+
+    @Override
+    public synchronized List<Student> findByIdPrefix(String prefix) throws IOException {
+        List<Student> found = new ArrayList<>();
+        if (tree != null) {
+            tree.scan(prefix, (id, record) -> found.add(decode(record)));
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized Student get(String studentId) throws IOException {
+        byte[] record = tree == null ? null : tree.get(studentId);
+        return record == null ? null : decode(record);
+    }
+
+    @Override
+    public void put(Student student) throws IOException {
+        putAll(Collections.singletonList(student));
+    }
+
+    @Override
+    public synchronized void putAll(Collection<Student> students) throws IOException {
+        if (tree == null) {
+            replaceAll(Collections.emptyList());
+        }
+        try {
+            for (Student student : students) {
+                tree.put(student.getStudentId(), StudentCodec.encode(student));
+            }
+            tree.commit();
+        } catch (IOException | RuntimeException e) {
+            tree.rollback();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void replaceAll(List<Student> students) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        BTreeFile.delete(tmp);
+
+        // Keys in order fill the pages one after the other
+        List<Student> sorted = new ArrayList<>(students);
+        sorted.sort(Comparator.comparing(Student::getStudentId));
+        boolean moved = false;
+        try {
+            try (BTreeFile fresh = new BTreeFile(tmp, false)) {
+                for (Student student : sorted) {
+                    fresh.put(student.getStudentId(), StudentCodec.encode(student));
+                }
+            }
+            LogFiles.moveAtomically(tmp, file);
+            moved = true;
+        } finally {
+            if (!moved) {
+                BTreeFile.delete(tmp); // the old tree is still open and in use
+            }
+        }
+        // Only now: the old tree shares the journal path with the new one
+        closeTree();
+        tree = new BTreeFile(file, true);
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        closeTree();
+        BTreeFile.delete(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeTree();
+    }
+
+    // ==========================================================
+    // Metrics
+    // ==========================================================
+
+    /**
+     * @return page reads served by the page cache
+     */
+    public synchronized long getCacheHits() {
+        return tree == null ? 0 : tree.getCacheHits();
+    }
+
+    /**
+     * @return pages read from the file
+     */
+    public synchronized long getPageReads() {
+        return tree == null ? 0 : tree.getPageReads();
+    }
+
+    /**
+     * @return pages written to the file
+     */
+    public synchronized long getPageWrites() {
+        return tree == null ? 0 : tree.getPageWrites();
+    }
+
+    private static Student decode(byte[] record) throws IOException {
+        return StudentCodec.decode(record, 0, record.length);
+    }
+
+    private void closeTree() throws IOException {
+        if (tree != null) {
+            tree.close();
+            tree = null;
+        }
+    }
+}
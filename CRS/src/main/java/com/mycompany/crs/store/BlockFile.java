@@ -0,0 +1,289 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * BlockFile - Block-compressed container for a student list
+ *
+ * The students are cut into blocks of a fixed number of records. Each
+ * block is a complete StudentCodec list (its own string and course tables)
+ * compressed with deflate, so names, majors, courses and instructors that
+ * repeat within a block are stored once and then compressed:
+ *
+ *   header   int magic "CRSZ", int version
+ *   blocks   deflated StudentCodec lists, one after the other
+ *   index    deflated: varint block count, per block: varint offset delta,
+ *            compressed length, raw length, int CRC32 of the compressed
+ *            bytes, varint record count and the records' student IDs
+ *   trailer  long file id, long index offset, int index length,
+ *            int index raw length, int magic
+ *
+ * The trailer is at a fixed distance from the end, so a reader finds the
+ * index with one read, and the index tells it which block holds a student:
+ * get() inflates one block instead of the whole file. The file id is
+ * random per write, so a cached index can be checked against a file with
+ * one small read.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+final class BlockFile {
+
+    static final int MAGIC = 0x4352535A; // "CRSZ"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int TRAILER_BYTES = 28;
+
+    /** Position and size of one block */
+    static final class Block {
+        final long offset;
+        final int length;
+        final int rawLength;
+        final int crc;
+        final int records;
+
+        Block(long offset, int length, int rawLength, int crc, int records) {
+            this.offset = offset;
+            this.length = length;
+            this.rawLength = rawLength;
+            this.crc = crc;
+            this.records = records;
+        }
+    }
+
+    /** Blocks of a file and the block of every student */
+    static final class Index {
+        final long fileId;
+        final List<Block> blocks;
+        final Map<String, Integer> blockOf;
+
+        Index(long fileId, List<Block> blocks, Map<String, Integer> blockOf) {
+            this.fileId = fileId;
+            this.blocks = blocks;
+            this.blockOf = blockOf;
+        }
+
+        int size() {
+            int size = 0;
+            for (Block block : blocks) {
+                size += block.records;
+            }
+            return size;
+        }
+    }
+
+    private BlockFile() {
+    }
+
+    // ==========================================================
+    // Writing
+    // ==========================================================
+
+    /**
+     * Write students as a block file
+     *
+     * @param blockRecords Students per block
+     */
+    static void write(OutputStream stream, List<Student> students, int blockRecords) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        List<Block> blocks = new ArrayList<>();
+        ByteArrayOutputStream index = new ByteArrayOutputStream(students.size() * 8 + 64);
+        DataOutputStream ids = new DataOutputStream(index);
+        long offset = HEADER_BYTES;
+        Deflater deflater = new Deflater();
+        try {
+            for (int from = 0; from < students.size(); from += blockRecords) {
+                List<Student> part = students.subList(from, Math.min(students.size(), from + blockRecords));
+                ByteArrayOutputStream raw = new ByteArrayOutputStream(part.size() * 128);
+                StudentCodec.write(new DataOutputStream(raw), part);
+                byte[] compressed = deflate(deflater, raw.toByteArray());
+                out.write(compressed);
+
+                CRC32 crc = new CRC32();
+                crc.update(compressed);
+                blocks.add(new Block(offset, compressed.length, raw.size(), (int) crc.getValue(), part.size()));
+                offset += compressed.length;
+                for (Student student : part) {
+                    ids.writeUTF(student.getStudentId());
+                }
+            }
+
+            // Index: block table, then the IDs of each block in order
+            ByteArrayOutputStream table = new ByteArrayOutputStream(blocks.size() * 16 + index.size() + 8);
+            DataOutputStream t = new DataOutputStream(table);
+            StudentCodec.writeVarint(t, blocks.size());
+            long previous = HEADER_BYTES;
+            for (Block block : blocks) {
+                StudentCodec.writeVarint(t, (int) (block.offset - previous));
+                StudentCodec.writeVarint(t, block.length);
+                StudentCodec.writeVarint(t, block.rawLength);
+                t.writeInt(block.crc);
+                StudentCodec.writeVarint(t, block.records);
+                previous = block.offset;
+            }
+            index.writeTo(t);
+            t.flush();
+            byte[] rawIndex = table.toByteArray();
+            byte[] compressedIndex = deflate(deflater, rawIndex);
+            out.write(compressedIndex);
+
+            out.writeLong(ThreadLocalRandom.current().nextLong());
+            out.writeLong(offset);
+            out.writeInt(compressedIndex.length);
+            out.writeInt(rawIndex.length);
+            out.writeInt(MAGIC);
+            out.flush();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+        byte[] buffer = new byte[16 * 1024];
+        while (!deflater.finished()) {
+            compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return compressed.toByteArray();
+    }
+
+    // ==========================================================
+    // Reading
+    // ==========================================================
+
+    /**
+     * @return true if a file starts with the block file magic
+     */
+    static boolean isBlockFile(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        return LogFiles.readFully(channel, magic, 0) == 4 && magic.getInt(0) == MAGIC;
+    }
+
+    /**
+     * @return the file id in the trailer (to check a cached index)
+     */
+    static long readFileId(FileChannel channel) throws IOException {
+        return readTrailer(channel).getLong(0);
+    }
+
+    /**
+     * Read the block index of a file
+     */
+    static Index readIndex(FileChannel channel) throws IOException {
+        ByteBuffer trailer = readTrailer(channel);
+        long fileId = trailer.getLong(0);
+        long indexOffset = trailer.getLong(8);
+        int indexLength = trailer.getInt(16);
+        int indexRawLength = trailer.getInt(20);
+        if (indexOffset < HEADER_BYTES || indexLength < 0 || indexRawLength < 0
+            || indexOffset + indexLength > channel.size() - TRAILER_BYTES) {
+            throw new IOException("Damaged block index");
+        }
+        ByteBuffer compressed = ByteBuffer.allocate(indexLength);
+        if (LogFiles.readFully(channel, compressed, indexOffset) < indexLength) {
+            throw new IOException("Truncated block index");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                inflate(compressed.array(), indexRawLength)));
+
+        int count = StudentCodec.readVarint(in);
+        List<Block> blocks = new ArrayList<>(count);
+        long offset = HEADER_BYTES;
+        for (int i = 0; i < count; i++) {
+            offset += StudentCodec.readVarint(in);
+            int length = StudentCodec.readVarint(in);
+            int rawLength = StudentCodec.readVarint(in);
+            int crc = in.readInt();
+            int records = StudentCodec.readVarint(in);
+            if (length < 0 || rawLength < 0 || records < 0 || offset + length > indexOffset) {
+                throw new IOException("Damaged block index entry " + i);
+            }
+            blocks.add(new Block(offset, length, rawLength, crc, records));
+        }
+        Map<String, Integer> blockOf = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            for (int r = 0; r < blocks.get(i).records; r++) {
+                blockOf.put(in.readUTF(), i);
+            }
+        }
+        return new Index(fileId, blocks, blockOf);
+    }
+
+    /**
+     * Inflate and decode one block
+     */
+    static List<Student> readBlock(FileChannel channel, Block block) throws IOException {
+        return StudentCodec.read(blockInput(channel, block));
+    }
+
+    /**
+     * Inflate one block and decode the summaries of its students
+     */
+    static List<StudentSummary> readBlockSummaries(FileChannel channel, Block block) throws IOException {
+        return StudentCodec.readSummaries(blockInput(channel, block));
+    }
+
+    private static DataInputStream blockInput(FileChannel channel, Block block) throws IOException {
+        ByteBuffer compressed = ByteBuffer.allocate(block.length);
+        if (LogFiles.readFully(channel, compressed, block.offset) < block.length) {
+            throw new IOException("Truncated block at " + block.offset);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(compressed.array());
+        if ((int) crc.getValue() != block.crc) {
+            throw new IOException("Damaged block at " + block.offset + " (checksum mismatch)");
+        }
+        return new DataInputStream(new ByteArrayInputStream(inflate(compressed.array(), block.rawLength)));
+    }
+
+    private static ByteBuffer readTrailer(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+        if (size < HEADER_BYTES + TRAILER_BYTES
+            || LogFiles.readFully(channel, trailer, size - TRAILER_BYTES) < TRAILER_BYTES
+            || trailer.getInt(TRAILER_BYTES - 4) != MAGIC) {
+            throw new IOException("Not a complete block file");
+        }
+        return trailer;
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int done = 0;
+            while (done < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, done, rawLength - done);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                done += n;
+            }
+            if (done != rawLength) {
+                throw new IOException("Damaged block (" + done + " of " + rawLength + " bytes)");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Damaged block: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
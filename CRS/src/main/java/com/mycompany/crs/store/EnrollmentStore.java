@@ -0,0 +1,116 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Enrollment;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EnrollmentStore - Persistent storage for enrollment records
+ *
+ * The enrollment counterpart of StudentStore; FileManager reads and writes
+ * enrollments only through this interface. Implementations are shared per
+ * data file within a process and are thread-safe.
+ *
+ * @author YourName
+ * @version 1.2
+ */
+public interface EnrollmentStore extends Closeable {
+
+    /**
+     * @return true if enrollments have been saved before
+     */
+    boolean exists();
+
+    /**
+     * Load every enrollment, in the order they were saved
+     *
+     * @return List of enrollments (empty if nothing is stored)
+     */
+    List<Enrollment> loadAll() throws IOException;
+
+    /**
+     * Load the enrollments of one student, in the order they were saved
+     *
+     * @param studentId Student ID
+     * @return List of enrollments (empty if none)
+     */
+    default List<Enrollment> findByStudent(String studentId) throws IOException {
+        List<Enrollment> found = new ArrayList<>();
+        for (Enrollment enrollment : loadAll()) {
+            if (enrollment.getStudentId().equals(studentId)) {
+                found.add(enrollment);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reserve the next enrollment number of a student (1 for the first)
+     *
+     * @param studentId Student ID
+     * @return Sequence number for the student's next enrollment ID
+     */
+    default int nextSequence(String studentId) throws IOException {
+        return findByStudent(studentId).size() + 1;
+    }
+
+    /**
+     * Reserve the next enrollment number of several students
+     *
+     * @param studentIds Student IDs
+     * @return Sequence number for each student's next enrollment ID
+     */
+    default Map<String, Integer> nextSequences(Collection<String> studentIds) throws IOException {
+        Map<String, Integer> sequences = new HashMap<>();
+        for (String studentId : studentIds) {
+            sequences.put(studentId, nextSequence(studentId));
+        }
+        return sequences;
+    }
+
+    /**
+     * Add one enrollment record
+     *
+     * @param enrollment New enrollment
+     */
+    default void append(Enrollment enrollment) throws IOException {
+        List<Enrollment> enrollments = loadAll();
+        enrollments.add(enrollment);
+        replaceAll(enrollments);
+    }
+
+    /**
+     * Add several enrollment records, in order
+     *
+     * @param enrollments New enrollments
+     */
+    default void appendAll(Collection<Enrollment> enrollments) throws IOException {
+        List<Enrollment> all = loadAll();
+        all.addAll(enrollments);
+        replaceAll(all);
+    }
+
+    /**
+     * Replace all enrollment records
+     *
+     * @param enrollments New contents of the store
+     */
+    void replaceAll(List<Enrollment> enrollments) throws IOException;
+
+    /**
+     * Remove all stored enrollments (files included)
+     */
+    void clear() throws IOException;
+
+    /**
+     * Force everything saved so far to disk (stores that do so on every
+     * write need not override this)
+     */
+    default void sync() throws IOException {
+    }
+}
@@ -0,0 +1,115 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Enrollment;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * FileEnrollmentStore - All enrollment records in one serialized file
+ *
+ * The data/enrollments.dat format: the complete List&lt;Enrollment&gt;
+ * written with ObjectOutputStream on every save. The file is replaced
+ * atomically and concurrent saves share one write (see FileStudentStore).
+ * A shared store locks enrollments.dat.lock around every change, so
+ * appends from several processes are all kept.
+ *
+ * @author YourName
+ * @version 1.2
+ */
+public class FileEnrollmentStore implements EnrollmentStore {
+
+    private final Path file;
+    private final GroupCommit<List<Enrollment>> commits;
+
+    public FileEnrollmentStore(String file) {
+        this(file, false);
+    }
+
+    /**
+     * @param shared true if other processes may write the file too
+     */
+    public FileEnrollmentStore(String file, boolean shared) {
+        this.file = Paths.get(file);
+        this.commits = new GroupCommit<>(this::loadAll, this::save,
+                                         shared ? new ProcessLock(this.file)::acquire : null,
+                                         FileStudentStore.groupSize());
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    // Files are replaced atomically, so reads need no lock
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Enrollment> loadAll() throws IOException {
+        if (!exists()) {
+            return new ArrayList<>();
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            return (List<Enrollment>) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unreadable enrollment file " + file, e);
+        }
+    }
+
+    // One read of the file for all the students
+    @Override
+    public Map<String, Integer> nextSequences(Collection<String> studentIds) throws IOException {
+        Map<String, Integer> sequences = new HashMap<>();
+        for (String studentId : studentIds) {
+            sequences.put(studentId, 1);
+        }
+        for (Enrollment enrollment : loadAll()) {
+            sequences.computeIfPresent(enrollment.getStudentId(), (id, next) -> next + 1);
+        }
+        return sequences;
+    }
+
+    @Override
+    public void replaceAll(List<Enrollment> enrollments) throws IOException {
+        commits.replace(new ArrayList<>(enrollments));
+    }
+
+    @Override
+    public void append(Enrollment enrollment) throws IOException {
+        appendAll(Collections.singletonList(enrollment));
+    }
+
+    // Read-modify-write inside the commit, so concurrent appends are not lost
+    @Override
+    public void appendAll(Collection<Enrollment> enrollments) throws IOException {
+        List<Enrollment> added = new ArrayList<>(enrollments);
+        commits.update(current -> {
+            List<Enrollment> all = current == null ? new ArrayList<>() : new ArrayList<>(current);
+            all.addAll(added);
+            return all;
+        });
+    }
+
+    @Override
+    public void clear() throws IOException {
+        commits.replace(null);
+    }
+
+    // null contents = remove the file
+    private void save(List<Enrollment> enrollments) throws IOException {
+        if (enrollments == null) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        AtomicFile.write(file, out -> {
+            ObjectOutputStream oos = new ObjectOutputStream(out);
+            oos.writeObject(enrollments);
+            oos.flush();
+        });
+    }
+
+    @Override
+    public void close() {
+        // nothing held open
+    }
+}
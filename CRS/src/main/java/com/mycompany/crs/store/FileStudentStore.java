@@ -0,0 +1,322 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * FileStudentStore - The whole student list in one file
+ *
+ * The original data/students.dat layout: every save rewrites the complete
+ * list, every read decodes it. Kept as the "file" engine and as the import
+ * source for newer engines.
+ *
+ * Files are written with StudentCodec. Files from earlier versions, which
+ * hold a Java-serialized List&lt;Student&gt;, are still read and are
+ * converted by the next save.
+ *
+ * Every save replaces the file atomically (AtomicFile), so a crash never
+ * leaves a half-written students.dat. Concurrent saves are merged into a
+ * single write by GroupCommit.
+ *
+ * Files are written block-compressed (BlockFile): blocks of
+ * -Dcrs.store.blockRecords students (default 256), each deflated, with an
+ * index of the blocks and of the block of every student. size() reads only
+ * the index and get() inflates one block. -Dcrs.store.compress=false
+ * writes the plain StudentCodec list; all three formats are read.
+ *
+ * Every put stamps the student with the next version (stored version + 1,
+ * also set on the caller's object). A store opened as shared can be used
+ * by several processes on one data directory: each change reads, applies
+ * and writes the file holding students.dat.lock (ProcessLock), so no
+ * process overwrites another's change, and a put of a student whose
+ * version is not the stored one fails with StudentConflictException
+ * instead of overwriting a change the caller has not seen. Puts of
+ * different students never conflict. replaceAll() and clear() overwrite
+ * whatever is stored.
+ *
+ * @author YourName
+ * @version 1.4
+ */
+public class FileStudentStore implements StudentStore {
+
+    /** Students per compressed block; 0 writes a plain StudentCodec file */
+    private static final int BLOCK_RECORDS =
+            Boolean.parseBoolean(System.getProperty("crs.store.compress", "true"))
+            ? Math.max(1, Integer.getInteger("crs.store.blockRecords", 256)) : 0;
+
+    private final Path file;
+    private final boolean shared;
+    private final GroupCommit<List<Student>> commits;
+    private volatile BlockFile.Index cachedIndex;
+
+    public FileStudentStore(String file) {
+        this(file, false);
+    }
+
+    /**
+     * @param shared true if other processes may write the file too (locks
+     *        every change and checks versions)
+     */
+    public FileStudentStore(String file, boolean shared) {
+        this.file = Paths.get(file);
+        this.shared = shared;
+        this.commits = new GroupCommit<>(this::loadAll, this::save,
+                                         shared ? new ProcessLock(this.file)::acquire : null, groupSize());
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    @Override
+    public int size() throws IOException {
+        try (FileChannel channel = openForRead()) {
+            if (channel == null) {
+                return 0;
+            }
+            if (BlockFile.isBlockFile(channel)) {
+                return index(channel).size(); // nothing to inflate
+            }
+        }
+        return loadAll().size();
+    }
+
+    // Files are replaced atomically, so reads need no lock
+    @Override
+    public List<Student> loadAll() throws IOException {
+        try (FileChannel channel = openForRead()) {
+            if (channel == null) {
+                return new ArrayList<>();
+            }
+            if (BlockFile.isBlockFile(channel)) {
+                BlockFile.Index index = index(channel);
+                List<Student> students = new ArrayList<>(index.size());
+                for (BlockFile.Block block : index.blocks) {
+                    students.addAll(BlockFile.readBlock(channel, block));
+                }
+                return students;
+            }
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+            in.mark(2);
+            boolean legacy = StudentCodec.isJavaSerialized(in.read(), in.read());
+            in.reset();
+            if (legacy) {
+                @SuppressWarnings("unchecked")
+                List<Student> students = (List<Student>) readJavaSerialized(in);
+                return students;
+            }
+            return StudentCodec.read(new DataInputStream(in));
+        }
+    }
+
+    @Override
+    public void forEachSummary(Consumer<StudentSummary> action) throws IOException {
+        loadSummaries().forEach(action);
+    }
+
+    /**
+     * Read the summaries of all students (see StudentCodec.readSummaries)
+     */
+    List<StudentSummary> loadSummaries() throws IOException {
+        try (FileChannel channel = openForRead()) {
+            if (channel == null) {
+                return new ArrayList<>();
+            }
+            if (BlockFile.isBlockFile(channel)) {
+                BlockFile.Index index = index(channel);
+                List<StudentSummary> summaries = new ArrayList<>(index.size());
+                for (BlockFile.Block block : index.blocks) {
+                    summaries.addAll(BlockFile.readBlockSummaries(channel, block));
+                }
+                return summaries;
+            }
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+            in.mark(2);
+            boolean legacy = StudentCodec.isJavaSerialized(in.read(), in.read());
+            in.reset();
+            if (legacy) {
+                @SuppressWarnings("unchecked")
+                List<Student> students = (List<Student>) readJavaSerialized(in);
+                List<StudentSummary> summaries = new ArrayList<>(students.size());
+                for (Student student : students) {
+                    summaries.add(new StudentSummary(student));
+                }
+                return summaries;
+            }
+            return StudentCodec.readSummaries(new DataInputStream(in));
+        }
+    }
+
+    // Block files inflate only the block holding the student
+    @Override
+    public Student get(String studentId) throws IOException {
+        try (FileChannel channel = openForRead()) {
+            if (channel != null && BlockFile.isBlockFile(channel)) {
+                BlockFile.Index index = index(channel);
+                Integer block = index.blockOf.get(studentId);
+                if (block == null) {
+                    return null;
+                }
+                for (Student student : BlockFile.readBlock(channel, index.blocks.get(block))) {
+                    if (student.getStudentId().equals(studentId)) {
+                        return student;
+                    }
+                }
+                return null;
+            }
+        }
+        for (Student student : loadAll()) {
+            if (student.getStudentId().equals(studentId)) {
+                return student;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void put(Student student) throws IOException {
+        putAll(Collections.singletonList(student));
+    }
+
+    /**
+     * Save students (replacing the stored ones with the same ID) as one
+     * change, each with the next version
+     *
+     * @throws StudentConflictException if the store is shared and one of
+     *         the students was saved since it was read; none is saved
+     */
+    @Override
+    public void putAll(Collection<Student> batch) throws IOException {
+        Map<String, Student> byId = new LinkedHashMap<>();
+        Map<Student, Long> readAt = new IdentityHashMap<>();
+        for (Student student : batch) {
+            byId.put(student.getStudentId(), student);
+            readAt.put(student, student.getVersion());
+        }
+        try {
+            commits.update(current -> {
+                List<Student> students = current == null ? new ArrayList<>() : new ArrayList<>(current);
+                Map<String, Integer> positions = new HashMap<>();
+                for (int i = 0; i < students.size(); i++) {
+                    positions.put(students.get(i).getStudentId(), i);
+                }
+                // Check the whole batch before changing anything
+                if (shared) {
+                    for (Student student : byId.values()) {
+                        Integer i = positions.get(student.getStudentId());
+                        long stored = i == null ? 0 : students.get(i).getVersion();
+                        if (stored != student.getVersion()) {
+                            throw new StudentConflictException(student.getStudentId(),
+                                                               student.getVersion(), stored);
+                        }
+                    }
+                }
+                for (Student student : byId.values()) {
+                    Integer i = positions.get(student.getStudentId());
+                    if (i == null) {
+                        student.setVersion(1);
+                        students.add(student);
+                    } else {
+                        student.setVersion(students.get(i).getVersion() + 1);
+                        students.set(i, student);
+                    }
+                }
+                return students;
+            });
+        } catch (IOException e) {
+            // Not saved: the callers' objects keep the version they were read at
+            readAt.forEach(Student::setVersion);
+            throw e;
+        }
+    }
+
+    @Override
+    public void replaceAll(List<Student> students) throws IOException {
+        commits.replace(new ArrayList<>(students));
+    }
+
+    @Override
+    public void clear() throws IOException {
+        commits.replace(null);
+    }
+
+    /**
+     * @return changes written so far
+     */
+    public long getCommits() {
+        return commits.getCommits();
+    }
+
+    /**
+     * @return file writes so far (fewer than getCommits() when
+     *         concurrent changes were grouped)
+     */
+    public long getWrites() {
+        return commits.getGroups();
+    }
+
+    // null contents = remove the file
+    private void save(List<Student> students) throws IOException {
+        if (students == null) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        if (BLOCK_RECORDS > 0) {
+            AtomicFile.write(file, out -> BlockFile.write(out, students, BLOCK_RECORDS));
+        } else {
+            AtomicFile.write(file, out -> StudentCodec.write(new DataOutputStream(out), students));
+        }
+    }
+
+    // null if there is no file
+    private FileChannel openForRead() throws IOException {
+        try {
+            return FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    // The index of the last block file read, reused while the file is unchanged
+    private BlockFile.Index index(FileChannel channel) throws IOException {
+        BlockFile.Index index = cachedIndex;
+        if (index == null || index.fileId != BlockFile.readFileId(channel)) {
+            index = BlockFile.readIndex(channel);
+            cachedIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * @return changes per write allowed by -Dcrs.store.groupCommit
+     *         (true by default; false writes every change on its own)
+     */
+    static int groupSize() {
+        return Boolean.parseBoolean(System.getProperty("crs.store.groupCommit", "true"))
+               ? Integer.MAX_VALUE : 1;
+    }
+
+    @Override
+    public void close() {
+        // nothing held open
+    }
+
+    /**
+     * Read one object written with ObjectOutputStream (the format used
+     * before StudentCodec)
+     */
+    static Object readJavaSerialized(InputStream in) throws IOException {
+        try {
+            return new ObjectInputStream(in).readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unreadable legacy student data", e);
+        }
+    }
+}
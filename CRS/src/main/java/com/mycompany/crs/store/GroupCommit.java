@@ -0,0 +1,211 @@
+package com.mycompany.crs.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GroupCommit - One durable write for a group of concurrent changes
+ *
+ * For stores that rewrite a whole file per change. Each writer queues its
+ * change and waits. The first waiting writer becomes the leader: it takes
+ * the queued changes (its own first), applies them to the current contents,
+ * writes the result once (one fsync) and wakes the whole group. Changes
+ * queued meanwhile form the next group. With one writer this is a plain
+ * write; with many, the cost of the write is shared.
+ *
+ * A failed write fails every change of its group. A change that is
+ * rejected on its own (StudentConflictException from its update) fails
+ * alone; the rest of the group is still written.
+ *
+ * Stores shared between processes pass a Locker: the leader holds it from
+ * reading the current contents until they are written, so the read-modify-
+ * write of one process never interleaves with another's.
+ *
+ * @param <S> File contents (e.g. List&lt;Student&gt;)
+ * @author YourName
+ * @version 1.2
+ */
+final class GroupCommit<S> {
+
+    @FunctionalInterface
+    interface Loader<S> {
+        S load() throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Saver<S> {
+        void save(S contents) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Update<S> {
+        S apply(S contents) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Locker {
+        /** @return releases the lock when closed */
+        Closeable lock() throws IOException;
+    }
+
+    private static final class Request<S> {
+        final Update<S> update;   // null for a replacement
+        final S replacement;
+        boolean done;
+        IOException error;
+
+        Request(Update<S> update, S replacement) {
+            this.update = update;
+            this.replacement = replacement;
+        }
+    }
+
+    private final Loader<S> loader;
+    private final Saver<S> saver;
+    private final Locker locker;
+    private final int maxGroup;
+
+    // Guarded by this
+    private List<Request<S>> queue = new ArrayList<>();
+    private boolean leading;
+    private long commits;
+    private long groups;
+
+    /**
+     * @param loader Reads the current contents
+     * @param saver Writes new contents durably
+     * @param maxGroup Largest number of changes per write (1 = no grouping)
+     */
+    GroupCommit(Loader<S> loader, Saver<S> saver, int maxGroup) {
+        this(loader, saver, null, maxGroup);
+    }
+
+    /**
+     * @param locker Held around each read-modify-write (null = none)
+     */
+    GroupCommit(Loader<S> loader, Saver<S> saver, Locker locker, int maxGroup) {
+        this.loader = loader;
+        this.saver = saver;
+        this.locker = locker;
+        this.maxGroup = Math.max(1, maxGroup);
+    }
+
+    /**
+     * Apply a change to the current contents and wait until it is written
+     */
+    void update(Update<S> update) throws IOException {
+        commit(new Request<>(update, null));
+    }
+
+    /**
+     * Replace the contents and wait until they are written
+     */
+    void replace(S contents) throws IOException {
+        commit(new Request<>(null, contents));
+    }
+
+    synchronized long getCommits() {
+        return commits;
+    }
+
+    /**
+     * @return number of writes (commits / groups = average group size)
+     */
+    synchronized long getGroups() {
+        return groups;
+    }
+
+    private void commit(Request<S> request) throws IOException {
+        List<Request<S>> group;
+        synchronized (this) {
+            queue.add(request);
+            while (!request.done && leading) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (queue.remove(request)) {
+                        throw new IOException("Interrupted before commit", e);
+                    }
+                    throw new IOException("Interrupted during commit (change may be written)", e);
+                }
+            }
+            if (request.done) {
+                if (request.error != null) {
+                    throw request.error;
+                }
+                return;
+            }
+            leading = true;
+            // Our own change first, then the others in arrival order
+            queue.remove(request);
+            int take = Math.min(queue.size(), maxGroup - 1);
+            group = new ArrayList<>(take + 1);
+            group.add(request);
+            group.addAll(queue.subList(0, take));
+            queue.subList(0, take).clear();
+        }
+
+        IOException error = null;
+        try {
+            Closeable lock = locker != null ? locker.lock() : null;
+            try {
+                write(group);
+            } finally {
+                if (lock != null) {
+                    lock.close();
+                }
+            }
+        } catch (IOException e) {
+            error = e;
+        } catch (RuntimeException e) {
+            error = new IOException(e);
+        }
+
+        synchronized (this) {
+            for (Request<S> r : group) {
+                r.done = true;
+                if (r.error == null) {
+                    r.error = error;
+                }
+            }
+            commits += group.size();
+            groups++;
+            leading = false;
+            notifyAll();
+        }
+        if (request.error != null) {
+            throw request.error;
+        }
+    }
+
+    // Apply the group and write it, unless every change was rejected
+    private void write(List<Request<S>> group) throws IOException {
+        S contents = null;
+        boolean known = false; // the file is only read if no replacement comes first
+        boolean changed = false;
+        for (Request<S> r : group) {
+            if (r.update == null) {
+                contents = r.replacement;
+            } else {
+                if (!known) {
+                    contents = loader.load();
+                    known = true;
+                }
+                try {
+                    contents = r.update.apply(contents);
+                } catch (StudentConflictException e) {
+                    r.error = e; // contents unchanged
+                    continue;
+                }
+            }
+            known = true;
+            changed = true;
+        }
+        if (changed) {
+            saver.save(contents);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Enrollment;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * LogEnrollmentStore - Append-only enrollment file indexed by student
+ *
+ * Each enrollment is one record in data/enrollments.log (framing as in
+ * LogFiles), so adding an enrollment writes that record and nothing else.
+ * On open the log is scanned once to build:
+ *
+ *   - a student ID index (record locations per student), so one student's
+ *     history is read without touching anyone else's
+ *   - a sequence counter per student, so the next enrollment number is
+ *     known without counting records
+ *
+ * Every record carries its student's sequence number, which is how the
+ * counters persist. Numbers handed out by nextSequence() are never reused
+ * within a run, even if the enrollment is not saved (or its write fails,
+ * or replaceAll() drops it).
+ *
+ * A batch is only added to the index once its write has succeeded.
+ * replaceAll() writes the new log to a temp file and renames it over the
+ * old one; until then the store keeps using the old log.
+ *
+ * Record payload: UTF student ID, varint sequence, then the enrollment's
+ * fields (strings may be null) and date.
+ *
+ * @author YourName
+ * @version 1.1
+ */
+public class LogEnrollmentStore implements EnrollmentStore {
+
+    private static final int MAGIC = 0x43525345; // "CRSE"
+    private static final int VERSION = 1;
+
+    /** Location of one record */
+    private static final class Entry {
+        final long offset;
+        final int length; // whole record, header included
+
+        Entry(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final Path file;
+    private FileChannel channel;
+    private long end;
+    private int count;
+    private Map<String, List<Entry>> byStudent = new HashMap<>();
+    private Map<String, Integer> sequences = new HashMap<>();
+
+    /**
+     * @param file Log file (created on first write)
+     * @param legacyFile enrollments.dat to import when the log does not
+     *        exist yet (may be null)
+     */
+    public LogEnrollmentStore(String file, String legacyFile) throws IOException {
+        this.file = Paths.get(file);
+        if (Files.exists(this.file)) {
+            open();
+        } else if (legacyFile != null && Files.exists(Paths.get(legacyFile))) {
+            List<Enrollment> imported = new FileEnrollmentStore(legacyFile).loadAll();
+            replaceAll(imported);
+            System.out.println("✓ Imported " + imported.size() + " enrollments from " + legacyFile
+                               + " into " + file);
+        }
+    }
+
+    // ==========================================================
+    // EnrollmentStore
+    // ==========================================================
+
+    @Override
+    public synchronized boolean exists() {
+        return channel != null;
+    }
+
+    /**
+     * @return number of stored enrollments
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    @Override
+    public synchronized List<Enrollment> loadAll() throws IOException {
+        List<Enrollment> enrollments = new ArrayList<>(count);
+        if (channel != null) {
+            LogFiles.scan(channel, LogFiles.HEADER_BYTES, end,
+                          (offset, payload) -> enrollments.add(decode(payload)));
+        }
+        return enrollments;
+    }
+
+    @Override
+    public synchronized List<Enrollment> findByStudent(String studentId) throws IOException {
+        List<Entry> entries = byStudent.getOrDefault(studentId, Collections.emptyList());
+        List<Enrollment> found = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            found.add(decode(LogFiles.readPayload(channel, entry.offset, entry.length)));
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized int nextSequence(String studentId) {
+        return sequences.merge(studentId, 1, Integer::sum);
+    }
+
+    @Override
+    public void append(Enrollment enrollment) throws IOException {
+        appendAll(Collections.singletonList(enrollment));
+    }
+
+    /**
+     * Write the records with one write call and force them to disk
+     */
+    @Override
+    public synchronized void appendAll(Collection<Enrollment> enrollments) throws IOException {
+        if (enrollments.isEmpty()) {
+            return;
+        }
+        if (channel == null) {
+            channel = LogFiles.create(file, MAGIC, VERSION);
+            end = LogFiles.HEADER_BYTES;
+        }
+        write(channel, enrollments);
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void replaceAll(List<Enrollment> enrollments) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel target = LogFiles.create(tmp, MAGIC, VERSION);
+
+        // The old log and its index stay in use until the new one is in place
+        FileChannel oldChannel = channel;
+        Map<String, List<Entry>> oldByStudent = byStudent;
+        Map<String, Integer> oldSequences = sequences;
+        int oldCount = count;
+        long oldEnd = end;
+
+        boolean installed = false;
+        byStudent = new HashMap<>();
+        sequences = new HashMap<>(oldSequences); // numbers handed out stay taken
+        count = 0;
+        end = LogFiles.HEADER_BYTES;
+        try {
+            write(target, enrollments);
+            target.force(true);
+            LogFiles.moveAtomically(tmp, file);
+            channel = target; // the channel follows the rename
+            installed = true;
+        } finally {
+            if (installed) {
+                if (oldChannel != null) {
+                    try {
+                        oldChannel.close();
+                    } catch (IOException e) {
+                        // nothing is lost: the new log is already in place
+                    }
+                }
+            } else {
+                byStudent = oldByStudent;
+                sequences = oldSequences;
+                count = oldCount;
+                end = oldEnd;
+                target.close();
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        closeChannel();
+        clearIndex();
+        Files.deleteIfExists(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    // ==========================================================
+    // Records
+    // ==========================================================
+
+    // Write the batch at the end of target, then index it
+    private void write(FileChannel target, Collection<Enrollment> enrollments) throws IOException {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(256 * enrollments.size());
+        List<Entry> entries = new ArrayList<>(enrollments.size());
+        int[] batchSequences = new int[enrollments.size()];
+        long position = end;
+        int i = 0;
+        for (Enrollment enrollment : enrollments) {
+            int sequence = sequenceOf(enrollment);
+            // Taken now, whether or not the write succeeds
+            sequences.merge(enrollment.getStudentId(), sequence, Math::max);
+            ByteBuffer record = LogFiles.frame(encode(enrollment, sequence));
+            batch.write(record.array(), 0, record.limit());
+            entries.add(new Entry(position, record.limit()));
+            batchSequences[i++] = sequence;
+            position += record.limit();
+        }
+        try {
+            LogFiles.writeFully(target, ByteBuffer.wrap(batch.toByteArray()), end);
+        } catch (IOException e) {
+            // Drop whatever part of the batch reached the file, so it cannot
+            // reappear on the next open; the index never saw it
+            try {
+                target.truncate(end);
+            } catch (IOException ignored) {
+                // best effort: the next batch is written from the same position
+            }
+            throw e;
+        }
+
+        i = 0;
+        for (Enrollment enrollment : enrollments) {
+            index(enrollment.getStudentId(), entries.get(i), batchSequences[i]);
+            i++;
+        }
+        end = position;
+    }
+
+    // ENR-<student>-<n> carries its number; other IDs get the next free one
+    private int sequenceOf(Enrollment enrollment) {
+        int sequence = idSequence(enrollment);
+        return sequence > 0 ? sequence : sequences.getOrDefault(enrollment.getStudentId(), 0) + 1;
+    }
+
+    /**
+     * @return ID prefix shared by the generated IDs of a student's enrollments
+     */
+    static String idPrefix(String studentId) {
+        return "ENR-" + studentId + "-";
+    }
+
+    /**
+     * @return n of an ENR-&lt;student&gt;-&lt;n&gt; enrollment ID, or 0 for other IDs
+     */
+    static int idSequence(Enrollment enrollment) {
+        String prefix = idPrefix(enrollment.getStudentId());
+        String id = enrollment.getEnrollmentId();
+        if (id != null && id.startsWith(prefix)) {
+            try {
+                return Integer.parseInt(id.substring(prefix.length()));
+            } catch (NumberFormatException e) {
+                // not a generated ID
+            }
+        }
+        return 0;
+    }
+
+    private void index(String studentId, Entry entry, int sequence) {
+        byStudent.computeIfAbsent(studentId, k -> new ArrayList<>(2)).add(entry);
+        sequences.merge(studentId, sequence, Math::max);
+        count++;
+    }
+
+    private void clearIndex() {
+        byStudent.clear();
+        sequences.clear();
+        count = 0;
+        end = 0;
+    }
+
+    // Record payload, also used by BTreeEnrollmentStore
+    static byte[] encode(Enrollment e, int sequence) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(160);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(e.getStudentId());
+            StudentCodec.writeVarint(out, sequence);
+            writeString(out, e.getEnrollmentId());
+            writeString(out, e.getNextSemester());
+            writeString(out, e.getNextYear());
+            writeString(out, e.getEnrolledBy());
+            writeString(out, e.getStatus());
+            writeString(out, e.getRemarks());
+            LocalDateTime date = e.getEnrollmentDate();
+            out.writeBoolean(date != null);
+            if (date != null) {
+                out.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(date.getNano());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static Enrollment decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        Enrollment e = new Enrollment();
+        e.setStudentId(in.readUTF());
+        StudentCodec.readVarint(in); // sequence, used by the index only
+        e.setEnrollmentId(readString(in));
+        e.setNextSemester(readString(in));
+        e.setNextYear(readString(in));
+        e.setEnrolledBy(readString(in));
+        e.setStatus(readString(in));
+        e.setRemarks(readString(in));
+        e.setEnrollmentDate(in.readBoolean()
+                ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+                : null);
+        return e;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // ==========================================================
+    // File
+    // ==========================================================
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (LogFiles.readVersion(channel, MAGIC) != VERSION) {
+            closeChannel();
+            throw new IOException("Not an enrollment log: " + file);
+        }
+        reindex();
+    }
+
+    // Scan the log, rebuild the index and counters, cut off a torn tail
+    private void reindex() throws IOException {
+        clearIndex();
+        long size = channel.size();
+        long valid = LogFiles.scan(channel, LogFiles.HEADER_BYTES, size, (offset, payload) -> {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            String studentId = in.readUTF();
+            int sequence = StudentCodec.readVarint(in);
+            index(studentId, new Entry(offset, LogFiles.RECORD_HEADER_BYTES + payload.length), sequence);
+        });
+        if (valid < size) {
+            System.err.println("✗ Truncating damaged tail of " + file + " at byte " + valid);
+            channel.truncate(valid);
+        }
+        end = valid;
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.mycompany.crs.store;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+/**
+ * LogFiles - Record framing and file helpers shared by the append-only stores
+ *
+ * A log is an 8-byte header (int magic, int version) followed by records:
+ *
+ *   int payload length, int CRC32 of payload, payload
+ *
+ * scan() reads records up to the first one that is incomplete or fails its
+ * checksum; the stores truncate the file there (a write torn by a crash).
+ *
+ * @author YourName
+ * @version 1.1
+ */
+final class LogFiles {
+
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 8;
+    static final int MAX_RECORD_BYTES = 64 << 20;
+
+    /**
+     * Receives each valid record found by scan()
+     */
+    @FunctionalInterface
+    interface RecordVisitor {
+        void record(long offset, byte[] payload) throws IOException;
+    }
+
+    private LogFiles() {
+    }
+
+    /**
+     * Create (or truncate) a log file and write its header
+     */
+    static FileChannel create(Path path, int magic, int version) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(magic).putInt(version);
+        header.flip();
+        writeFully(channel, header, 0);
+        return channel;
+    }
+
+    /**
+     * @return version from the header, or -1 if the magic does not match
+     */
+    static int readVersion(FileChannel channel, int magic) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (readFully(channel, header, 0) < HEADER_BYTES || header.getInt(0) != magic) {
+            return -1;
+        }
+        return header.getInt(4);
+    }
+
+    /**
+     * Frame a payload as a record: length, checksum, payload
+     */
+    static ByteBuffer frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Visit the records in [from, to) in file order
+     *
+     * @return offset just after the last valid record
+     */
+    static long scan(FileChannel channel, long from, long to, RecordVisitor visitor) throws IOException {
+        long offset = from;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new RangeInputStream(channel, from, to), 64 * 1024))) {
+            while (offset + RECORD_HEADER_BYTES <= to) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES
+                        || offset + RECORD_HEADER_BYTES + length > to) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                visitor.record(offset, payload);
+                offset += RECORD_HEADER_BYTES + length;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Read the payload of the record at offset
+     *
+     * @param recordBytes Size of the whole record, header included
+     */
+    static byte[] readPayload(FileChannel channel, long offset, int recordBytes) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(recordBytes - RECORD_HEADER_BYTES);
+        if (readFully(channel, payload, offset + RECORD_HEADER_BYTES) < payload.capacity()) {
+            throw new EOFException("Record at " + offset + " is cut short");
+        }
+        return payload.array();
+    }
+
+    static void moveAtomically(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static int readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        int total = 0;
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, position + total);
+            if (n < 0) break;
+            total += n;
+        }
+        return total;
+    }
+
+    // Returns the position just after the written bytes
+    static long writeFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            position += ch.write(buf, position);
+        }
+        return position;
+    }
+}
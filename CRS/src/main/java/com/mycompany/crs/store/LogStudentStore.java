@@ -0,0 +1,452 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * LogStudentStore - Append-only, log-structured student file
+ *
+ * Every save of a student appends one record to data/students.log, so an
+ * update costs O(record size) instead of rewriting the whole cohort. An
+ * in-memory index maps each student ID to the offset of its latest record;
+ * older records for the same ID become garbage.
+ *
+ * When garbage makes up more than half of a log larger than
+ * COMPACT_MIN_BYTES, a background thread copies the live records into a
+ * new file and swaps it in. Writers are only blocked while the records
+ * appended during the copy are carried over.
+ *
+ * File layout:
+ *   header  int magic "CRSL", int version
+ *   record  int payload length, int CRC32 of payload,
+ *           payload = UTF student ID + StudentCodec record
+ *
+ * A record with a bad length or checksum (e.g. a torn write after a crash)
+ * ends the log; it and anything after it are truncated on open. Version 1
+ * logs (Java-serialized records) are rewritten as version 2 on open.
+ *
+ * replaceAll() and compaction build the new log in a temp file, rename it
+ * over the old one and only then switch to it (the channel of the temp
+ * file, which follows the rename). If anything fails before that, the
+ * store carries on with the old log, untouched.
+ *
+ * @author YourName
+ * @version 1.1
+ */
+public class LogStudentStore implements StudentStore {
+
+    private static final int MAGIC = 0x4352534C; // "CRSL"
+    private static final int VERSION = 2;
+    private static final int JAVA_SERIALIZED_VERSION = 1;
+    private static final int HEADER_BYTES = LogFiles.HEADER_BYTES;
+    private static final int RECORD_HEADER_BYTES = LogFiles.RECORD_HEADER_BYTES;
+
+    static final long COMPACT_MIN_BYTES = 1L << 20;
+
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "student-log-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Location and size of the latest record for one student */
+    private static final class Entry {
+        final long offset;
+        final int length; // whole record, header included
+
+        Entry(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final Path file;
+    private final Path legacyFile;
+    private FileChannel channel;
+    private int version;
+    private long end;
+    private long liveBytes;
+    private boolean compacting;
+    private int compactions;
+
+    // Insertion order = order students were first saved (as in the old list file)
+    private LinkedHashMap<String, Entry> index = new LinkedHashMap<>();
+
+    /**
+     * @param file Log file (created on first write)
+     * @param legacyFile Whole-list students.dat to import when the log
+     *        does not exist yet (may be null)
+     */
+    public LogStudentStore(String file, String legacyFile) throws IOException {
+        this.file = Paths.get(file);
+        this.legacyFile = legacyFile == null ? null : Paths.get(legacyFile);
+        if (Files.exists(this.file)) {
+            open();
+            if (version < VERSION) {
+                List<Student> students = loadAll();
+                replaceAll(students);
+                System.out.println("✓ Converted " + students.size() + " students in " + file
+                                   + " to the compact format");
+            }
+        } else if (this.legacyFile != null && Files.exists(this.legacyFile)) {
+            List<Student> imported = new FileStudentStore(legacyFile).loadAll();
+            replaceAll(imported);
+            System.out.println("✓ Imported " + imported.size() + " students from " + legacyFile
+                               + " into " + file);
+        }
+    }
+
+    // ==========================================================
+    // StudentStore
+    // ==========================================================
+
+    @Override
+    public synchronized boolean exists() {
+        return channel != null;
+    }
+
+    @Override
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized List<Student> loadAll() throws IOException {
+        return readLive(this::decode);
+    }
+
+    @Override
+    public synchronized void forEachSummary(Consumer<StudentSummary> action) throws IOException {
+        if (version == JAVA_SERIALIZED_VERSION) {
+            StudentStore.super.forEachSummary(action);
+            return;
+        }
+        readLive(this::decodeSummary).forEach(action);
+    }
+
+    @Override
+    public synchronized Student get(String studentId) throws IOException {
+        Entry entry = index.get(studentId);
+        if (entry == null) {
+            return null;
+        }
+        return decode(LogFiles.readPayload(channel, entry.offset, entry.length));
+    }
+
+    @Override
+    public synchronized void put(Student student) throws IOException {
+        if (channel == null) {
+            create(file);
+        }
+        append(student);
+        if (!compacting && end > COMPACT_MIN_BYTES && liveBytes * 2 < end - HEADER_BYTES) {
+            compacting = true;
+            COMPACTOR.execute(this::compactQuietly);
+        }
+    }
+
+    @Override
+    public synchronized void replaceAll(List<Student> students) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel target = LogFiles.create(tmp, MAGIC, VERSION);
+        boolean installed = false;
+        try {
+            LinkedHashMap<String, Entry> newIndex = new LinkedHashMap<>();
+            long position = HEADER_BYTES;
+            for (Student student : students) {
+                int recordBytes = writeRecord(target, position, student);
+                newIndex.put(student.getStudentId(), new Entry(position, recordBytes));
+                position += recordBytes;
+            }
+            target.force(true);
+            LogFiles.moveAtomically(tmp, file);
+            install(target, newIndex, position);
+            installed = true;
+        } finally {
+            if (!installed) {
+                discard(target, tmp);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        closeChannel();
+        Files.deleteIfExists(file);
+        if (legacyFile != null) {
+            Files.deleteIfExists(legacyFile); // or the next start would import it again
+        }
+        index = new LinkedHashMap<>();
+        end = 0;
+        liveBytes = 0;
+    }
+
+    @Override
+    public synchronized void sync() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    /**
+     * @return number of background compactions completed
+     */
+    public synchronized int getCompactions() {
+        return compactions;
+    }
+
+    /**
+     * @return log size in bytes, garbage included
+     */
+    public synchronized long getFileBytes() {
+        return end;
+    }
+
+    /**
+     * @return bytes held by the latest record of every student
+     */
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    // ==========================================================
+    // Log I/O
+    // ==========================================================
+
+    private void create(Path path) throws IOException {
+        channel = LogFiles.create(path, MAGIC, VERSION);
+        version = VERSION;
+        end = HEADER_BYTES;
+        index = new LinkedHashMap<>();
+        liveBytes = 0;
+    }
+
+    // Scan the log, rebuild the index and cut off a torn tail
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        version = LogFiles.readVersion(channel, MAGIC);
+        if (version < JAVA_SERIALIZED_VERSION || version > VERSION) {
+            closeChannel();
+            throw new IOException("Not a student log: " + file);
+        }
+
+        index = new LinkedHashMap<>();
+        liveBytes = 0;
+        long size = channel.size();
+        long valid = LogFiles.scan(channel, HEADER_BYTES, size, (offset, payload) ->
+                index(readId(payload), new Entry(offset, RECORD_HEADER_BYTES + payload.length)));
+        if (valid < size) {
+            System.err.println("✗ Truncating damaged tail of " + file + " at byte " + valid);
+            channel.truncate(valid);
+        }
+        end = valid;
+    }
+
+    private void append(Student student) throws IOException {
+        int recordBytes = writeRecord(channel, end, student);
+        index(student.getStudentId(), new Entry(end, recordBytes));
+        end += recordBytes;
+    }
+
+    // Write a student's record at position; returns its length
+    private static int writeRecord(FileChannel target, long position, Student student) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeUTF(student.getStudentId());
+            out.write(StudentCodec.encode(student));
+        }
+        ByteBuffer record = LogFiles.frame(payload.toByteArray());
+        int recordBytes = record.limit();
+        LogFiles.writeFully(target, record, position);
+        return recordBytes;
+    }
+
+    // Switch to a new log that has been renamed over the old one
+    private void install(FileChannel target, LinkedHashMap<String, Entry> newIndex, long newEnd) {
+        FileChannel old = channel;
+        channel = target;
+        version = VERSION;
+        index = newIndex;
+        end = newEnd;
+        liveBytes = 0;
+        for (Entry entry : newIndex.values()) {
+            liveBytes += entry.length; // superseded records carried over are not counted
+        }
+        if (old != null) {
+            try {
+                old.close();
+            } catch (IOException e) {
+                // nothing is lost: the new log is already in place
+            }
+        }
+    }
+
+    // Drop a new log that was not installed
+    private static void discard(FileChannel target, Path tmp) throws IOException {
+        target.close();
+        Files.deleteIfExists(tmp);
+    }
+
+    private void index(String id, Entry entry) {
+        Entry previous = index.put(id, entry);
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+        liveBytes += entry.length;
+    }
+
+    private static String readId(byte[] payload) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(payload)).readUTF();
+    }
+
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(byte[] payload) throws IOException;
+    }
+
+    // Latest record of every student, in index order
+    private <T> List<T> readLive(Decoder<T> decoder) throws IOException {
+        List<T> values = new ArrayList<>(index.size());
+        if (channel == null) {
+            return values;
+        }
+
+        // One sequential pass; records superseded later in the log are skipped
+        Map<String, T> latest = new HashMap<>(index.size() * 4 / 3 + 1);
+        LogFiles.scan(channel, HEADER_BYTES, end, (offset, payload) -> {
+            String id = readId(payload);
+            Entry entry = index.get(id);
+            if (entry != null && entry.offset == offset) {
+                latest.put(id, decoder.decode(payload));
+            }
+        });
+        for (String id : index.keySet()) {
+            values.add(latest.get(id));
+        }
+        return values;
+    }
+
+    private StudentSummary decodeSummary(byte[] payload) throws IOException {
+        int idBytes = 2 + ((payload[0] & 0xFF) << 8 | (payload[1] & 0xFF));
+        return StudentCodec.decodeSummary(payload, idBytes, payload.length - idBytes);
+    }
+
+    private Student decode(byte[] payload) throws IOException {
+        int idBytes = 2 + ((payload[0] & 0xFF) << 8 | (payload[1] & 0xFF));
+        if (version == JAVA_SERIALIZED_VERSION) {
+            return (Student) FileStudentStore.readJavaSerialized(
+                    new ByteArrayInputStream(payload, idBytes, payload.length - idBytes));
+        }
+        return StudentCodec.decode(payload, idBytes, payload.length - idBytes);
+    }
+
+    // ==========================================================
+    // Compaction
+    // ==========================================================
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (ClosedChannelException e) {
+            // log was replaced, cleared or closed during the copy; nothing to do
+        } catch (IOException e) {
+            System.err.println("✗ Student log compaction failed: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Rewrite the log with only the latest record per student. The bulk
+     * copy runs without the lock; records appended meanwhile are carried
+     * over under the lock just before the new file replaces the old one.
+     */
+    void compact() throws IOException {
+        FileChannel source;
+        long copiedUpTo;
+        List<Map.Entry<String, Entry>> live;
+        synchronized (this) {
+            if (channel == null) {
+                return;
+            }
+            source = channel;
+            copiedUpTo = end;
+            live = new ArrayList<>(index.entrySet());
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+        LinkedHashMap<String, Entry> newIndex = new LinkedHashMap<>();
+        FileChannel target = LogFiles.create(tmp, MAGIC, VERSION);
+        boolean installed = false;
+        try {
+            long position = HEADER_BYTES;
+            target.position(position); // transferTo appends at the channel position
+            for (Map.Entry<String, Entry> e : live) {
+                Entry entry = e.getValue();
+                long copied = 0;
+                while (copied < entry.length) {
+                    copied += source.transferTo(entry.offset + copied, entry.length - copied, target);
+                }
+                newIndex.put(e.getKey(), new Entry(position, entry.length));
+                position += entry.length;
+            }
+
+            synchronized (this) {
+                if (channel != source) {
+                    return; // replaced or cleared meanwhile
+                }
+                // Carry over everything appended since the snapshot
+                long offset = copiedUpTo;
+                while (offset < end) {
+                    ByteBuffer length = ByteBuffer.allocate(4);
+                    LogFiles.readFully(channel, length, offset);
+                    int recordBytes = RECORD_HEADER_BYTES + length.getInt(0);
+                    ByteBuffer record = ByteBuffer.allocate(recordBytes);
+                    LogFiles.readFully(channel, record, offset);
+                    record.flip();
+                    String id = readId(Arrays.copyOfRange(record.array(), RECORD_HEADER_BYTES, recordBytes));
+                    LogFiles.writeFully(target, record, position);
+                    newIndex.put(id, new Entry(position, recordBytes));
+                    position += recordBytes;
+                    offset += recordBytes;
+                }
+                target.force(true);
+                LogFiles.moveAtomically(tmp, file);
+                install(target, newIndex, position);
+                installed = true;
+                compactions++;
+            }
+        } finally {
+            if (!installed) {
+                discard(target, tmp);
+            }
+        }
+    }
+
+    // ==========================================================
+    // Helpers
+    // ==========================================================
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
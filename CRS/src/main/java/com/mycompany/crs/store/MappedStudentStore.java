@@ -0,0 +1,467 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * MappedStudentStore - Memory-mapped student file with one fixed slot per student
+ *
+ * Two files, both accessed through FileChannel.map:
+ *
+ *   students.slots     64-byte header, then one 64-byte slot per student:
+ *                      state, student ID, and offset/length/capacity of
+ *                      the student's record in the overflow file
+ *   students.overflow  StudentCodec records (the student with its
+ *                      enrollments), each in a block with some spare room
+ *
+ * An in-memory ID to slot index is rebuilt from the slots on open, so
+ * get() and put() touch one slot and one record: a lookup is a hash probe
+ * plus a decode of a few hundred bytes, whatever the number of students.
+ * An update that still fits its block is written in place; a larger one
+ * moves to the end of the overflow file. Space left behind by moved
+ * records is reclaimed by replaceAll().
+ *
+ * Files only grow (a mapped file cannot be shrunk portably); both are
+ * extended by doubling. The overflow file is limited to 2 GB, which is
+ * several million students. Writes go to the page cache and are forced
+ * to disk by close() and replaceAll().
+ *
+ * replaceAll() (and so the first import) lays the students out in two
+ * temp files and only renames them over the live pair once both are on
+ * disk; until then the store keeps using the old files. The slot header's
+ * magic is written last, so a temp slot file that has it is complete. A
+ * crash between the two renames is finished on the next open, and any
+ * other leftover temp file is deleted.
+ *
+ * @author YourName
+ * @version 1.1
+ */
+public class MappedStudentStore implements StudentStore {
+
+    private static final int SLOTS_MAGIC = 0x4352534D; // "CRSM"
+    private static final int VERSION = 1;
+
+    static final int SLOT_BYTES = 64;
+    static final int MAX_ID_BYTES = 48;
+    private static final int HEADER_BYTES = SLOT_BYTES;
+
+    // Header fields
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_SLOT_COUNT = 8;
+    private static final int H_OVERFLOW_END = 12;
+
+    // Slot fields
+    private static final int S_STATE = 0;
+    private static final int S_ID_LENGTH = 1;
+    private static final int S_ID = 2;
+    private static final int S_OFFSET = 52;
+    private static final int S_LENGTH = 56;
+    private static final int S_CAPACITY = 60;
+
+    private static final byte USED = 1;
+
+    private static final int INITIAL_SLOTS = 1024;
+    private static final int INITIAL_OVERFLOW = 1 << 20;
+    private static final int BLOCK_ALIGN = 32;
+
+    private final Path slotsFile;
+    private final Path overflowFile;
+
+    private FileChannel slotsChannel;
+    private FileChannel overflowChannel;
+    private MappedByteBuffer slots;
+    private MappedByteBuffer overflow;
+
+    private int slotCount;
+    private int overflowEnd;
+    private Map<String, Integer> index = new HashMap<>();
+
+    /**
+     * @param slotsFile Slot file (students.slots)
+     * @param overflowFile Record file (students.overflow)
+     * @param importFrom Store to copy students from when the slot file
+     *        does not exist yet (may be null)
+     */
+    public MappedStudentStore(String slotsFile, String overflowFile, StudentStore importFrom)
+            throws IOException {
+        this.slotsFile = Paths.get(slotsFile);
+        this.overflowFile = Paths.get(overflowFile);
+        recover();
+        if (Files.exists(this.slotsFile)) {
+            open();
+        } else if (importFrom != null && importFrom.exists()) {
+            List<Student> imported = importFrom.loadAll();
+            replaceAll(imported);
+            System.out.println("✓ Imported " + imported.size() + " students into " + slotsFile);
+        }
+    }
+
+    // ==========================================================
+    // StudentStore
+    // ==========================================================
+
+    @Override
+    public synchronized boolean exists() {
+        return slots != null;
+    }
+
+    @Override
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized List<Student> loadAll() throws IOException {
+        List<Student> students = new ArrayList<>(index.size());
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slots.get(slotPosition(slot) + S_STATE) == USED) {
+                students.add(read(slot));
+            }
+        }
+        return students;
+    }
+
+    @Override
+    public synchronized void forEachSummary(Consumer<StudentSummary> action) throws IOException {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slots.get(slotPosition(slot) + S_STATE) == USED) {
+                byte[] record = readRecord(slot);
+                action.accept(StudentCodec.decodeSummary(record, 0, record.length));
+            }
+        }
+    }
+
+    @Override
+    public synchronized Student get(String studentId) throws IOException {
+        Integer slot = index.get(studentId);
+        return slot == null ? null : read(slot);
+    }
+
+    @Override
+    public synchronized void put(Student student) throws IOException {
+        if (slots == null) {
+            create();
+        }
+        byte[] id = idBytes(student.getStudentId());
+        byte[] record = StudentCodec.encode(student);
+
+        Integer slot = index.get(student.getStudentId());
+        if (slot == null) {
+            slot = slotCount;
+            ensureSlots(slot + 1);
+            int pos = slotPosition(slot);
+            slots.put(pos + S_ID_LENGTH, (byte) id.length);
+            slots.put(pos + S_ID, id);
+            writeRecord(pos, record, true);
+            slots.put(pos + S_STATE, USED);
+            slotCount++;
+            slots.putInt(H_SLOT_COUNT, slotCount);
+            index.put(student.getStudentId(), slot);
+        } else {
+            writeRecord(slotPosition(slot), record, false);
+        }
+    }
+
+    @Override
+    public synchronized void replaceAll(List<Student> students) throws IOException {
+        Path slotsTmp = tmp(slotsFile);
+        Path overflowTmp = tmp(overflowFile);
+        Files.deleteIfExists(slotsTmp);
+        Files.deleteIfExists(overflowTmp);
+
+        // The current files stay in use until the new ones are in place
+        FileChannel oldSlotsChannel = slotsChannel;
+        FileChannel oldOverflowChannel = overflowChannel;
+        MappedByteBuffer oldSlots = slots;
+        MappedByteBuffer oldOverflow = overflow;
+        int oldSlotCount = slotCount;
+        int oldOverflowEnd = overflowEnd;
+        Map<String, Integer> oldIndex = index;
+
+        boolean overflowMoved = false;
+        boolean installed = false;
+        slotsChannel = null;
+        overflowChannel = null;
+        index = new HashMap<>();
+        try {
+            // Lay everything out from the start, in the temp files
+            Files.createDirectories(slotsFile.toAbsolutePath().getParent());
+            map(slotsTmp, overflowTmp, HEADER_BYTES + (long) INITIAL_SLOTS * SLOT_BYTES, INITIAL_OVERFLOW);
+            format();
+            for (Student student : students) {
+                put(student);
+            }
+            force();
+            slots.putInt(H_MAGIC, SLOTS_MAGIC); // complete: see recover()
+            slots.force();
+
+            LogFiles.moveAtomically(overflowTmp, overflowFile);
+            overflowMoved = true;
+            LogFiles.moveAtomically(slotsTmp, slotsFile);
+            installed = true;
+        } finally {
+            // Both channels followed their renames; close whichever pair is out of use
+            FileChannel closeSlots = installed ? oldSlotsChannel : slotsChannel;
+            FileChannel closeOverflow = installed ? oldOverflowChannel : overflowChannel;
+            if (!installed) {
+                slotsChannel = oldSlotsChannel;
+                overflowChannel = oldOverflowChannel;
+                slots = oldSlots;
+                overflow = oldOverflow;
+                slotCount = oldSlotCount;
+                overflowEnd = oldOverflowEnd;
+                index = oldIndex;
+            }
+            closeQuietly(closeSlots);
+            closeQuietly(closeOverflow);
+            if (!installed && !overflowMoved) {
+                Files.deleteIfExists(slotsTmp);
+                Files.deleteIfExists(overflowTmp);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        unmap();
+        index.clear();
+        slotCount = 0;
+        overflowEnd = 0;
+        Files.deleteIfExists(slotsFile);
+        Files.deleteIfExists(overflowFile);
+        Files.deleteIfExists(tmp(slotsFile));
+        Files.deleteIfExists(tmp(overflowFile));
+    }
+
+    @Override
+    public synchronized void sync() {
+        if (slots != null) {
+            force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (slots != null) {
+            force();
+        }
+        unmap();
+    }
+
+    /**
+     * @return bytes of the overflow file in use, moved records included
+     */
+    public synchronized int getOverflowBytes() {
+        return overflowEnd;
+    }
+
+    // ==========================================================
+    // Slots and records
+    // ==========================================================
+
+    private Student read(int slot) throws IOException {
+        byte[] record = readRecord(slot);
+        return StudentCodec.decode(record, 0, record.length);
+    }
+
+    private byte[] readRecord(int slot) {
+        int pos = slotPosition(slot);
+        int offset = slots.getInt(pos + S_OFFSET);
+        int length = slots.getInt(pos + S_LENGTH);
+        byte[] record = new byte[length];
+        overflow.get(offset, record);
+        return record;
+    }
+
+    // In place if the record still fits its block, else in a new block at the end
+    private void writeRecord(int slotPos, byte[] record, boolean fresh) throws IOException {
+        int offset = slots.getInt(slotPos + S_OFFSET);
+        int capacity = slots.getInt(slotPos + S_CAPACITY);
+        if (fresh || record.length > capacity) {
+            capacity = blockSize(record.length);
+            offset = allocate(capacity);
+        }
+        overflow.put(offset, record);
+        slots.putInt(slotPos + S_OFFSET, offset);
+        slots.putInt(slotPos + S_LENGTH, record.length);
+        slots.putInt(slotPos + S_CAPACITY, capacity);
+    }
+
+    private int allocate(int bytes) throws IOException {
+        long end = (long) overflowEnd + bytes;
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException(overflowFile + " is full (2 GB)");
+        }
+        if (end > overflow.capacity()) {
+            long size = Math.max(end, Math.min(2L * overflow.capacity(), Integer.MAX_VALUE));
+            overflow = overflowChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        int offset = overflowEnd;
+        overflowEnd = (int) end;
+        slots.putInt(H_OVERFLOW_END, overflowEnd);
+        return offset;
+    }
+
+    private void ensureSlots(int count) throws IOException {
+        long needed = HEADER_BYTES + (long) count * SLOT_BYTES;
+        if (needed > slots.capacity()) {
+            long size = Math.max(needed, 2L * slots.capacity());
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(slotsFile + " is full");
+            }
+            slots = slotsChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    // Record plus about 25% room to grow in place, aligned
+    private static int blockSize(int length) {
+        int size = length + length / 4;
+        return (size + BLOCK_ALIGN - 1) & -BLOCK_ALIGN;
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private static byte[] idBytes(String studentId) throws IOException {
+        byte[] id = studentId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_ID_BYTES) {
+            throw new IOException("Student ID too long for a slot: " + studentId);
+        }
+        return id;
+    }
+
+    // ==========================================================
+    // Files
+    // ==========================================================
+
+    private void create() throws IOException {
+        Files.createDirectories(slotsFile.toAbsolutePath().getParent());
+        map(slotsFile, overflowFile, HEADER_BYTES + (long) INITIAL_SLOTS * SLOT_BYTES, INITIAL_OVERFLOW);
+        format();
+        slots.putInt(H_MAGIC, SLOTS_MAGIC);
+    }
+
+    // Empty header (without the magic) and empty in-memory state
+    private void format() {
+        slots.putInt(H_VERSION, VERSION);
+        slots.putInt(H_SLOT_COUNT, 0);
+        slots.putInt(H_OVERFLOW_END, 0);
+        slotCount = 0;
+        overflowEnd = 0;
+        index.clear();
+    }
+
+    private void open() throws IOException {
+        map(slotsFile, overflowFile,
+                Math.max(Files.size(slotsFile), HEADER_BYTES), Math.max(Files.size(overflowFile), 1));
+        if (slots.getInt(H_MAGIC) != SLOTS_MAGIC || slots.getInt(H_VERSION) != VERSION) {
+            unmap();
+            throw new IOException("Not a student slot file: " + slotsFile);
+        }
+        slotCount = slots.getInt(H_SLOT_COUNT);
+        overflowEnd = slots.getInt(H_OVERFLOW_END);
+        if (slotCount < 0 || HEADER_BYTES + (long) slotCount * SLOT_BYTES > slots.capacity()
+                || overflowEnd < 0 || overflowEnd > overflow.capacity()) {
+            unmap();
+            throw new IOException("Damaged student slot file: " + slotsFile);
+        }
+
+        index.clear();
+        byte[] id = new byte[MAX_ID_BYTES];
+        for (int slot = 0; slot < slotCount; slot++) {
+            int pos = slotPosition(slot);
+            if (slots.get(pos + S_STATE) != USED) continue;
+            // Every record read later must lie inside the used part of the overflow file
+            int length = slots.get(pos + S_ID_LENGTH);
+            int offset = slots.getInt(pos + S_OFFSET);
+            int recordLength = slots.getInt(pos + S_LENGTH);
+            int capacity = slots.getInt(pos + S_CAPACITY);
+            if (length < 0 || length > MAX_ID_BYTES || offset < 0 || recordLength < 0
+                    || capacity < recordLength || (long) offset + capacity > overflowEnd) {
+                unmap();
+                index.clear();
+                throw new IOException("Damaged student slot " + slot + " in " + slotsFile);
+            }
+            slots.get(pos + S_ID, id, 0, length);
+            index.put(new String(id, 0, length, StandardCharsets.UTF_8), slot);
+        }
+    }
+
+    // Finish or undo a replaceAll() cut short by a crash. A complete temp
+    // slot file without a temp overflow file means the overflow file was
+    // already renamed, so the slot file must follow; anything else is a
+    // half-written layout and the live pair is still the old one.
+    private void recover() throws IOException {
+        Path slotsTmp = tmp(slotsFile);
+        Path overflowTmp = tmp(overflowFile);
+        if (Files.exists(slotsTmp) && !Files.exists(overflowTmp) && isComplete(slotsTmp)) {
+            LogFiles.moveAtomically(slotsTmp, slotsFile);
+            System.out.println("✓ Finished interrupted rewrite of " + slotsFile);
+        } else {
+            Files.deleteIfExists(slotsTmp);
+            Files.deleteIfExists(overflowTmp);
+        }
+    }
+
+    private static boolean isComplete(Path slotsPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(slotsPath, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(H_SLOT_COUNT);
+            while (header.hasRemaining() && channel.read(header) > 0) { }
+            return !header.hasRemaining()
+                    && header.getInt(H_MAGIC) == SLOTS_MAGIC && header.getInt(H_VERSION) == VERSION;
+        }
+    }
+
+    private static Path tmp(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    private void map(Path slotsPath, Path overflowPath, long slotsBytes, long overflowBytes)
+            throws IOException {
+        slotsChannel = FileChannel.open(slotsPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        overflowChannel = FileChannel.open(overflowPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        slots = slotsChannel.map(FileChannel.MapMode.READ_WRITE, 0, slotsBytes);
+        overflow = overflowChannel.map(FileChannel.MapMode.READ_WRITE, 0, overflowBytes);
+    }
+
+    private void force() {
+        overflow.force();
+        slots.force();
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing is written through a channel being dropped
+            }
+        }
+    }
+
+    private void unmap() throws IOException {
+        // Mappings are released by the garbage collector
+        slots = null;
+        overflow = null;
+        if (slotsChannel != null) {
+            slotsChannel.close();
+            slotsChannel = null;
+        }
+        if (overflowChannel != null) {
+            overflowChannel.close();
+            overflowChannel = null;
+        }
+    }
+}
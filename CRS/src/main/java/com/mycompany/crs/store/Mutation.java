@@ -0,0 +1,39 @@
+package com.mycompany.crs.store;
+
+/**
+ * Mutation - Kind of change recorded in the mutation log
+ *
+ * Stored by ordinal: add new kinds at the end.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public enum Mutation {
+
+    /** Students saved through StudentStore.put/putAll */
+    STUDENTS_SAVED,
+
+    /** Enrollments added through EnrollmentStore.append/appendAll */
+    ENROLLMENTS_SAVED,
+
+    /** A new enrollment together with the student's new status */
+    ENROLLMENT_PROCESSED,
+
+    /** Students whose eligibility changed when it was recomputed */
+    ELIGIBILITY_REFRESHED,
+
+    /** A student's status or details changed */
+    STATUS_CHANGED,
+
+    /** The whole enrollment list was replaced (the record holds the new list) */
+    ENROLLMENTS_REPLACED,
+
+    /** Students were replaced or cleared directly in the store */
+    STUDENTS_RESET,
+
+    /** Enrollments were cleared directly in the store */
+    ENROLLMENTS_RESET,
+
+    /** New enrollments of several students together with their new statuses */
+    ENROLLMENTS_PROCESSED
+}
@@ -0,0 +1,357 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Enrollment;
+import com.mycompany.crs.model.Student;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * MutationLog - Write-ahead log of the changes held by WriteBehind
+ *
+ * Every change WriteBehind accepts is appended to data/mutations-&lt;n&gt;.wal
+ * and forced to disk before the caller goes on, so a saved change survives
+ * a crash although the stores are written later. Callers arriving while
+ * the log is being forced share the next force (group commit).
+ *
+ * The stores are the snapshot. Each WriteBehind flush starts a new segment,
+ * writes the pending changes to the stores, syncs them and deletes the
+ * older segments (a checkpoint). The log therefore holds only the changes
+ * since the last flush, and a restart opens the stores and replays that
+ * tail (replay()), so its cost does not grow with the history.
+ *
+ * Record payload (framed as in LogFiles): byte mutation, varint count and
+ * StudentCodec records of the students, varint count and LogEnrollmentStore
+ * records of the enrollments.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+final class MutationLog implements Closeable {
+
+    private static final int MAGIC = 0x43525357; // "CRSW"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "mutations-";
+    private static final String SUFFIX = ".wal";
+
+    private final Path dir;
+
+    // Guarded by this
+    private FileChannel channel;
+    private long segment;
+    private long segmentEnd;
+    private long written;  // bytes appended since open, over all segments
+    private long records;
+
+    // Guarded by syncLock (taken before this)
+    private final Object syncLock = new Object();
+    private long synced;
+    private long syncs;
+
+    /**
+     * Start a new segment after any existing ones (replay those first)
+     *
+     * @param dir Data directory
+     */
+    MutationLog(Path dir) throws IOException {
+        this.dir = dir;
+        List<Long> existing = segments(dir);
+        segment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        openSegment();
+    }
+
+    // ==========================================================
+    // Writing
+    // ==========================================================
+
+    /**
+     * Append a change (not yet durable: pass the result to sync())
+     *
+     * @return log position after the record
+     */
+    synchronized long append(Mutation mutation, Collection<Student> students,
+                             Collection<Enrollment> enrollments) throws IOException {
+        ByteBuffer record = LogFiles.frame(encode(mutation, students, enrollments));
+        segmentEnd = LogFiles.writeFully(channel, record, segmentEnd);
+        written += record.limit();
+        records++;
+        return written;
+    }
+
+    /**
+     * Wait until the log is on disk up to a position returned by append()
+     */
+    void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return; // forced by an earlier caller or a roll
+            }
+            FileChannel target;
+            long upTo;
+            synchronized (this) {
+                target = channel;
+                upTo = written;
+            }
+            target.force(false);
+            synced = upTo;
+            syncs++;
+        }
+    }
+
+    /**
+     * Continue in a new segment
+     *
+     * @return last segment holding records written so far; pass it to
+     *         deleteThrough() once those changes are in the stores
+     */
+    long roll() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (segmentEnd == LogFiles.HEADER_BYTES) {
+                    return segment - 1; // nothing in the current one
+                }
+                channel.force(false);
+                synced = written;
+                channel.close();
+                segment++;
+                openSegment();
+                return segment - 1;
+            }
+        }
+    }
+
+    /**
+     * Delete the segments up to and including last, oldest first
+     */
+    void deleteThrough(long last) throws IOException {
+        for (long n : segments(dir)) {
+            if (n <= last) {
+                Files.deleteIfExists(segmentPath(dir, n));
+            }
+        }
+    }
+
+    /**
+     * Close the log
+     *
+     * @param applied true if every logged change is in the stores, so
+     *        all segments can go
+     */
+    void close(boolean applied) throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (channel == null) {
+                    return;
+                }
+                channel.force(false);
+                channel.close();
+                channel = null;
+                if (applied) {
+                    deleteThrough(segment);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(false);
+    }
+
+    synchronized long getRecords() {
+        return records;
+    }
+
+    /**
+     * @return forces of the log (records / syncs = average group size)
+     */
+    long getSyncs() {
+        synchronized (syncLock) {
+            return syncs;
+        }
+    }
+
+    private void openSegment() throws IOException {
+        channel = LogFiles.create(segmentPath(dir, segment), MAGIC, VERSION);
+        channel.force(true);
+        AtomicFile.syncDirectory(dir);
+        segmentEnd = LogFiles.HEADER_BYTES;
+    }
+
+    // ==========================================================
+    // Replay
+    // ==========================================================
+
+    /**
+     * Apply the logged changes to the stores, sync them and delete the log
+     *
+     * Changes are collected first, so a student saved many times is
+     * written once; reset markers drop what came before them. Enrollments
+     * already in the store (the flush got that far) are not added again.
+     *
+     * @return number of records replayed
+     */
+    static int replay(Path dir, StudentStore students, EnrollmentStore enrollments) throws IOException {
+        List<Long> segments = segments(dir);
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        Map<String, Student> savedStudents = new LinkedHashMap<>();
+        List<Enrollment> replacement = null;
+        List<Enrollment> appended = new ArrayList<>();
+        int count = 0;
+
+        for (long n : segments) {
+            Path path = segmentPath(dir, n);
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (ch.size() < LogFiles.HEADER_BYTES) {
+                    continue; // created but never written
+                }
+                if (LogFiles.readVersion(ch, MAGIC) != VERSION) {
+                    throw new IOException("Not a mutation log: " + path);
+                }
+                List<byte[]> payloads = new ArrayList<>();
+                LogFiles.scan(ch, LogFiles.HEADER_BYTES, ch.size(), (offset, payload) -> payloads.add(payload));
+                for (byte[] payload : payloads) {
+                    DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+                    Mutation mutation = Mutation.values()[in.readUnsignedByte()];
+                    List<Student> recordStudents = readStudents(in);
+                    List<Enrollment> recordEnrollments = readEnrollments(in);
+                    switch (mutation) {
+                        case STUDENTS_RESET:
+                            savedStudents.clear();
+                            break;
+                        case ENROLLMENTS_RESET:
+                            replacement = null;
+                            appended.clear();
+                            break;
+                        case ENROLLMENTS_REPLACED:
+                            replacement = recordEnrollments;
+                            appended.clear();
+                            break;
+                        default:
+                            for (Student student : recordStudents) {
+                                savedStudents.put(student.getStudentId(), student);
+                            }
+                            appended.addAll(recordEnrollments);
+                    }
+                    count++;
+                }
+            }
+        }
+
+        if (!savedStudents.isEmpty()) {
+            students.putAll(savedStudents.values());
+        }
+        if (replacement != null) {
+            enrollments.replaceAll(replacement);
+        }
+        List<Enrollment> missing = new ArrayList<>();
+        Map<String, Set<String>> stored = new HashMap<>();
+        for (Enrollment enrollment : appended) {
+            Set<String> ids = stored.get(enrollment.getStudentId());
+            if (ids == null) {
+                ids = new HashSet<>();
+                for (Enrollment e : enrollments.findByStudent(enrollment.getStudentId())) {
+                    ids.add(e.getEnrollmentId());
+                }
+                stored.put(enrollment.getStudentId(), ids);
+            }
+            if (enrollment.getEnrollmentId() == null || ids.add(enrollment.getEnrollmentId())) {
+                missing.add(enrollment);
+            }
+        }
+        if (!missing.isEmpty()) {
+            enrollments.appendAll(missing);
+        }
+        students.sync();
+        enrollments.sync();
+
+        for (long n : segments) {
+            Files.deleteIfExists(segmentPath(dir, n));
+        }
+        if (count > 0) {
+            System.out.println("✓ Replayed " + count + " logged changes (" + savedStudents.size()
+                               + " students, " + missing.size() + " enrollments) from " + dir);
+        }
+        return count;
+    }
+
+    // ==========================================================
+    // Records
+    // ==========================================================
+
+    private static byte[] encode(Mutation mutation, Collection<Student> students,
+                                 Collection<Enrollment> enrollments) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(mutation.ordinal());
+        StudentCodec.writeVarint(out, students.size());
+        for (Student student : students) {
+            byte[] record = StudentCodec.encode(student);
+            StudentCodec.writeVarint(out, record.length);
+            out.write(record);
+        }
+        StudentCodec.writeVarint(out, enrollments.size());
+        for (Enrollment enrollment : enrollments) {
+            byte[] record = LogEnrollmentStore.encode(enrollment, LogEnrollmentStore.idSequence(enrollment));
+            StudentCodec.writeVarint(out, record.length);
+            out.write(record);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<Student> readStudents(DataInputStream in) throws IOException {
+        int count = StudentCodec.readVarint(in);
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] record = new byte[StudentCodec.readVarint(in)];
+            in.readFully(record);
+            students.add(StudentCodec.decode(record, 0, record.length));
+        }
+        return students;
+    }
+
+    private static List<Enrollment> readEnrollments(DataInputStream in) throws IOException {
+        int count = StudentCodec.readVarint(in);
+        List<Enrollment> enrollments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] record = new byte[StudentCodec.readVarint(in)];
+            in.readFully(record);
+            enrollments.add(LogEnrollmentStore.decode(record));
+        }
+        return enrollments;
+    }
+
+    // ==========================================================
+    // Segments
+    // ==========================================================
+
+    private static Path segmentPath(Path dir, long n) {
+        return dir.resolve(String.format("%s%06d%s", PREFIX, n, SUFFIX));
+    }
+
+    // Segment numbers in the directory, oldest first
+    private static List<Long> segments(Path dir) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Long.parseLong(name.substring(PREFIX.length(),
+                                                               name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycompany.crs.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ProcessLock - Exclusive lock on a data file across processes
+ *
+ * Data files are replaced by rename (AtomicFile), so the lock is taken on
+ * a sidecar file next to them, &lt;file&gt;.lock, which is created once and
+ * never deleted. FileChannel.lock() excludes other processes only; threads
+ * of this process are excluded by a lock kept per lock file, which they
+ * take first.
+ *
+ * Not reentrant: a holder must not acquire the same lock again.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+final class ProcessLock {
+
+    private static final ConcurrentMap<Path, ReentrantLock> LOCAL = new ConcurrentHashMap<>();
+
+    private final Path lockFile;
+    private final ReentrantLock local;
+
+    /**
+     * @param file Data file to protect
+     */
+    ProcessLock(Path file) {
+        this.lockFile = file.resolveSibling(file.getFileName() + ".lock").toAbsolutePath().normalize();
+        this.local = LOCAL.computeIfAbsent(lockFile, p -> new ReentrantLock());
+    }
+
+    /**
+     * Wait for the lock
+     *
+     * @return releases the lock when closed
+     */
+    Closeable acquire() throws IOException {
+        local.lock();
+        FileChannel channel = null;
+        try {
+            Path dir = lockFile.getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock held = channel.lock();
+            FileChannel opened = channel;
+            return () -> {
+                try {
+                    held.release();
+                    opened.close();
+                } finally {
+                    local.unlock();
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // already failing
+                }
+            }
+            local.unlock();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.mycompany.crs.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * RangeInputStream - Reads bytes [from, to) of a channel without moving its position
+ *
+ * Used to scan part of a log file, and by the results tailer to parse only
+ * the bytes appended since its last refresh. Closing the stream leaves the
+ * channel open; it belongs to the caller.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public final class RangeInputStream extends InputStream {
+
+    private final FileChannel ch;
+    private long pos;
+    private final long to;
+
+    public RangeInputStream(FileChannel ch, long from, long to) {
+        this.ch = ch;
+        this.pos = from;
+        this.to = to;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) == 1 ? one[0] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (pos >= to) return -1;
+        int n = ch.read(ByteBuffer.wrap(b, off, (int) Math.min(len, to - pos)), pos);
+        if (n > 0) pos += n;
+        return n;
+    }
+
+    @Override
+    public void close() {
+        // the channel belongs to the caller
+    }
+}
@@ -0,0 +1,439 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * ShardedStudentStore - Students split over N files by hash of the student ID
+ *
+ * Student s lives in shard floorMod(s.getStudentId().hashCode(), N), file
+ * data/students-&lt;i&gt;-of-&lt;N&gt;.dat, each one a FileStudentStore (a
+ * StudentCodec list replaced atomically, concurrent saves grouped). Shards
+ * are independent, so:
+ *
+ *   - loadAll(), forEachSummary() and size() decode all shards at the
+ *     same time, one thread per shard up to the number of cores
+ *   - get() reads one shard
+ *   - put() rewrites one shard; putAll() rewrites the shards it touches,
+ *     in parallel
+ *
+ * Students come back shard by shard, not in the order they were saved.
+ *
+ * The shard count in use is kept in data/students.shards. Opening the
+ * store with another count (-Dcrs.store.shards) or calling rebalance()
+ * writes a complete new set of shards, switches the count file over to it
+ * (atomically) and only then deletes the old set, so a crash at any point
+ * leaves one complete set. Leftovers of an interrupted rebalance are
+ * deleted on open.
+ *
+ * A shared store opens shared shards (see FileStudentStore): processes
+ * writing students of different shards never wait for each other, and a
+ * putAll() is checked and written shard by shard. Rebalancing needs the
+ * other processes stopped, so a shared store keeps the existing count.
+ *
+ * @author YourName
+ * @version 1.1
+ */
+public class ShardedStudentStore implements StudentStore {
+
+    private final Path dir;
+    private final boolean shared;
+    private final ExecutorService workers;
+
+    // Shard operations hold the read lock; replacing the set holds the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileStudentStore[] shards;
+    private volatile boolean exists;
+
+    /**
+     * @param dataDir Directory of the shard files
+     * @param shardCount Number of shards wanted; an existing set with
+     *        another count is rebalanced
+     * @param importFrom Store to copy students from when there are no
+     *        shards yet (may be null)
+     */
+    public ShardedStudentStore(String dataDir, int shardCount, StudentStore importFrom) throws IOException {
+        this(dataDir, shardCount, importFrom, false);
+    }
+
+    /**
+     * @param shared true if other processes use the shards too (an
+     *        existing set is then never rebalanced)
+     */
+    public ShardedStudentStore(String dataDir, int shardCount, StudentStore importFrom,
+                               boolean shared) throws IOException {
+        if (shardCount < 1) {
+            throw new IOException("Shard count must be at least 1: " + shardCount);
+        }
+        this.dir = Paths.get(dataDir);
+        this.shared = shared;
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(
+                Math.min(shardCount, Runtime.getRuntime().availableProcessors()), r -> {
+                    Thread t = new Thread(r, "crs-shard-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        int current = readShardCount();
+        if (current > 0) {
+            shards = openShards(current);
+            exists = true;
+            deleteOtherSets(current);
+            if (current != shardCount && shared) {
+                System.out.println("ℹ Keeping " + current + " shards (shared store; stop the other users"
+                                   + " to rebalance to " + shardCount + ")");
+            } else if (current != shardCount) {
+                System.out.println("ℹ Rebalancing students from " + current + " to " + shardCount + " shards");
+                rebalance(shardCount);
+            }
+        } else {
+            shards = openShards(shardCount);
+            deleteOtherSets(0);
+            if (importFrom != null && importFrom.exists()) {
+                List<Student> imported = importFrom.loadAll();
+                replaceAll(imported);
+                System.out.println("✓ Imported " + imported.size() + " students into " + shardCount
+                                   + " shards in " + dataDir);
+            }
+        }
+    }
+
+    // ==========================================================
+    // StudentStore
+    // ==========================================================
+
+    @Override
+    public boolean exists() {
+        return exists;
+    }
+
+    @Override
+    public int size() throws IOException {
+        lock.readLock().lock();
+        try {
+            int[] sizes = new int[shards.length];
+            forEachShard(allShards(), i -> sizes[i] = shards[i].size());
+            return Arrays.stream(sizes).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Student> loadAll() throws IOException {
+        lock.readLock().lock();
+        try {
+            return loadShards();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEachSummary(Consumer<StudentSummary> action) throws IOException {
+        lock.readLock().lock();
+        try {
+            List<List<StudentSummary>> parts = new ArrayList<>(Collections.nCopies(shards.length, null));
+            forEachShard(allShards(), i -> parts.set(i, shards[i].loadSummaries()));
+            for (List<StudentSummary> part : parts) {
+                part.forEach(action);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Student get(String studentId) throws IOException {
+        lock.readLock().lock();
+        try {
+            return shards[shardOf(studentId, shards.length)].get(studentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Student student) throws IOException {
+        putAll(Collections.singletonList(student));
+    }
+
+    @Override
+    public void putAll(Collection<Student> students) throws IOException {
+        lock.readLock().lock();
+        try {
+            List<List<Student>> parts = partition(students, shards.length);
+            List<Integer> touched = new ArrayList<>();
+            for (int i = 0; i < parts.size(); i++) {
+                if (!parts.get(i).isEmpty()) {
+                    touched.add(i);
+                }
+            }
+            forEachShard(touched, i -> shards[i].putAll(parts.get(i)));
+            if (!touched.isEmpty() && !exists) {
+                markExisting();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void replaceAll(List<Student> students) throws IOException {
+        lock.writeLock().lock();
+        try {
+            List<List<Student>> parts = partition(students, shards.length);
+            forEachShard(allShards(), i -> shards[i].replaceAll(parts.get(i)));
+            if (!exists) {
+                writeShardCount(shards.length);
+                exists = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() throws IOException {
+        lock.writeLock().lock();
+        try {
+            Files.deleteIfExists(countFile());
+            exists = false;
+            forEachShard(allShards(), i -> shards[i].clear());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    // ==========================================================
+    // Rebalancing
+    // ==========================================================
+
+    /**
+     * Move the students into a new set of shards
+     *
+     * Reads and writes wait until it is done. The old set stays in use
+     * until the new one is completely on disk. Other processes must not
+     * use the store meanwhile.
+     *
+     * @param shardCount New number of shards
+     */
+    public void rebalance(int shardCount) throws IOException {
+        if (shardCount < 1) {
+            throw new IOException("Shard count must be at least 1: " + shardCount);
+        }
+        lock.writeLock().lock();
+        try {
+            int oldCount = shards.length;
+            if (shardCount == oldCount) {
+                return;
+            }
+            List<Student> students = loadShards();
+            FileStudentStore[] fresh = openShards(shardCount);
+            List<List<Student>> parts = partition(students, shardCount);
+            forEachShard(allShards(shardCount), i -> fresh[i].replaceAll(parts.get(i)));
+            writeShardCount(shardCount); // switch over
+            shards = fresh;
+            exists = true;
+            deleteOtherSets(shardCount);
+            System.out.println("✓ Rebalanced " + students.size() + " students from " + oldCount
+                               + " to " + shardCount + " shards");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    // Metrics
+    // ==========================================================
+
+    public int getShardCount() {
+        lock.readLock().lock();
+        try {
+            return shards.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return shard files written since the current set was opened (a
+     *         single-student put adds one)
+     */
+    public long getShardWrites() {
+        lock.readLock().lock();
+        try {
+            long writes = 0;
+            for (FileStudentStore shard : shards) {
+                writes += shard.getWrites();
+            }
+            return writes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    // Shards
+    // ==========================================================
+
+    /**
+     * @return shard of a student ID among shardCount shards
+     */
+    static int shardOf(String studentId, int shardCount) {
+        return Math.floorMod(studentId.hashCode(), shardCount);
+    }
+
+    @FunctionalInterface
+    private interface ShardTask {
+        void run(int shard) throws IOException;
+    }
+
+    // Run task for each shard on the workers and wait for all of them
+    private void forEachShard(List<Integer> indexes, ShardTask task) throws IOException {
+        if (indexes.size() == 1) {
+            task.run(indexes.get(0)); // no hand-off for a single shard
+            return;
+        }
+        List<Future<?>> running = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            running.add(workers.submit(() -> {
+                task.run(i);
+                return null;
+            }));
+        }
+        IOException error = null;
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof IOException
+                            ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (error == null) {
+                    error = new IOException("Interrupted waiting for shards", e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private List<Student> loadShards() throws IOException {
+        List<List<Student>> parts = new ArrayList<>(Collections.nCopies(shards.length, null));
+        forEachShard(allShards(), i -> parts.set(i, shards[i].loadAll()));
+        List<Student> students = new ArrayList<>();
+        for (List<Student> part : parts) {
+            students.addAll(part);
+        }
+        return students;
+    }
+
+    private static List<List<Student>> partition(Collection<Student> students, int shardCount) {
+        List<List<Student>> parts = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            parts.add(new ArrayList<>());
+        }
+        for (Student student : students) {
+            parts.get(shardOf(student.getStudentId(), shardCount)).add(student);
+        }
+        return parts;
+    }
+
+    private List<Integer> allShards() {
+        return allShards(shards.length);
+    }
+
+    private static List<Integer> allShards(int shardCount) {
+        List<Integer> indexes = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private FileStudentStore[] openShards(int shardCount) {
+        FileStudentStore[] opened = new FileStudentStore[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            opened[i] = new FileStudentStore(shardPath(i, shardCount).toString(), shared);
+        }
+        return opened;
+    }
+
+    private Path shardPath(int shard, int shardCount) {
+        return dir.resolve(String.format("students-%02d-of-%02d.dat", shard, shardCount));
+    }
+
+    // Shard files of any count but keep (0 = every shard file)
+    private void deleteOtherSets(int keep) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "students-*-of-*.dat")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int count;
+                try {
+                    count = Integer.parseInt(name.substring(name.indexOf("-of-") + 4, name.length() - 4));
+                } catch (NumberFormatException e) {
+                    continue; // not one of ours
+                }
+                if (count != keep) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    // A set written by putAll() alone becomes the current one on its first write
+    private void markExisting() throws IOException {
+        synchronized (this) {
+            if (!exists) {
+                writeShardCount(shards.length);
+                exists = true;
+            }
+        }
+    }
+
+    private Path countFile() {
+        return dir.resolve("students.shards");
+    }
+
+    // 0 if there is no shard set yet
+    private int readShardCount() throws IOException {
+        Path file = countFile();
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IOException("Damaged shard count file " + file + ": " + text);
+        }
+    }
+
+    private void writeShardCount(int shardCount) throws IOException {
+        AtomicFile.write(countFile(), out -> out.write(
+                (shardCount + System.lineSeparator()).getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,409 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Course;
+import com.mycompany.crs.model.CourseEnrollment;
+import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
+import java.io.*;
+import java.util.*;
+
+/**
+ * StudentCodec - Compact binary format for students and their enrollments
+ *
+ * Replaces Java serialization for the student files. Java serialization
+ * writes class descriptors and field names and a full Course inside every
+ * CourseEnrollment; this format writes:
+ *
+ *   magic "CRSB", varint version
+ *   string table  varint count, UTF strings (ref 0 = null, n = string n-1)
+ *   course table  varint count, per course: string refs (id, name,
+ *                 semester, instructor), varints (credits, weights)
+ *   students      varint count, per student: string refs (id, first, last,
+ *                 major, year, email, status), flags byte, varlong version
+ *                 stamp (since version 2), varint enrollment count, per
+ *                 enrollment: course ref, exam score, assignment score
+ *
+ * Numbers are zig-zag varints. Total score, letter grade and grade point
+ * are not stored; CourseEnrollment recomputes them from the scores.
+ * Decoded students of one list share their Course objects.
+ * readSummaries() and decodeSummary() compute CGPA and failed courses
+ * straight from the scores, for list screens that need no course list.
+ *
+ * Files written with Java serialization start with 0xACED (see
+ * isJavaSerialized) and are read by the stores' legacy path; they are
+ * rewritten in this format on the next save.
+ *
+ * @author YourName
+ * @version 1.3
+ */
+public final class StudentCodec {
+
+    public static final int MAGIC = 0x43525342; // "CRSB"
+    public static final int VERSION = 2;
+
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+
+    private static final int FLAG_ELIGIBLE = 1;
+    private static final int FLAG_NO_COURSE_LIST = 2;
+
+    private StudentCodec() {
+    }
+
+    /**
+     * @return true if the first two bytes of a file are the Java
+     *         serialization stream magic (a legacy students.dat)
+     */
+    public static boolean isJavaSerialized(int b0, int b1) {
+        return ((b0 & 0xFF) << 8 | (b1 & 0xFF)) == JAVA_SERIALIZATION_MAGIC;
+    }
+
+    // ==========================================================
+    // Encoding
+    // ==========================================================
+
+    /**
+     * Write students with header, string table and course table
+     */
+    public static void write(DataOutput out, Collection<Student> students) throws IOException {
+        out.writeInt(MAGIC);
+        writeVarint(out, VERSION);
+
+        // Pass 1: tables
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<String, Integer> courseIndex = new HashMap<>();
+        Map<Course, Integer> courseRefs = new IdentityHashMap<>(); // usually shared instances
+        List<Course> courses = new ArrayList<>();
+        for (Student s : students) {
+            ref(strings, s.getStudentId());
+            ref(strings, s.getFirstName());
+            ref(strings, s.getLastName());
+            ref(strings, s.getMajor());
+            ref(strings, s.getYear());
+            ref(strings, s.getEmail());
+            ref(strings, s.getEnrollmentStatus());
+            if (s.getEnrolledCourses() == null) continue;
+            for (CourseEnrollment e : s.getEnrolledCourses()) {
+                Course c = e.getCourse();
+                if (c == null || courseRefs.containsKey(c)) continue;
+                Integer index = courseIndex.get(courseKey(c));
+                if (index == null) {
+                    index = courses.size() + 1;
+                    courseIndex.put(courseKey(c), index);
+                    courses.add(c);
+                    ref(strings, c.getCourseId());
+                    ref(strings, c.getCourseName());
+                    ref(strings, c.getSemester());
+                    ref(strings, c.getInstructor());
+                }
+                courseRefs.put(c, index);
+            }
+        }
+
+        writeVarint(out, strings.size());
+        for (String value : strings.keySet()) {
+            out.writeUTF(value);
+        }
+
+        writeVarint(out, courses.size());
+        for (Course c : courses) {
+            writeVarint(out, ref(strings, c.getCourseId()));
+            writeVarint(out, ref(strings, c.getCourseName()));
+            writeVarint(out, ref(strings, c.getSemester()));
+            writeVarint(out, ref(strings, c.getInstructor()));
+            writeVarint(out, zigZag(c.getCredits()));
+            writeVarint(out, zigZag(c.getExamWeight()));
+            writeVarint(out, zigZag(c.getAssignmentWeight()));
+        }
+
+        // Pass 2: students, strings and courses by reference
+        writeVarint(out, students.size());
+        for (Student s : students) {
+            writeVarint(out, ref(strings, s.getStudentId()));
+            writeVarint(out, ref(strings, s.getFirstName()));
+            writeVarint(out, ref(strings, s.getLastName()));
+            writeVarint(out, ref(strings, s.getMajor()));
+            writeVarint(out, ref(strings, s.getYear()));
+            writeVarint(out, ref(strings, s.getEmail()));
+            writeVarint(out, ref(strings, s.getEnrollmentStatus()));
+
+            List<CourseEnrollment> enrolled = s.getEnrolledCourses();
+            out.writeByte((s.isEligible() ? FLAG_ELIGIBLE : 0)
+                          | (enrolled == null ? FLAG_NO_COURSE_LIST : 0));
+            writeVarlong(out, s.getVersion());
+            if (enrolled == null) continue;
+            writeVarint(out, enrolled.size());
+            for (CourseEnrollment e : enrolled) {
+                writeVarint(out, e.getCourse() == null ? 0 : courseRefs.get(e.getCourse()));
+                writeVarint(out, zigZag(e.getExamScore()));
+                writeVarint(out, zigZag(e.getAssignmentScore()));
+            }
+        }
+    }
+
+    /**
+     * Encode one student as a self-contained record
+     */
+    public static byte[] encode(Student student) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(out, Collections.singletonList(student));
+        }
+        return bytes.toByteArray();
+    }
+
+    // ==========================================================
+    // Decoding
+    // ==========================================================
+
+    /**
+     * Read students written by write()
+     *
+     * @throws IOException if the data is not in this format or is damaged
+     */
+    public static List<Student> read(DataInput in) throws IOException {
+        Tables tables = readTables(in);
+        int count = readCount(in);
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Arguments are evaluated left to right, i.e. in file order
+            Student s = new Student(tables.str(in), tables.str(in), tables.str(in),
+                                    tables.str(in), tables.str(in), tables.str(in));
+            s.setEnrollmentStatus(tables.str(in));
+            int flags = in.readUnsignedByte();
+            s.setEligible((flags & FLAG_ELIGIBLE) != 0);
+            s.setVersion(tables.readStamp(in));
+            if ((flags & FLAG_NO_COURSE_LIST) != 0) {
+                s.setEnrolledCourses(null);
+            } else {
+                int enrolled = readCount(in);
+                List<CourseEnrollment> list = new ArrayList<>(enrolled);
+                for (int j = 0; j < enrolled; j++) {
+                    list.add(new CourseEnrollment(tables.course(in),
+                            unZigZag(readVarint(in)), unZigZag(readVarint(in))));
+                }
+                s.setEnrolledCourses(list);
+            }
+            students.add(s);
+        }
+        return students;
+    }
+
+    /**
+     * Read summaries of the students written by write(): CGPA and failed
+     * courses are computed from the scores as they are read, without
+     * creating the students' CourseEnrollment lists
+     *
+     * @throws IOException if the data is not in this format or is damaged
+     */
+    public static List<StudentSummary> readSummaries(DataInput in) throws IOException {
+        Tables tables = readTables(in);
+        int count = readCount(in);
+        List<StudentSummary> summaries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = tables.str(in);
+            String firstName = tables.str(in);
+            String lastName = tables.str(in);
+            String major = tables.str(in);
+            String year = tables.str(in);
+            tables.str(in); // email
+            String status = tables.str(in);
+            int flags = in.readUnsignedByte();
+            tables.readStamp(in);
+
+            // As Student.calculateCGPA() and countFailedCourses()
+            double gradePoints = 0.0;
+            int creditHours = 0;
+            int failed = 0;
+            if ((flags & FLAG_NO_COURSE_LIST) == 0) {
+                int enrolled = readCount(in);
+                for (int j = 0; j < enrolled; j++) {
+                    Course course = tables.course(in);
+                    double gradePoint = CourseEnrollment.gradePointFor(unZigZag(readVarint(in)),
+                                                                       unZigZag(readVarint(in)));
+                    int credits = course == null ? 0 : course.getCredits();
+                    gradePoints += gradePoint * credits;
+                    creditHours += credits;
+                    if (gradePoint < 2.0) {
+                        failed++;
+                    }
+                }
+            }
+            summaries.add(new StudentSummary(id, firstName, lastName, major, year, status,
+                    Student.calculateCGPA(gradePoints, creditHours), failed));
+        }
+        return summaries;
+    }
+
+    /**
+     * Decode one record written by encode()
+     */
+    public static Student decode(byte[] data, int offset, int length) throws IOException {
+        List<Student> one = read(new DataInputStream(new ByteArrayInputStream(data, offset, length)));
+        if (one.size() != 1) {
+            throw new IOException("Expected one student record, found " + one.size());
+        }
+        return one.get(0);
+    }
+
+    /**
+     * Decode the summary of one record written by encode()
+     */
+    public static StudentSummary decodeSummary(byte[] data, int offset, int length) throws IOException {
+        List<StudentSummary> one = readSummaries(new DataInputStream(
+                new ByteArrayInputStream(data, offset, length)));
+        if (one.size() != 1) {
+            throw new IOException("Expected one student record, found " + one.size());
+        }
+        return one.get(0);
+    }
+
+    // ==========================================================
+    // Helpers
+    // ==========================================================
+
+    private static int ref(Map<String, Integer> strings, String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer ref = strings.get(value);
+        if (ref == null) {
+            ref = strings.size() + 1;
+            strings.put(value, ref);
+        }
+        return ref;
+    }
+
+    /** String and course tables at the start of the data */
+    private static final class Tables {
+        final int version;
+        final String[] strings;
+        final Course[] courses;
+
+        Tables(int version, String[] strings, Course[] courses) {
+            this.version = version;
+            this.strings = strings;
+            this.courses = courses;
+        }
+
+        // Version stamps are stored from format version 2
+        long readStamp(DataInput in) throws IOException {
+            return version >= 2 ? readVarlong(in) : 0;
+        }
+
+        String str(DataInput in) throws IOException {
+            int ref = readVarint(in);
+            if (ref < 0 || ref >= strings.length) {
+                throw new IOException("Bad string reference " + ref);
+            }
+            return strings[ref];
+        }
+
+        // null for reference 0
+        Course course(DataInput in) throws IOException {
+            int ref = readVarint(in);
+            if (ref < 0 || ref >= courses.length) {
+                throw new IOException("Bad course reference " + ref);
+            }
+            return courses[ref];
+        }
+    }
+
+    // Header, string table and course table
+    private static Tables readTables(DataInput in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException(String.format("Not a student file (magic %08x)", magic));
+        }
+        int version = readVarint(in);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported student file version " + version);
+        }
+
+        String[] strings = new String[readCount(in) + 1];
+        for (int i = 1; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+        Tables tables = new Tables(version, strings, new Course[readCount(in) + 1]);
+        for (int i = 1; i < tables.courses.length; i++) {
+            String id = tables.str(in);
+            String name = tables.str(in);
+            String semester = tables.str(in);
+            String instructor = tables.str(in);
+            int credits = unZigZag(readVarint(in));
+            int examWeight = unZigZag(readVarint(in));
+            int assignmentWeight = unZigZag(readVarint(in));
+            tables.courses[i] = new Course(id, name, credits, semester, instructor, examWeight, assignmentWeight);
+        }
+        return tables;
+    }
+
+    // Courses with the same ID but different details are kept apart
+    private static String courseKey(Course c) {
+        return c.getCourseId() + '\u0000' + c.getCourseName() + '\u0000' + c.getSemester()
+               + '\u0000' + c.getInstructor() + '\u0000' + c.getCredits()
+               + '\u0000' + c.getExamWeight() + '\u0000' + c.getAssignmentWeight();
+    }
+
+    private static int readCount(DataInput in) throws IOException {
+        int count = readVarint(in);
+        if (count < 0) {
+            throw new IOException("Bad count " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Write an int as an unsigned LEB128 varint (7 bits per byte); also
+     * used by other binary files of the application
+     */
+    public static void writeVarint(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Read an int written by writeVarint
+     */
+    public static int readVarint(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void writeVarlong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarlong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varlong");
+    }
+
+    private static int zigZag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    private static int unZigZag(int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mycompany.crs.store;
+
+import java.io.IOException;
+
+/**
+ * StudentConflictException - A save lost the race for a student
+ *
+ * Thrown by a store shared between processes when the student was saved
+ * by someone else after the caller read it: the stored version is not
+ * the one the caller's copy was read at. Nothing of the caller's change
+ * was written. Reload the student, reapply the change and save again.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public class StudentConflictException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String studentId;
+    private final long expectedVersion;
+    private final long actualVersion;
+
+    public StudentConflictException(String studentId, long expectedVersion, long actualVersion) {
+        super("Student " + studentId + " was changed by another user (version " + actualVersion
+              + ", expected " + expectedVersion + "); reload it and try again");
+        this.studentId = studentId;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    /**
+     * @return version the caller's copy was read at
+     */
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    /**
+     * @return version stored now (0 if the student was deleted)
+     */
+    public long getActualVersion() {
+        return actualVersion;
+    }
+}
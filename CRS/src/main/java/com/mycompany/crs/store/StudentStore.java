@@ -0,0 +1,129 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * StudentStore - Persistent storage for the eligibility module's students
+ *
+ * FileManager talks to this interface instead of a file format, so the
+ * storage engine can change (see StudentStores for the available engines)
+ * without touching the service or GUI layers.
+ *
+ * Implementations are shared per data file within a process and are
+ * thread-safe.
+ *
+ * @author YourName
+ * @version 1.3
+ */
+public interface StudentStore extends Closeable {
+
+    /**
+     * @return true if student data has been saved before
+     */
+    boolean exists();
+
+    /**
+     * @return number of stored students
+     */
+    int size() throws IOException;
+
+    /**
+     * Load every student, in the order they were first saved (except
+     * ShardedStudentStore, shard by shard, and BTreeStudentStore, in ID
+     * order)
+     *
+     * @return List of students (empty if nothing is stored)
+     */
+    List<Student> loadAll() throws IOException;
+
+    /**
+     * Pass every student to an action without building a list; engines
+     * that can read one record at a time keep memory use flat. The action
+     * must not write to the store.
+     *
+     * @param action Called once per student
+     */
+    default void forEach(Consumer<Student> action) throws IOException {
+        loadAll().forEach(action);
+    }
+
+    /**
+     * Pass a summary of every student (details, CGPA and failed courses,
+     * no course list) to an action. Engines holding encoded records
+     * decode only the summary. The action must not write to the store.
+     *
+     * @param action Called once per student
+     */
+    default void forEachSummary(Consumer<StudentSummary> action) throws IOException {
+        forEach(student -> action.accept(new StudentSummary(student)));
+    }
+
+    /**
+     * Load the students whose ID starts with a prefix
+     *
+     * @param prefix ID prefix ("" for all)
+     * @return Matching students
+     */
+    default List<Student> findByIdPrefix(String prefix) throws IOException {
+        List<Student> found = new ArrayList<>();
+        forEach(student -> {
+            if (student.getStudentId().startsWith(prefix)) {
+                found.add(student);
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Load one student
+     *
+     * @param studentId Student ID
+     * @return Student, or null if not stored
+     */
+    Student get(String studentId) throws IOException;
+
+    /**
+     * Insert or replace one student
+     *
+     * @param student Student to save
+     */
+    void put(Student student) throws IOException;
+
+    /**
+     * Insert or replace several students; engines that rewrite a whole
+     * file do it once for the batch
+     *
+     * @param students Students to save
+     */
+    default void putAll(Collection<Student> students) throws IOException {
+        for (Student student : students) {
+            put(student);
+        }
+    }
+
+    /**
+     * Replace the whole student set
+     *
+     * @param students New contents of the store
+     */
+    void replaceAll(List<Student> students) throws IOException;
+
+    /**
+     * Remove all stored data (files included)
+     */
+    void clear() throws IOException;
+
+    /**
+     * Force everything saved so far to disk (engines that do so on every
+     * write need not override this)
+     */
+    default void sync() throws IOException {
+    }
+}
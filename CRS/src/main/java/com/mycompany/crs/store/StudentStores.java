@@ -0,0 +1,256 @@
+package com.mycompany.crs.store;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * StudentStores - Chooses and shares the student storage engine
+ *
+ * The engine is picked with -Dcrs.store:
+ *   log  - append-only log, data/students.log (default; imports an
+ *          existing data/students.dat on first use)
+ *   file - the original whole-list data/students.dat
+ *   mmap - memory-mapped fixed slots, data/students.slots and
+ *          data/students.overflow (imports the log, or students.dat,
+ *          on first use)
+ *   btree - page-based B+tree keyed by student ID, data/students.btree,
+ *          with a bounded page cache (imports like mmap)
+ *   shard - students split by ID hash over data/students-&lt;i&gt;-of-&lt;N&gt;.dat,
+ *          loaded and saved in parallel; N is -Dcrs.store.shards (default
+ *          8), and changing it rebalances the files (imports like mmap)
+ *
+ * Enrollments follow the engine: data/enrollments.log, indexed by student
+ * (imports an existing data/enrollments.dat on first use), the original
+ * data/enrollments.dat with -Dcrs.store=file, or a B+tree keyed by
+ * enrollment ID, data/enrollments.btree, with -Dcrs.store=btree.
+ *
+ * Every FileManager in the process gets the same instance for a data
+ * directory, so the in-memory state of an engine is built only once.
+ *
+ * students() and enrollments() put a WriteBehind in front of the stores,
+ * so saves return at once and are written in coalesced batches:
+ *   -Dcrs.store.flushMillis  flush interval (default 250, 0 = write through)
+ *   -Dcrs.store.flushBatch   pending students that force a flush (default 256)
+ *   -Dcrs.store.wal          log each change before it is deferred (default
+ *                            true; see MutationLog)
+ *
+ * Changes left in the mutation log by a crash are replayed into the stores
+ * the first time a data directory is used, whatever the settings.
+ *
+ * -Dcrs.store.shared=true is for several processes (workstations) on one
+ * data directory. Only the file and shard engines support it: their
+ * changes are locked across processes and version-checked, so a save of a
+ * student changed elsewhere since it was read fails with
+ * StudentConflictException. Saves are written through (no WriteBehind or
+ * mutation log, whose deferred changes other processes could not see) and
+ * enrollments are kept in data/enrollments.dat.
+ *
+ * @author YourName
+ * @version 1.6
+ */
+public final class StudentStores {
+
+    public static final String LOG = "log";
+    public static final String FILE = "file";
+    public static final String MMAP = "mmap";
+    public static final String BTREE = "btree";
+    public static final String SHARD = "shard";
+
+    private static final Map<String, StudentStore> OPEN = new HashMap<>();
+    private static final Map<String, EnrollmentStore> ENROLLMENTS = new HashMap<>();
+    private static final Map<String, WriteBehind> WRITE_BEHIND = new HashMap<>();
+    private static final Set<String> RECOVERED = new HashSet<>();
+    private static boolean shutdownHook;
+
+    private StudentStores() {
+    }
+
+    /**
+     * @return engine name selected with -Dcrs.store
+     */
+    public static String configuredEngine() {
+        return System.getProperty("crs.store", LOG);
+    }
+
+    /**
+     * @return true if other processes may use the data directory too
+     *         (-Dcrs.store.shared)
+     */
+    public static boolean isShared() {
+        return Boolean.parseBoolean(System.getProperty("crs.store.shared", "false"));
+    }
+
+    /**
+     * Student store for the application: the configured engine, behind a
+     * WriteBehind unless -Dcrs.store.flushMillis=0
+     *
+     * @param dataDir Directory holding the student files
+     */
+    public static StudentStore students(String dataDir) throws IOException {
+        WriteBehind writeBehind = writeBehind(dataDir);
+        return writeBehind != null ? writeBehind.students() : open(dataDir);
+    }
+
+    /**
+     * Enrollment store for the application, sharing the WriteBehind of
+     * students(), so both are flushed together
+     *
+     * @param dataDir Directory holding the enrollment file
+     */
+    public static EnrollmentStore enrollments(String dataDir) throws IOException {
+        WriteBehind writeBehind = writeBehind(dataDir);
+        return writeBehind != null ? writeBehind.enrollments() : openEnrollments(dataDir);
+    }
+
+    /**
+     * Shared WriteBehind for a data directory (configured engine)
+     *
+     * @return the instance, or null if writes go straight through
+     *         (flushMillis 0, or a shared store)
+     */
+    public static synchronized WriteBehind writeBehind(String dataDir) throws IOException {
+        String key = key(configuredEngine(), dataDir);
+        if (RECOVERED.add(key)) {
+            MutationLog.replay(Paths.get(dataDir), open(dataDir), openEnrollments(dataDir));
+        }
+        long flushMillis = Long.getLong("crs.store.flushMillis", 250);
+        if (flushMillis <= 0 || isShared()) {
+            return null;
+        }
+        WriteBehind writeBehind = WRITE_BEHIND.get(key);
+        if (writeBehind == null) {
+            MutationLog log = Boolean.parseBoolean(System.getProperty("crs.store.wal", "true"))
+                    ? new MutationLog(Paths.get(dataDir)) : null;
+            writeBehind = new WriteBehind(open(dataDir), openEnrollments(dataDir), log, flushMillis,
+                                          Integer.getInteger("crs.store.flushBatch", 256));
+            WRITE_BEHIND.put(key, writeBehind);
+            if (!shutdownHook) {
+                Runtime.getRuntime().addShutdownHook(new Thread(StudentStores::closeAll,
+                                                                "crs-store-shutdown"));
+                shutdownHook = true;
+            }
+        }
+        return writeBehind;
+    }
+
+    /**
+     * Open (or reuse) the configured engine for a data directory
+     *
+     * @param dataDir Directory holding the student files
+     */
+    public static StudentStore open(String dataDir) throws IOException {
+        return open(configuredEngine(), dataDir);
+    }
+
+    /**
+     * Open (or reuse) an engine for a data directory
+     *
+     * @param engine Engine name (LOG, FILE, MMAP, BTREE or SHARD)
+     * @param dataDir Directory holding the student files
+     */
+    public static synchronized StudentStore open(String engine, String dataDir) throws IOException {
+        String key = key(engine, dataDir);
+        StudentStore store = OPEN.get(key);
+        if (store == null) {
+            store = create(engine, dataDir);
+            OPEN.put(key, store);
+        }
+        return store;
+    }
+
+    /**
+     * Open (or reuse) the enrollment store of a data directory
+     *
+     * @param dataDir Directory holding the enrollment file
+     */
+    public static synchronized EnrollmentStore openEnrollments(String dataDir) throws IOException {
+        String engine = configuredEngine();
+        String key = key("enrollments-" + engine, dataDir);
+        EnrollmentStore store = ENROLLMENTS.get(key);
+        if (store == null) {
+            String legacy = Paths.get(dataDir, "enrollments.dat").toString();
+            String log = Paths.get(dataDir, "enrollments.log").toString();
+            if (isShared()) {
+                store = new FileEnrollmentStore(legacy, true);
+                if (!store.exists() && Files.exists(Paths.get(log))) {
+                    try (EnrollmentStore source = new LogEnrollmentStore(log, null)) {
+                        store.replaceAll(source.loadAll());
+                    }
+                }
+            } else if (FILE.equals(engine)) {
+                store = new FileEnrollmentStore(legacy);
+            } else if (BTREE.equals(engine)) {
+                try (EnrollmentStore source = Files.exists(Paths.get(log))
+                        ? new LogEnrollmentStore(log, null) : new FileEnrollmentStore(legacy)) {
+                    store = new BTreeEnrollmentStore(Paths.get(dataDir, "enrollments.btree").toString(),
+                                                     source);
+                }
+            } else {
+                store = new LogEnrollmentStore(log, legacy);
+            }
+            ENROLLMENTS.put(key, store);
+        }
+        return store;
+    }
+
+    private static synchronized void closeAll() {
+        for (WriteBehind writeBehind : WRITE_BEHIND.values()) {
+            try {
+                writeBehind.close();
+            } catch (IOException e) {
+                System.err.println("✗ Unsaved changes lost: " + e.getMessage());
+            }
+        }
+    }
+
+    private static String key(String engine, String dataDir) {
+        return engine + ":" + Paths.get(dataDir).toAbsolutePath().normalize();
+    }
+
+    private static StudentStore create(String engine, String dataDir) throws IOException {
+        String legacy = Paths.get(dataDir, "students.dat").toString();
+        boolean shared = isShared();
+        if (shared && !FILE.equals(engine) && !SHARD.equals(engine)) {
+            throw new IOException("Student store '" + engine + "' cannot be shared between processes"
+                                  + " (use " + FILE + " or " + SHARD + " with crs.store.shared)");
+        }
+        switch (engine) {
+            case LOG:
+                return new LogStudentStore(Paths.get(dataDir, "students.log").toString(), legacy);
+            case FILE:
+                return new FileStudentStore(legacy, shared);
+            case MMAP:
+                try (StudentStore source = importSource(dataDir)) {
+                    return new MappedStudentStore(Paths.get(dataDir, "students.slots").toString(),
+                            Paths.get(dataDir, "students.overflow").toString(), source);
+                }
+            case BTREE:
+                try (StudentStore source = importSource(dataDir)) {
+                    return new BTreeStudentStore(Paths.get(dataDir, "students.btree").toString(), source);
+                }
+            case SHARD:
+                try (StudentStore source = importSource(dataDir)) {
+                    return new ShardedStudentStore(dataDir, Integer.getInteger("crs.store.shards", 8),
+                                                   source, shared);
+                }
+            default:
+                throw new IOException("Unknown student store '" + engine + "' (use " + LOG + ", "
+                                      + FILE + ", " + MMAP + ", " + BTREE + " or " + SHARD + ")");
+        }
+    }
+
+    // Existing data for a new engine: the log if there is one, else students.dat
+    private static StudentStore importSource(String dataDir) throws IOException {
+        Path log = Paths.get(dataDir, "students.log");
+        if (Files.exists(log)) {
+            return new LogStudentStore(log.toString(), null);
+        }
+        return new FileStudentStore(Paths.get(dataDir, "students.dat").toString());
+    }
+}
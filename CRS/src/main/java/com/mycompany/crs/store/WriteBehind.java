@@ -0,0 +1,693 @@
+package com.mycompany.crs.store;
+
+import com.mycompany.crs.model.Enrollment;
+import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * WriteBehind - Deferred, coalesced writes for the student and enrollment stores
+ *
+ * students() and enrollments() return stores that record changes in memory
+ * and return immediately. A background thread writes them to the real
+ * stores every flushMillis, or as soon as maxPending students are waiting:
+ *
+ *   - several saves of the same student become one put
+ *   - several saves of the enrollment list become one rewrite
+ *   - appended enrollments are written as one batch (appendAll)
+ *   - students and enrollments are written in the same flush, students first
+ *
+ * Reads see pending changes (as copies, like the stores' own reads); a
+ * saved student is held as it was when saved. Student replaceAll() and both clear() calls
+ * are not deferred; they drop what they supersede and go straight to the
+ * real store. Enrollment sequence numbers are reserved here, so numbers of
+ * enrollments that are still pending are not handed out again.
+ *
+ * With a MutationLog, every change is logged and forced before the call
+ * returns, and each flush is a checkpoint that lets the log drop what the
+ * stores now hold. commit() logs changes to both stores as one record
+ * (e.g. an enrollment and its student's new status).
+ *
+ * flush() writes everything pending and returns when it is on disk (use
+ * it at durability points); close() flushes and stops the thread. A JVM
+ * shutdown hook closes every WriteBehind that is still open. A failed
+ * background flush is printed and retried on the next one.
+ *
+ * @author YourName
+ * @version 1.4
+ */
+public class WriteBehind implements Flushable, AutoCloseable {
+
+    private final StudentStore studentTarget;
+    private final EnrollmentStore enrollmentTarget;
+    private final MutationLog log;
+    private final int maxPending;
+    private final ScheduledExecutorService flusher;
+
+    // Guarded by this
+    private Map<String, Student> pendingStudents = new LinkedHashMap<>();
+    private Map<String, Student> flushingStudents = Collections.emptyMap();
+    private EnrollmentChanges pendingEnrollments = new EnrollmentChanges();
+    private EnrollmentChanges flushingEnrollments = new EnrollmentChanges();
+    private final Map<String, Integer> reservedSequences = new HashMap<>();
+    private boolean flushQueued;
+    private boolean closed;
+
+    // Held while writing to the real stores, so flushes and
+    // replaceAll/clear reach them in order
+    private final Object writeLock = new Object();
+
+    // Metrics, guarded by this
+    private long studentSaves;
+    private long studentWrites;
+    private long enrollmentSaves;
+    private long enrollmentWrites;
+    private long flushes;
+    private double flushMillis;
+    private String lastError;
+
+    /** Enrollment changes not yet written: an optional new list, then appends */
+    private static final class EnrollmentChanges {
+        List<Enrollment> replacement;
+        final List<Enrollment> appends = new ArrayList<>();
+        int saves;
+
+        boolean isEmpty() {
+            return replacement == null && appends.isEmpty();
+        }
+
+        // Number of store calls writeTo() makes
+        int writes() {
+            return (replacement == null ? 0 : 1) + (appends.isEmpty() ? 0 : 1);
+        }
+
+        void writeTo(EnrollmentStore target) throws IOException {
+            if (replacement != null) {
+                target.replaceAll(replacement);
+            }
+            if (!appends.isEmpty()) {
+                target.appendAll(appends);
+            }
+        }
+    }
+
+    // Pending students are copies taken when saved, and reads hand out
+    // copies again: like the real stores, a caller changing a Student it
+    // read does not change what is written until it saves it
+    private static Student copy(Student student) throws IOException {
+        byte[] record = StudentCodec.encode(student);
+        return StudentCodec.decode(record, 0, record.length);
+    }
+
+    private final StudentStore studentView = new StudentView();
+    private final EnrollmentStore enrollmentView = new EnrollmentView();
+
+    /**
+     * @param students Store the students are written to
+     * @param enrollments Store the enrollments are written to
+     * @param flushMillis Interval between background flushes
+     * @param maxPending Number of pending students (or appended enrollments)
+     *        that triggers a flush
+     */
+    public WriteBehind(StudentStore students, EnrollmentStore enrollments,
+                       long flushMillis, int maxPending) {
+        this(students, enrollments, null, flushMillis, maxPending);
+    }
+
+    /**
+     * @param log Log every change is written to first (null for none)
+     */
+    WriteBehind(StudentStore students, EnrollmentStore enrollments, MutationLog log,
+                long flushMillis, int maxPending) {
+        this.studentTarget = students;
+        this.enrollmentTarget = enrollments;
+        this.log = log;
+        this.maxPending = Math.max(1, maxPending);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "crs-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis,
+                                       TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return student store whose writes are deferred
+     */
+    public StudentStore students() {
+        return studentView;
+    }
+
+    /**
+     * @return enrollment store whose writes are deferred
+     */
+    public EnrollmentStore enrollments() {
+        return enrollmentView;
+    }
+
+    /**
+     * Save students and add enrollments as one change: with a mutation log
+     * they are logged in a single record, so after a crash either all of
+     * them are replayed or none
+     *
+     * @param mutation What the change is
+     * @param students Students to save
+     * @param enrollments Enrollments to add
+     */
+    public void commit(Mutation mutation, Collection<Student> students,
+                       Collection<Enrollment> enrollments) throws IOException {
+        long logged = 0;
+        boolean writeNow;
+        synchronized (this) {
+            // Logged in the order the changes are applied
+            if (log != null) {
+                logged = log.append(mutation, students, enrollments);
+            }
+            for (Student student : students) {
+                studentSaves++;
+                pendingStudents.put(student.getStudentId(), copy(student));
+            }
+            enrollmentSaves += enrollments.size();
+            pendingEnrollments.saves += enrollments.size();
+            pendingEnrollments.appends.addAll(enrollments);
+            writeNow = queued();
+        }
+        if (log != null) {
+            log.sync(logged);
+        }
+        if (writeNow) {
+            flush();
+        }
+    }
+
+    // ==========================================================
+    // Flushing
+    // ==========================================================
+
+    /**
+     * Write all pending changes and wait until they are stored
+     *
+     * @throws IOException if a store rejects the write (the changes stay pending)
+     */
+    @Override
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            Map<String, Student> students;
+            EnrollmentChanges enrollments;
+            long checkpoint = 0;
+            synchronized (this) {
+                flushQueued = false;
+                students = pendingStudents;
+                enrollments = pendingEnrollments;
+                if (students.isEmpty() && enrollments.isEmpty()) {
+                    return;
+                }
+                // Everything logged so far is in what this flush writes.
+                // Rolled before the changes are taken over, so a failed
+                // roll leaves them pending
+                if (log != null) {
+                    checkpoint = log.roll();
+                }
+                flushingStudents = students;
+                flushingEnrollments = enrollments;
+                pendingStudents = new LinkedHashMap<>();
+                pendingEnrollments = new EnrollmentChanges();
+            }
+
+            long start = System.nanoTime();
+            boolean studentsDone = students.isEmpty();
+            boolean enrollmentsDone = enrollments.isEmpty();
+            try {
+                if (!studentsDone) {
+                    studentTarget.putAll(students.values());
+                    studentsDone = true;
+                    synchronized (this) {
+                        studentWrites += students.size();
+                    }
+                }
+                if (!enrollmentsDone) {
+                    enrollments.writeTo(enrollmentTarget);
+                    enrollmentsDone = true;
+                    synchronized (this) {
+                        enrollmentWrites += enrollments.writes();
+                    }
+                }
+                // Only changes the stores hold durably may leave the log
+                if (log != null) {
+                    studentTarget.sync();
+                    enrollmentTarget.sync();
+                    log.deleteThrough(checkpoint);
+                }
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    // Give back whatever was not superseded in the meantime
+                    if (!studentsDone) {
+                        students.putAll(pendingStudents);
+                        pendingStudents = students;
+                    }
+                    if (!enrollmentsDone && pendingEnrollments.replacement == null) {
+                        enrollments.appends.addAll(pendingEnrollments.appends);
+                        enrollments.saves += pendingEnrollments.saves;
+                        pendingEnrollments = enrollments;
+                    }
+                    lastError = e.toString();
+                }
+                throw e instanceof IOException ? (IOException) e : new IOException(e);
+            } finally {
+                synchronized (this) {
+                    flushingStudents = Collections.emptyMap();
+                    flushingEnrollments = new EnrollmentChanges();
+                }
+            }
+
+            synchronized (this) {
+                flushes++;
+                flushMillis += (System.nanoTime() - start) / 1e6;
+            }
+        }
+    }
+
+    /**
+     * Flush and stop the background thread
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flusher.shutdown();
+        boolean flushed = false;
+        try {
+            flush();
+            flushed = true;
+        } finally {
+            if (log != null) {
+                log.close(flushed);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("✗ Background save failed (will retry): " + e.getMessage());
+        }
+    }
+
+    // Called with the lock held after a change was queued; true means the
+    // caller must flush itself (after releasing the lock) because we are closed
+    private boolean queued() {
+        if (closed) {
+            return true;
+        }
+        if (pendingStudents.size() + pendingEnrollments.appends.size() >= maxPending && !flushQueued) {
+            flushQueued = true;
+            flusher.execute(this::flushQuietly);
+        }
+        return false;
+    }
+
+    // ==========================================================
+    // Metrics
+    // ==========================================================
+
+    /**
+     * @return student saves received
+     */
+    public synchronized long getStudentSaves() {
+        return studentSaves;
+    }
+
+    /**
+     * @return students written to the store (saves minus coalesced)
+     */
+    public synchronized long getStudentWrites() {
+        return studentWrites;
+    }
+
+    /**
+     * @return enrollment saves received (list replacements and appends)
+     */
+    public synchronized long getEnrollmentSaves() {
+        return enrollmentSaves;
+    }
+
+    /**
+     * @return enrollment writes to the store (replaceAll or appendAll calls)
+     */
+    public synchronized long getEnrollmentWrites() {
+        return enrollmentWrites;
+    }
+
+    /**
+     * @return saves that were merged into a later one and never written
+     */
+    public synchronized long getCoalescedWrites() {
+        return studentSaves - studentWrites - pendingStudents.size() - flushingStudents.size()
+               + enrollmentSaves - enrollmentWrites
+               - pendingEnrollments.saves - flushingEnrollments.saves;
+    }
+
+    public synchronized long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * @return error of the last failed flush, or null
+     */
+    public synchronized String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return changes logged, or 0 without a mutation log
+     */
+    public long getLoggedChanges() {
+        return log == null ? 0 : log.getRecords();
+    }
+
+    /**
+     * @return forces of the mutation log (logged changes / syncs = average group size)
+     */
+    public long getLogSyncs() {
+        return log == null ? 0 : log.getSyncs();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("write-behind: %d student saves -> %d writes, %d enrollment saves -> %d writes, "
+                             + "%d coalesced, %d flushes (%.1f ms avg)%s%s",
+                studentSaves, studentWrites, enrollmentSaves, enrollmentWrites, getCoalescedWrites(),
+                flushes, flushes == 0 ? 0.0 : flushMillis / flushes,
+                log == null ? "" : String.format(", %d logged in %d syncs", getLoggedChanges(), getLogSyncs()),
+                lastError == null ? "" : ", last error: " + lastError);
+    }
+
+    // ==========================================================
+    // Deferred stores
+    // ==========================================================
+
+    private final class StudentView implements StudentStore {
+
+        @Override
+        public boolean exists() {
+            synchronized (WriteBehind.this) {
+                if (!pendingStudents.isEmpty() || !flushingStudents.isEmpty()) {
+                    return true;
+                }
+            }
+            return studentTarget.exists();
+        }
+
+        @Override
+        public int size() throws IOException {
+            return loadAll().size();
+        }
+
+        @Override
+        public List<Student> loadAll() throws IOException {
+            // Take the overlay first: anything flushed after this point is
+            // the same data, so the result is never older than the overlay
+            Map<String, Student> overlay = overlay();
+            List<Student> students = studentTarget.loadAll();
+            for (int i = 0; i < students.size() && !overlay.isEmpty(); i++) {
+                Student newer = overlay.remove(students.get(i).getStudentId());
+                if (newer != null) {
+                    students.set(i, newer);
+                }
+            }
+            students.addAll(overlay.values());
+            return students;
+        }
+
+        @Override
+        public void forEach(Consumer<Student> action) throws IOException {
+            Map<String, Student> overlay = overlay();
+            studentTarget.forEach(student -> {
+                Student newer = overlay.remove(student.getStudentId());
+                action.accept(newer != null ? newer : student);
+            });
+            overlay.values().forEach(action);
+        }
+
+        @Override
+        public void forEachSummary(Consumer<StudentSummary> action) throws IOException {
+            Map<String, Student> overlay = overlay();
+            studentTarget.forEachSummary(summary -> {
+                Student newer = overlay.remove(summary.getStudentId());
+                action.accept(newer != null ? new StudentSummary(newer) : summary);
+            });
+            for (Student student : overlay.values()) {
+                action.accept(new StudentSummary(student));
+            }
+        }
+
+        @Override
+        public List<Student> findByIdPrefix(String prefix) throws IOException {
+            Map<String, Student> overlay = overlay();
+            overlay.keySet().removeIf(id -> !id.startsWith(prefix));
+            List<Student> students = studentTarget.findByIdPrefix(prefix);
+            for (int i = 0; i < students.size() && !overlay.isEmpty(); i++) {
+                Student newer = overlay.remove(students.get(i).getStudentId());
+                if (newer != null) {
+                    students.set(i, newer);
+                }
+            }
+            students.addAll(overlay.values());
+            return students;
+        }
+
+        @Override
+        public Student get(String studentId) throws IOException {
+            synchronized (WriteBehind.this) {
+                Student pending = pendingStudents.get(studentId);
+                if (pending == null) {
+                    pending = flushingStudents.get(studentId);
+                }
+                if (pending != null) {
+                    return copy(pending);
+                }
+            }
+            return studentTarget.get(studentId);
+        }
+
+        @Override
+        public void put(Student student) throws IOException {
+            putAll(Collections.singletonList(student));
+        }
+
+        @Override
+        public void putAll(Collection<Student> students) throws IOException {
+            commit(Mutation.STUDENTS_SAVED, students, Collections.emptyList());
+        }
+
+        @Override
+        public void replaceAll(List<Student> students) throws IOException {
+            synchronized (writeLock) {
+                reset();
+                studentTarget.replaceAll(students);
+            }
+        }
+
+        @Override
+        public void clear() throws IOException {
+            synchronized (writeLock) {
+                reset();
+                studentTarget.clear();
+            }
+        }
+
+        @Override
+        public void sync() throws IOException {
+            flush();
+        }
+
+        // Drop pending students; the log marks the point so a replay drops them too
+        private void reset() throws IOException {
+            long logged = 0;
+            synchronized (WriteBehind.this) {
+                pendingStudents = new LinkedHashMap<>();
+                if (log != null) {
+                    logged = log.append(Mutation.STUDENTS_RESET, Collections.emptyList(),
+                                        Collections.emptyList());
+                }
+            }
+            if (log != null) {
+                log.sync(logged);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            WriteBehind.this.close();
+        }
+
+        private Map<String, Student> overlay() throws IOException {
+            Map<String, Student> overlay;
+            synchronized (WriteBehind.this) {
+                overlay = new LinkedHashMap<>(flushingStudents);
+                overlay.putAll(pendingStudents);
+            }
+            for (Map.Entry<String, Student> entry : overlay.entrySet()) {
+                entry.setValue(copy(entry.getValue()));
+            }
+            return overlay;
+        }
+    }
+
+    private final class EnrollmentView implements EnrollmentStore {
+
+        @Override
+        public boolean exists() {
+            synchronized (WriteBehind.this) {
+                if (!pendingEnrollments.isEmpty() || !flushingEnrollments.isEmpty()) {
+                    return true;
+                }
+            }
+            return enrollmentTarget.exists();
+        }
+
+        @Override
+        public List<Enrollment> loadAll() throws IOException {
+            return read(null);
+        }
+
+        @Override
+        public List<Enrollment> findByStudent(String studentId) throws IOException {
+            return read(studentId);
+        }
+
+        // The store's own counter, raised past numbers reserved here, so the
+        // default (count + 1) does not repeat the number of a pending append
+        @Override
+        public int nextSequence(String studentId) throws IOException {
+            int sequence = enrollmentTarget.nextSequence(studentId);
+            synchronized (WriteBehind.this) {
+                sequence = Math.max(sequence, reservedSequences.getOrDefault(studentId, 0) + 1);
+                reservedSequences.put(studentId, sequence);
+            }
+            return sequence;
+        }
+
+        @Override
+        public Map<String, Integer> nextSequences(Collection<String> studentIds) throws IOException {
+            Map<String, Integer> sequences = enrollmentTarget.nextSequences(studentIds);
+            synchronized (WriteBehind.this) {
+                for (Map.Entry<String, Integer> entry : sequences.entrySet()) {
+                    int sequence = Math.max(entry.getValue(),
+                                            reservedSequences.getOrDefault(entry.getKey(), 0) + 1);
+                    reservedSequences.put(entry.getKey(), sequence);
+                    entry.setValue(sequence);
+                }
+            }
+            return sequences;
+        }
+
+        @Override
+        public void append(Enrollment enrollment) throws IOException {
+            appendAll(Collections.singletonList(enrollment));
+        }
+
+        @Override
+        public void appendAll(Collection<Enrollment> enrollments) throws IOException {
+            commit(Mutation.ENROLLMENTS_SAVED, Collections.emptyList(), enrollments);
+        }
+
+        @Override
+        public void replaceAll(List<Enrollment> enrollments) throws IOException {
+            long logged = 0;
+            boolean writeNow;
+            synchronized (WriteBehind.this) {
+                if (log != null) {
+                    logged = log.append(Mutation.ENROLLMENTS_REPLACED, Collections.emptyList(), enrollments);
+                }
+                enrollmentSaves++;
+                pendingEnrollments.saves++;
+                pendingEnrollments.replacement = new ArrayList<>(enrollments);
+                pendingEnrollments.appends.clear();
+                writeNow = queued();
+            }
+            if (log != null) {
+                log.sync(logged);
+            }
+            if (writeNow) {
+                flush();
+            }
+        }
+
+        @Override
+        public void clear() throws IOException {
+            synchronized (writeLock) {
+                long logged = 0;
+                synchronized (WriteBehind.this) {
+                    pendingEnrollments = new EnrollmentChanges();
+                    reservedSequences.clear();
+                    if (log != null) {
+                        logged = log.append(Mutation.ENROLLMENTS_RESET, Collections.emptyList(),
+                                            Collections.emptyList());
+                    }
+                }
+                if (log != null) {
+                    log.sync(logged);
+                }
+                enrollmentTarget.clear();
+            }
+        }
+
+        @Override
+        public void sync() throws IOException {
+            flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            WriteBehind.this.close();
+        }
+
+        // All enrollments (studentId null) or one student's, pending ones included
+        private List<Enrollment> read(String studentId) throws IOException {
+            List<Enrollment> base = null;
+            List<Enrollment> overlay = new ArrayList<>();
+            // Take the overlay first, as in StudentView.loadAll()
+            synchronized (WriteBehind.this) {
+                for (EnrollmentChanges changes : Arrays.asList(flushingEnrollments, pendingEnrollments)) {
+                    if (changes.replacement != null) {
+                        base = new ArrayList<>(changes.replacement);
+                        overlay.clear();
+                    }
+                    overlay.addAll(changes.appends);
+                }
+            }
+            if (base == null) {
+                base = studentId == null ? enrollmentTarget.loadAll()
+                                         : enrollmentTarget.findByStudent(studentId);
+            } else if (studentId != null) {
+                base.removeIf(e -> !studentId.equals(e.getStudentId()));
+            }
+
+            // Appends that were flushed after the overlay was taken are already in base
+            Set<String> stored = new HashSet<>();
+            for (Enrollment e : base) {
+                stored.add(e.getEnrollmentId());
+            }
+            for (Enrollment e : overlay) {
+                if ((studentId == null || studentId.equals(e.getStudentId()))
+                        && !stored.contains(e.getEnrollmentId())) {
+                    base.add(e);
+                }
+            }
+            return base;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.mycompany.crs.util;
+
+import java.io.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * CSVInput - Opens CSV sources that may be compressed
+ *
+ * The format is taken from the first bytes of the file, not its name:
+ * gzip (1f 8b, e.g. nightly .csv.gz exports) and zlib-wrapped deflate
+ * (78 xx with a valid header checksum) are decoded as a stream; anything
+ * else is read as plain text. Text can start with a valid zlib header too
+ * (e.g. "x^"), so a file is only taken as zlib if its first
+ * PROBE_BYTES also inflate without error. Raw deflate has no header and
+ * cannot be told apart from text, so it is not detected.
+ *
+ * Buffer sizes can be tuned with system properties:
+ *   crs.io.bufferSize      bytes read from the file per call (default 64K)
+ *   crs.io.inflateBuffer   compressed bytes handed to the Inflater (default 64K)
+ *
+ * @author YourName
+ * @version 1.1
+ */
+public class CSVInput {
+
+    public enum Format { PLAIN, GZIP, ZLIB }
+
+    private static final int DEFAULT_BUFFER = 64 * 1024;
+    private static final int PROBE_BYTES = 4096;
+
+    private CSVInput() {
+    }
+
+    /**
+     * @return bytes read from the file per call (crs.io.bufferSize)
+     */
+    public static int getBufferSize() {
+        return Math.max(512, Integer.getInteger("crs.io.bufferSize", DEFAULT_BUFFER));
+    }
+
+    /**
+     * @return compressed bytes handed to the Inflater per call (crs.io.inflateBuffer)
+     */
+    public static int getInflateBufferSize() {
+        return Math.max(512, Integer.getInteger("crs.io.inflateBuffer", DEFAULT_BUFFER));
+    }
+
+    /**
+     * Identify the format from the first two bytes of a file. ZLIB only
+     * means the bytes are a valid zlib header; detect(String) also checks
+     * that the data after it inflates.
+     *
+     * @param b0 First byte (or -1 if the file is empty)
+     * @param b1 Second byte (or -1 if the file is shorter)
+     * @return detected format
+     */
+    public static Format detect(int b0, int b1) {
+        if (b0 == 0x1f && b1 == 0x8b) {
+            return Format.GZIP;
+        }
+        // zlib: CM = 8 (deflate) with the 32K window every encoder uses
+        // (0x78), no preset dictionary, and the 16-bit header is a multiple
+        // of 31 (RFC 1950)
+        if (b0 == 0x78 && b1 >= 0 && (b1 & 0x20) == 0 && ((b0 << 8) | b1) % 31 == 0) {
+            return Format.ZLIB;
+        }
+        return Format.PLAIN;
+    }
+
+    /**
+     * Identify the format of a file
+     *
+     * @param filePath Path to the file
+     * @return detected format (PLAIN for empty files)
+     */
+    public static Format detect(String filePath) throws IOException {
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(filePath), PROBE_BYTES)) {
+            return detect(in);
+        }
+    }
+
+    // Format of a stream, which is left at its start (needs mark support)
+    private static Format detect(BufferedInputStream in) throws IOException {
+        in.mark(PROBE_BYTES);
+        byte[] probe = new byte[PROBE_BYTES];
+        int length = 0;
+        int n;
+        while (length < probe.length && (n = in.read(probe, length, probe.length - length)) > 0) {
+            length += n;
+        }
+        in.reset();
+
+        Format format = detect(length > 0 ? probe[0] & 0xFF : -1, length > 1 ? probe[1] & 0xFF : -1);
+        if (format == Format.ZLIB && !inflates(probe, length)) {
+            return Format.PLAIN; // text that happens to start like a zlib header
+        }
+        return format;
+    }
+
+    // True if the bytes are the start of a zlib stream that inflates without error
+    private static boolean inflates(byte[] data, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 0, length);
+            byte[] out = new byte[8192];
+            while (!inflater.finished() && !inflater.needsInput()) {
+                if (inflater.inflate(out) == 0 && !inflater.finished() && !inflater.needsInput()) {
+                    return false; // needs a preset dictionary
+                }
+            }
+            return true;
+        } catch (DataFormatException e) {
+            return false;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Open a file as a decoded byte stream
+     *
+     * @param filePath Path to a plain, gzip or zlib file
+     * @return buffered stream of the uncompressed bytes
+     */
+    public static InputStream openStream(String filePath) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(new FileInputStream(filePath), getBufferSize());
+        try {
+            switch (detect(in)) {
+                case GZIP:
+                    return new GZIPInputStream(in, getInflateBufferSize());
+                case ZLIB:
+                    return new InflaterInputStream(in, new Inflater(), getInflateBufferSize()) {
+                        @Override
+                        public void close() throws IOException {
+                            super.close();
+                            inf.end();
+                        }
+                    };
+                default:
+                    return in;
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open a file as text in the platform charset (as FileReader did)
+     *
+     * @param filePath Path to a plain, gzip or zlib file
+     * @return reader over the uncompressed text
+     */
+    public static Reader openReader(String filePath) throws IOException {
+        return new InputStreamReader(openStream(filePath));
+    }
+}
@@ -0,0 +1,316 @@
+package com.mycompany.crs.util;
+
+import java.io.*;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * CSVParser - Streaming CSV scanner with column-indexed rows
+ *
+ * Reads the input one char at a time from a fixed buffer, so no line Strings
+ * or regex splits are created. The header row is resolved once; callers look
+ * up column indexes with indexOf() and then read every record through the
+ * same reusable CSVRow.
+ *
+ * Supports comma or tab delimiters (auto-detected from the first line),
+ * quoted fields with "" escapes and embedded delimiters/newlines, a leading
+ * BOM, and blank lines (skipped). open() also reads gzip/zlib compressed
+ * files.
+ *
+ * @author YourName
+ * @version 1.2
+ */
+public class CSVParser implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Delimiter value that means "detect comma or tab from the first line" */
+    public static final char AUTO_DETECT = '\0';
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int pos;
+    private int limit;
+    private boolean started;
+
+    private char delimiter;
+    private String[] headers;
+    private long lineNumber;
+    private int sourceStart = -1; // buffer index where the current record's text starts
+
+    private final CSVRow row = new CSVRow();
+
+    /**
+     * Create a parser that auto-detects comma or tab delimiters
+     */
+    public CSVParser(Reader reader) {
+        this(reader, AUTO_DETECT);
+    }
+
+    /**
+     * Create a parser with a fixed delimiter
+     */
+    public CSVParser(Reader reader, char delimiter) {
+        this(reader, delimiter, BUFFER_SIZE);
+    }
+
+    /**
+     * Create a parser with a fixed delimiter (or AUTO_DETECT) and a
+     * char buffer of the given size
+     */
+    public CSVParser(Reader reader, char delimiter, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[Math.max(bufferSize, 256)];
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Open a CSV file for parsing. Gzip or zlib compressed files are
+     * detected by their magic bytes and decoded while reading
+     * (see CSVInput); the buffer size follows crs.io.bufferSize.
+     *
+     * @param filePath Path to CSV file
+     * @return parser positioned before the header row
+     */
+    public static CSVParser open(String filePath) throws IOException {
+        return new CSVParser(CSVInput.openReader(filePath), AUTO_DETECT, CSVInput.getBufferSize());
+    }
+
+    /**
+     * @return header names (empty if the file is empty)
+     */
+    public String[] getHeaders() throws IOException {
+        ensureHeaders();
+        return headers.clone();
+    }
+
+    /**
+     * Use these headers instead of reading a header row, e.g. when the
+     * input starts part-way through a file whose header was read earlier.
+     * Must be called before the first record is read.
+     *
+     * @param headers Column names in file order
+     */
+    public void setHeaders(String[] headers) {
+        this.headers = headers.clone();
+    }
+
+    /**
+     * Number lines from here, e.g. when the input starts part-way through a
+     * file, so rows report their line in the whole file. Must be called
+     * before anything is read.
+     *
+     * @param lineNumber 1-based line number of the first line of the input
+     */
+    public void setFirstLineNumber(long lineNumber) {
+        this.lineNumber = lineNumber - 1;
+    }
+
+    /**
+     * Resolve a header name to its column index
+     *
+     * @param header Column name
+     * @return column index, or -1 if the file has no such column
+     */
+    public int indexOf(String header) throws IOException {
+        ensureHeaders();
+        for (int i = 0; i < headers.length; i++) {
+            if (headers[i].equals(header)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return delimiter in use (detected on first read when auto-detecting)
+     */
+    public char getDelimiter() throws IOException {
+        start();
+        return delimiter;
+    }
+
+    /**
+     * Read the next data record
+     *
+     * @return the shared row view, or null at end of input
+     */
+    public CSVRow next() throws IOException {
+        ensureHeaders();
+        return readRecord() ? row : null;
+    }
+
+    /**
+     * Lazily map the remaining records to objects. Rows are parsed only as
+     * the stream pulls them, and closing the stream closes this parser.
+     *
+     * @param mapper Converts the (reused) row view into a value
+     * @return sequential, ordered stream of mapped values
+     */
+    public <T> Stream<T> stream(Function<CSVRow, T> mapper) {
+        Spliterator<T> records = new Spliterators.AbstractSpliterator<T>(
+                Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    CSVRow record = next();
+                    if (record == null) {
+                        return false;
+                    }
+                    action.accept(mapper.apply(record));
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(records, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // ==========================================================
+    // Scanning
+    // ==========================================================
+
+    private void ensureHeaders() throws IOException {
+        if (headers != null) {
+            return;
+        }
+        if (readRecord()) {
+            headers = new String[row.size()];
+            for (int i = 0; i < headers.length; i++) {
+                headers[i] = row.get(i);
+            }
+        } else {
+            headers = new String[0];
+        }
+    }
+
+    /**
+     * First fill: strip a BOM and detect the delimiter from the first line
+     */
+    private void start() throws IOException {
+        if (started) {
+            return;
+        }
+        started = true;
+        fill();
+        if (pos < limit && buffer[pos] == '\uFEFF') {
+            pos++;
+        }
+        if (delimiter == AUTO_DETECT) {
+            delimiter = ',';
+            for (int i = pos; i < limit && buffer[i] != '\n'; i++) {
+                if (buffer[i] == '\t') {
+                    delimiter = '\t';
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (sourceStart >= 0) {
+            // Keep the record's text before the buffer is overwritten
+            row.appendSource(buffer, sourceStart, limit - sourceStart);
+            sourceStart = 0;
+        }
+        int n = reader.read(buffer, 0, buffer.length);
+        while (n == 0) {
+            n = reader.read(buffer, 0, buffer.length);
+        }
+        pos = 0;
+        limit = Math.max(n, 0);
+        return n > 0;
+    }
+
+    private int read() throws IOException {
+        if (pos >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private boolean isPadding(int c) {
+        return c >= 0 && c <= ' ' && c != delimiter && c != '\n' && c != '\r';
+    }
+
+    /**
+     * Scan one non-blank record into the shared row
+     *
+     * @return false at end of input
+     */
+    private boolean readRecord() throws IOException {
+        start();
+        do {
+            int c = read();
+            if (c == -1) {
+                return false;
+            }
+            row.clear(++lineNumber);
+            sourceStart = pos - 1;
+
+            while (true) {
+                while (isPadding(c)) {
+                    c = read();
+                }
+                row.startField();
+
+                if (c == '"') {
+                    while (true) {
+                        c = read();
+                        if (c == -1) {
+                            break; // unterminated quote: keep what we have
+                        }
+                        if (c == '"') {
+                            c = read();
+                            if (c != '"') {
+                                break; // closing quote
+                            }
+                        } else if (c == '\n') {
+                            lineNumber++;
+                        }
+                        row.append((char) c);
+                    }
+                    row.endField(true);
+                    // Ignore anything between the closing quote and the delimiter
+                    while (c != -1 && c != delimiter && c != '\n' && c != '\r') {
+                        c = read();
+                    }
+                } else {
+                    while (c != -1 && c != delimiter && c != '\n' && c != '\r') {
+                        row.append((char) c);
+                        c = read();
+                    }
+                    row.endField(false);
+                }
+
+                if (c == delimiter) {
+                    c = read();
+                    continue;
+                }
+                int sourceEnd = c == -1 ? pos : pos - 1; // before the terminator
+                row.appendSource(buffer, sourceStart, sourceEnd - sourceStart);
+                sourceStart = -1;
+                if (c == '\r' && (pos < limit || fill()) && buffer[pos] == '\n') {
+                    pos++;
+                }
+                break;
+            }
+        } while (row.isBlank());
+        return true;
+    }
+}
@@ -2,91 +2,160 @@ package com.mycompany.crs.util;
 
 import java.io.*;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * CSVReader - Utility to read CSV files
  * FIXED: Now handles both comma and tab separated files
+ * Parsing is done by CSVParser (quoted fields, column-indexed rows)
  * 
  * @author konda
- * @version 2.0
+ * @version 2.2
  */
 public class CSVReader {
     
+    /**
+     * Columns with only a few distinct values (majors, years, terms,
+     * instructors, grades, statuses). Their values are pooled while
+     * reading so every row shares one String per distinct value.
+     */
+    private static final Set<String> LOW_CARDINALITY_COLUMNS = new HashSet<>(Arrays.asList(
+            "Major", "Year", "Semester", "Instructor", "Grade", "Status"));
+    
     /**
      * Read CSV file and return list of rows
      * Each row is a Map of column_name -> value
      * 
+     * Thin adapter over CSVParser for callers that want maps; bulk loaders
+     * should use CSVParser directly and read fields by column index.
+     * 
      * @param filePath Path to CSV file
      * @return List of rows as Maps
      */
     public static List<Map<String, String>> readCSV(String filePath) {
         List<Map<String, String>> data = new ArrayList<>();
+        IngestReport report = new IngestReport(filePath);
         
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            String[] headers = null;
-            boolean firstLine = true;
-            String delimiter = null; // Auto-detect delimiter
+        try (CSVParser parser = CSVParser.open(filePath)) {
+            String[] headers = parser.getHeaders();
+            boolean[] pooled = pooledColumns(headers);
+            StringPool pool = new StringPool();
             
-            while ((line = br.readLine()) != null) {
-                // Remove BOM if present
-                if (line.startsWith("\uFEFF")) {
-                    line = line.substring(1);
-                }
-                
-                line = line.trim();
-                if (line.isEmpty()) continue;
-                
-                // Auto-detect delimiter on first line
-                if (delimiter == null) {
-                    if (line.contains("\t")) {
-                        delimiter = "\t";
-                        System.out.println("✓ Detected TAB-separated file");
-                    } else if (line.contains(",")) {
-                        delimiter = ",";
-                        System.out.println("✓ Detected COMMA-separated file");
-                    } else {
-                        delimiter = ","; // Default
-                    }
-                }
-                
-                String[] values = line.split(delimiter);
-                
-                if (firstLine) {
-                    headers = values;
-                    // Clean headers
-                    for (int i = 0; i < headers.length; i++) {
-                        headers[i] = headers[i].trim();
-                    }
-                    firstLine = false;
-                    System.out.println("✓ CSV Headers: " + Arrays.toString(headers));
-                } else {
-                    if (headers != null && values.length > 0) {
-                        Map<String, String> row = new HashMap<>();
-                        for (int i = 0; i < headers.length && i < values.length; i++) {
-                            String value = values[i].trim();
-                            // Remove quotes if present
-                            if (value.startsWith("\"") && value.endsWith("\"")) {
-                                value = value.substring(1, value.length() - 1);
-                            }
-                            row.put(headers[i], value);
-                        }
-                        data.add(row);
-                    }
-                }
+            CSVRow row;
+            while ((row = parser.next()) != null) {
+                data.add(toMap(headers, row, pooled, pool));
+                report.accept();
             }
             
-            System.out.println("✓ Loaded " + data.size() + " rows from " + filePath);
+            System.out.println("✓ " + report.finish() + " ("
+                               + (parser.getDelimiter() == '\t' ? "TAB" : "COMMA")
+                               + "-separated, strings: " + pool + ")");
             
         } catch (IOException e) {
-            System.err.println("✗ Error reading CSV file: " + filePath);
-            System.err.println("  Error: " + e.getMessage());
-            e.printStackTrace();
+            report.fail(e.toString());
+            System.err.println("✗ Error reading CSV file: " + filePath + " (" + e.getMessage() + ")");
         }
         
         return data;
     }
     
+    /**
+     * Stream a CSV file through a visitor, one record at a time.
+     * Nothing is accumulated, so memory use does not grow with file size.
+     * Prints one summary line for the file.
+     *
+     * @param filePath Path to CSV file
+     * @param visitor Receives the headers, then every record
+     * @return number of records visited
+     */
+    public static int forEachRow(String filePath, RowVisitor visitor) {
+        IngestReport report = new IngestReport(filePath);
+        int count = forEachRow(filePath, visitor, report);
+        System.out.println("✓ Streamed " + report.finish());
+        return count;
+    }
+
+    /**
+     * Stream a CSV file through a visitor without printing anything.
+     * Every visited record is counted as accepted in the report; I/O
+     * errors are recorded with report.fail().
+     *
+     * @param filePath Path to CSV file
+     * @param visitor Receives the headers, then every record
+     * @param report Counters for this pass (not finished here)
+     * @return number of records visited
+     */
+    public static int forEachRow(String filePath, RowVisitor visitor, IngestReport report) {
+        return IngestPipeline.read(filePath, null, visitor, report);
+    }
+
+    /**
+     * Lazily stream a CSV file as column_name -> value maps.
+     * The stream holds the file open; close it (try-with-resources).
+     *
+     * @param filePath Path to CSV file
+     * @return Stream of rows, empty if the file cannot be read
+     */
+    public static Stream<Map<String, String>> streamCSV(String filePath) {
+        CSVParser parser = null;
+        try {
+            parser = CSVParser.open(filePath);
+            String[] headers = parser.getHeaders();
+            boolean[] pooled = pooledColumns(headers);
+            StringPool pool = new StringPool();
+            return parser.stream(row -> toMap(headers, row, pooled, pool));
+        } catch (IOException e) {
+            if (parser != null) {
+                try {
+                    parser.close();
+                } catch (IOException ignored) {
+                }
+            }
+            System.err.println("✗ Error reading CSV file: " + filePath);
+            System.err.println("  Error: " + e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    private static Map<String, String> toMap(String[] headers, CSVRow row,
+                                             boolean[] pooled, StringPool pool) {
+        int columns = Math.min(headers.length, row.size());
+        Map<String, String> values = new HashMap<>(columns * 4 / 3 + 1);
+        for (int i = 0; i < columns; i++) {
+            values.put(headers[i], pooled[i] ? row.get(i, pool) : row.get(i));
+        }
+        return values;
+    }
+    
+    /**
+     * @return true if values of this column should go through a StringPool
+     */
+    public static boolean isLowCardinality(String header) {
+        return LOW_CARDINALITY_COLUMNS.contains(header);
+    }
+    
+    private static boolean[] pooledColumns(String[] headers) {
+        boolean[] pooled = new boolean[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            pooled[i] = isLowCardinality(headers[i]);
+        }
+        return pooled;
+    }
+
+    /**
+     * Find a column by header name
+     *
+     * @return column index, or -1 if missing (CSVRow returns null/default for -1)
+     */
+    public static int columnIndex(String[] headers, String name) {
+        for (int i = 0; i < headers.length; i++) {
+            if (headers[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Parse integer safely
      */
@@ -0,0 +1,260 @@
+package com.mycompany.crs.util;
+
+import java.util.Arrays;
+
+/**
+ * CSVRow - Reusable view over one parsed CSV record
+ *
+ * A CSVParser hands out the same CSVRow instance for every record it reads,
+ * so a row is only valid until the next call to CSVParser.next(). Field
+ * values live in one shared char buffer and are addressed by column index;
+ * Strings are only created when a caller asks for one. The record's source
+ * text, exactly as it was in the file, is kept too (getSourceText()), so a
+ * rejected record can be quarantined as written.
+ *
+ * @author YourName
+ * @version 1.2
+ */
+public final class CSVRow {
+
+    private char[] chars = new char[256];
+    private int length;
+
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int count;
+
+    private char[] source = new char[256];
+    private int sourceLength;
+
+    private int fieldStart;
+    private long lineNumber;
+    private boolean parseError;
+
+    CSVRow() {
+    }
+
+    // ==========================================================
+    // Building (used by CSVParser only)
+    // ==========================================================
+
+    void clear(long lineNumber) {
+        this.length = 0;
+        this.count = 0;
+        this.sourceLength = 0;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Add raw input chars of the record (quotes, delimiters and all)
+     */
+    void appendSource(char[] buf, int from, int len) {
+        if (sourceLength + len > source.length) {
+            source = Arrays.copyOf(source, Math.max(sourceLength + len, source.length * 2));
+        }
+        System.arraycopy(buf, from, source, sourceLength, len);
+        sourceLength += len;
+    }
+
+    void startField() {
+        fieldStart = length;
+    }
+
+    void append(char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    /**
+     * Close the current field. Unquoted fields lose their trailing
+     * whitespace; quoted fields are kept exactly as written.
+     */
+    void endField(boolean quoted) {
+        int end = length;
+        if (!quoted) {
+            while (end > fieldStart && chars[end - 1] <= ' ') {
+                end--;
+            }
+        }
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = fieldStart;
+        ends[count] = end;
+        count++;
+    }
+
+    /**
+     * True if the record holds nothing but a single empty field,
+     * i.e. it came from a blank line.
+     */
+    boolean isBlank() {
+        return count == 1 && starts[0] == ends[0];
+    }
+
+    // ==========================================================
+    // Field access
+    // ==========================================================
+
+    /**
+     * @return number of fields in this record
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return 1-based line number the record started on
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Get a field as a String
+     *
+     * @param col Column index (from CSVParser.indexOf)
+     * @return field value, or null if the record has no such column
+     */
+    public String get(int col) {
+        if (col < 0 || col >= count) {
+            return null;
+        }
+        return new String(chars, starts[col], ends[col] - starts[col]);
+    }
+
+    /**
+     * Get a field through a StringPool. Values already in the pool are
+     * returned without allocating a new String.
+     *
+     * @param col Column index
+     * @param pool Pool for this (low-cardinality) column
+     * @return pooled field value, or null if the record has no such column
+     */
+    public String get(int col, StringPool pool) {
+        if (col < 0 || col >= count) {
+            return null;
+        }
+        return pool.intern(chars, starts[col], ends[col]);
+    }
+
+    /**
+     * @return the record exactly as it was in the input, without its line
+     *         terminator (quoted line breaks included)
+     */
+    public String getSourceText() {
+        return new String(source, 0, sourceLength);
+    }
+
+    /**
+     * @return true if the column is missing or holds an empty value
+     */
+    public boolean isEmpty(int col) {
+        return col < 0 || col >= count || starts[col] == ends[col];
+    }
+
+    /**
+     * @return true if the last getInt/getDouble call found a non-empty
+     *         value that was not a valid number (and returned the default)
+     */
+    public boolean lastParseFailed() {
+        return parseError;
+    }
+
+    /**
+     * Parse a field as an int straight from the row buffer.
+     * Never throws; bad, empty or missing values give the default
+     * (bad values also set lastParseFailed()).
+     *
+     * @param col Column index
+     * @param defaultValue Value to use when the field is not a valid int
+     * @return parsed value or defaultValue
+     */
+    public int getInt(int col, int defaultValue) {
+        parseError = false;
+        if (col < 0 || col >= count) {
+            return defaultValue;
+        }
+        int i = starts[col];
+        int end = ends[col];
+
+        // Quoted fields are not trimmed by the parser
+        while (i < end && chars[i] <= ' ') i++;
+        while (end > i && chars[end - 1] <= ' ') end--;
+        if (i == end) {
+            return defaultValue;
+        }
+        parseError = true;
+
+        boolean negative = false;
+        char first = chars[i];
+        if (first == '-' || first == '+') {
+            negative = (first == '-');
+            if (++i == end) {
+                return defaultValue;
+            }
+        }
+
+        // Accumulate negatively so Integer.MIN_VALUE parses (same as Integer.parseInt)
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multmin = limit / 10;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9 || result < multmin) {
+                return defaultValue;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return defaultValue;
+            }
+            result -= digit;
+        }
+        parseError = false;
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parse a field as a double straight from the row buffer.
+     * Never throws; bad, empty or missing values give the default
+     * (bad values also set lastParseFailed()).
+     *
+     * Same syntax as DecimalParser.
+     *
+     * @param col Column index
+     * @param defaultValue Value to use when the field is not a valid number
+     * @return parsed value or defaultValue
+     */
+    public double getDouble(int col, double defaultValue) {
+        parseError = false;
+        if (col < 0 || col >= count) {
+            return defaultValue;
+        }
+        int i = starts[col];
+        int end = ends[col];
+        while (i < end && chars[i] <= ' ') i++;
+        while (end > i && chars[end - 1] <= ' ') end--;
+        if (i == end) {
+            return defaultValue;
+        }
+        double value = DecimalParser.parse(chars, i, end);
+        if (Double.isNaN(value)) {
+            parseError = true;
+            return defaultValue;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length + count);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(chars, starts[i], ends[i] - starts[i]);
+        }
+        return sb.toString();
+    }
+}
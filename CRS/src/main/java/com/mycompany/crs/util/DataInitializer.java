@@ -20,74 +20,86 @@ public class DataInitializer {
     private Map<String, Course> coursesMap;
     private List<Student> studentsList;
     private Random rand;
+    private StringPool strings; // shared copies of Major/Year/Semester/Instructor
     
+    private IngestPipeline pipeline;
+    private String studentsCsv;
+    private String coursesCsv;
+    private RowBinder<Course> courseBinder;
+    private RowBinder<Student> studentBinder;
+    
+    /**
+     * Load the default CSV files now
+     */
     public DataInitializer() {
+        this(new IngestPipeline(), STUDENTS_CSV, COURSES_CSV);
+        pipeline.run();
+    }
+    
+    /**
+     * Register this initializer's course and student sinks on a shared
+     * pipeline. The data is available (and grades assigned) once the
+     * pipeline has run; other models registered on the same files are
+     * filled from the same read.
+     * 
+     * @param pipeline Pipeline that will read the files
+     * @param studentsCsv Student information file
+     * @param coursesCsv Course assessment file
+     */
+    public DataInitializer(IngestPipeline pipeline, String studentsCsv, String coursesCsv) {
         coursesMap = new HashMap<>();
         studentsList = new ArrayList<>();
         rand = new Random(42); // Fixed seed for consistency
+        strings = new StringPool();
+        
+        this.pipeline = pipeline;
+        this.studentsCsv = studentsCsv;
+        this.coursesCsv = coursesCsv;
         
+        // Columns are bound to the model constructors once per file
+        courseBinder = ModelBinders.course(strings);
+        studentBinder = ModelBinders.student(strings);
+        pipeline.add(coursesCsv, courseBinder.into(course -> coursesMap.put(course.getCourseId(), course)));
+        pipeline.add(studentsCsv, studentBinder.into(studentsList::add));
+        pipeline.onComplete(this::finishLoading);
+    }
+    
+    /**
+     * Runs after the pipeline has read both files
+     */
+    private void finishLoading() {
         System.out.println("========================================");
         System.out.println("  LOADING DATA FROM CSV FILES");
         System.out.println("========================================");
         
-        loadCoursesFromCSV();
-        loadStudentsFromCSV();
+        System.out.println("\n📚 Courses: " + pipeline.getReport(coursesCsv));
+        System.out.println("✓ Loaded " + coursesMap.size() + " courses");
+        reportBindingProblems(courseBinder);
+        
+        System.out.println("\n👥 Students: " + pipeline.getReport(studentsCsv));
+        System.out.println("✓ Loaded " + studentsList.size() + " students");
+        reportBindingProblems(studentBinder);
+        
         assignRealisticGrades();
         
         System.out.println("========================================");
         System.out.println("  DATA LOADING COMPLETE!");
         System.out.println("  Total Students: " + studentsList.size());
         System.out.println("  Total Courses: " + coursesMap.size());
+        System.out.println("  Pooled Strings: " + strings);
         System.out.println("========================================");
     }
     
     /**
-     * Load courses from CSV file
+     * Print missing columns / unparseable values found while binding a file
      */
-    private void loadCoursesFromCSV() {
-        System.out.println("\n📚 Loading courses from CSV...");
-        
-        List<Map<String, String>> courseData = CSVReader.readCSV(COURSES_CSV);
-        
-        for (Map<String, String> row : courseData) {
-            String courseId = row.get("CourseID");
-            String courseName = row.get("CourseName");
-            int credits = CSVReader.parseInt(row.get("Credits"), 3);
-            String semester = row.get("Semester");
-            String instructor = row.get("Instructor");
-            int examWeight = CSVReader.parseInt(row.get("ExamWeight"), 60);
-            int assignmentWeight = CSVReader.parseInt(row.get("AssignmentWeight"), 40);
-            
-            Course course = new Course(courseId, courseName, credits, semester, 
-                                      instructor, examWeight, assignmentWeight);
-            coursesMap.put(courseId, course);
+    private void reportBindingProblems(RowBinder<?> binder) {
+        if (!binder.getMissingColumns().isEmpty()) {
+            System.out.println("  ⚠ Missing columns: " + binder.getMissingColumns());
         }
-        
-        System.out.println("✓ Loaded " + coursesMap.size() + " courses");
-    }
-    
-    /**
-     * Load students from CSV file
-     */
-    private void loadStudentsFromCSV() {
-        System.out.println("\n👥 Loading students from CSV...");
-        
-        List<Map<String, String>> studentData = CSVReader.readCSV(STUDENTS_CSV);
-        
-        for (Map<String, String> row : studentData) {
-            String studentId = row.get("StudentID");
-            String firstName = row.get("FirstName");
-            String lastName = row.get("LastName");
-            String major = row.get("Major");
-            String year = row.get("Year");
-            String email = row.get("Email");
-            
-            Student student = new Student(studentId, firstName, lastName, 
-                                         major, year, email);
-            studentsList.add(student);
+        if (!binder.getParseErrors().isEmpty()) {
+            System.out.println("  ⚠ Unparseable values (defaults used): " + binder.getParseErrors());
         }
-        
-        System.out.println("✓ Loaded " + studentsList.size() + " students");
     }
     
     /**
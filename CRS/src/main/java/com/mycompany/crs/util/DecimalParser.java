@@ -0,0 +1,97 @@
+package com.mycompany.crs.util;
+
+/**
+ * DecimalParser - Parses decimal numbers straight from a char buffer
+ *
+ * Shared by CSVRow.getDouble and the parallel results loader, so both
+ * accept exactly the same numbers.
+ *
+ * Accepts [+-]digits[.digits][(e|E)[+-]digits]. Values whose digits fit in
+ * 53 bits and whose power of ten is within 1e22 are computed exactly in
+ * place; anything longer is handed to Double.parseDouble only after its
+ * syntax has been checked, so that call cannot throw.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public final class DecimalParser {
+
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private DecimalParser() {
+    }
+
+    /**
+     * Parse chars[start..end) as a double (no surrounding whitespace)
+     *
+     * @return parsed value, or Double.NaN if the text is empty or not a
+     *         number (a valid number never parses to NaN)
+     */
+    public static double parse(char[] chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = (chars[i] == '-');
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean exact = true;
+        boolean any = false;
+        boolean dot = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                any = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) digits++;
+                    if (dot) scale++;
+                } else {
+                    exact = false;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (!any) {
+            return Double.NaN;
+        }
+
+        int exponent = 0;
+        if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = (chars[i] == '-');
+                i++;
+            }
+            int expDigits = 0;
+            for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+                if (exponent < 100000) exponent = exponent * 10 + (chars[i] - '0');
+                expDigits++;
+            }
+            if (expDigits == 0) {
+                return Double.NaN;
+            }
+            if (negativeExponent) exponent = -exponent;
+        }
+        if (i != end) {
+            return Double.NaN;
+        }
+
+        int power = exponent - scale;
+        if (exact && mantissa <= (1L << 53) && power >= -22 && power <= 22) {
+            double value = power >= 0 ? mantissa * POW10[power] : mantissa / POW10[-power];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(chars, start, end - start));
+    }
+}
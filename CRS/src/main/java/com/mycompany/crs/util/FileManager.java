@@ -1,10 +1,22 @@
 package com.mycompany.crs.util;
 
 import com.mycompany.crs.model.Student;
+import com.mycompany.crs.model.StudentSummary;
 import com.mycompany.crs.model.Enrollment;
+import com.mycompany.crs.store.EnrollmentStore;
+import com.mycompany.crs.store.Mutation;
+import com.mycompany.crs.store.StudentConflictException;
+import com.mycompany.crs.store.StudentStore;
+import com.mycompany.crs.store.StudentStores;
+import com.mycompany.crs.store.WriteBehind;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * FileManager - Handles binary file I/O operations
@@ -16,14 +28,18 @@ import java.util.List;
  * 
  * As per requirement: "Use text or binary files for data access and manipulation only"
  * 
+ * Students are kept in a StudentStore (engine chosen with -Dcrs.store, see
+ * StudentStores), so updating one student no longer rewrites all of them.
+ * Saves go through a write-behind buffer: they are logged to disk (see
+ * MutationLog) and return before the stores are written; flush() waits
+ * for the stores.
+ * 
  * @author YourName
- * @version 1.0
+ * @version 1.4
  */
 public class FileManager {
     
-    // Binary file paths
-    private static final String STUDENTS_FILE = "data/students.dat";
-    private static final String ENROLLMENTS_FILE = "data/enrollments.dat";
+    // Directory holding the binary files
     private static final String DATA_DIR = "data";
     
     /**
@@ -43,10 +59,9 @@ public class FileManager {
      * @return true if successful
      */
     public boolean saveStudents(List<Student> students) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(STUDENTS_FILE))) {
-            oos.writeObject(students);
-            System.out.println("✓ Students saved successfully to " + STUDENTS_FILE);
+        try {
+            store().replaceAll(students);
+            System.out.println("✓ Students saved successfully (" + students.size() + ")");
             return true;
         } catch (IOException e) {
             System.err.println("✗ Error saving students: " + e.getMessage());
@@ -55,17 +70,27 @@ public class FileManager {
         }
     }
     
+    /**
+     * @return true if student data has been saved before
+     *         (otherwise loadStudents() builds it from the CSV files)
+     */
+    public boolean hasStudentData() {
+        try {
+            return store().exists();
+        } catch (IOException e) {
+            System.err.println("✗ Error opening student data: " + e.getMessage());
+            return false;
+        }
+    }
+    
     /**
      * Load students from binary file
      * 
      * @return List of students
      */
-    @SuppressWarnings("unchecked")
     public List<Student> loadStudents() {
-        File file = new File(STUDENTS_FILE);
-        
-        // If file doesn't exist, create initial data
-        if (!file.exists()) {
+        // If nothing is stored yet, create initial data
+        if (!hasStudentData()) {
             System.out.println("ℹ No existing student data. Creating initial data...");
             DataInitializer initializer = new DataInitializer();
             List<Student> students = initializer.getStudents();
@@ -73,18 +98,128 @@ public class FileManager {
             return students;
         }
         
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(STUDENTS_FILE))) {
-            List<Student> students = (List<Student>) ois.readObject();
+        try {
+            List<Student> students = store().loadAll();
             System.out.println("✓ Loaded " + students.size() + " students from file");
             return students;
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException e) {
             System.err.println("✗ Error loading students: " + e.getMessage());
             e.printStackTrace();
             return new ArrayList<>();
         }
     }
     
+    /**
+     * Load one student without reading the others
+     * 
+     * @param studentId Student ID
+     * @return Student, or null if not found
+     */
+    public Student loadStudent(String studentId) {
+        Student[] found = {null};
+        loadStudent(studentId, student -> found[0] = student);
+        return found[0];
+    }
+    
+    /**
+     * Load one student, telling a missing student from a failed read
+     * 
+     * @param studentId Student ID
+     * @param action Called with the student if it is stored
+     * @return false if the student could not be read
+     */
+    public boolean loadStudent(String studentId, Consumer<Student> action) {
+        if (!hasStudentData()) {
+            loadStudents(); // creates the initial data
+        }
+        try {
+            Student student = store().get(studentId);
+            if (student != null) {
+                action.accept(student);
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("✗ Error loading student " + studentId + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Pass every student to an action, one at a time, instead of loading
+     * the whole list (the btree engine keeps memory use flat)
+     * 
+     * @param action Called once per student; must not save students
+     * @return true if successful
+     */
+    public boolean forEachStudent(Consumer<Student> action) {
+        if (!hasStudentData()) {
+            loadStudents(); // creates the initial data
+        }
+        try {
+            store().forEach(action);
+            return true;
+        } catch (IOException e) {
+            System.err.println("✗ Error loading students: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Pass a summary of every student (no course list) to an action, for
+     * list screens; load the full student with loadStudent() when its
+     * courses are needed
+     * 
+     * @param action Called once per student
+     * @return true if successful
+     */
+    public boolean forEachStudentSummary(Consumer<StudentSummary> action) {
+        if (!hasStudentData()) {
+            loadStudents(); // creates the initial data
+        }
+        try {
+            store().forEachSummary(action);
+            return true;
+        } catch (IOException e) {
+            System.err.println("✗ Error loading students: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Load the students whose ID starts with a prefix
+     * 
+     * @param prefix ID prefix
+     * @return List of students
+     */
+    public List<Student> findStudentsByIdPrefix(String prefix) {
+        if (!hasStudentData()) {
+            loadStudents(); // creates the initial data
+        }
+        try {
+            return store().findByIdPrefix(prefix);
+        } catch (IOException e) {
+            System.err.println("✗ Error loading students: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Save students whose eligibility was recomputed, as one change
+     * 
+     * @param students Students to save (must already exist)
+     * @return true if successful
+     */
+    public boolean saveRefreshedEligibility(Collection<Student> students) {
+        try {
+            commit(Mutation.ELIGIBILITY_REFRESHED, students, Collections.emptyList());
+            return true;
+        } catch (IOException e) {
+            System.err.println("✗ Error saving students: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
     /**
      * Save enrollments to binary file
      * 
@@ -92,9 +227,8 @@ public class FileManager {
      * @return true if successful
      */
     public boolean saveEnrollments(List<Enrollment> enrollments) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(ENROLLMENTS_FILE))) {
-            oos.writeObject(enrollments);
+        try {
+            enrollmentStore().replaceAll(enrollments);
             System.out.println("✓ Enrollments saved successfully");
             return true;
         } catch (IOException e) {
@@ -109,68 +243,226 @@ public class FileManager {
      * 
      * @return List of enrollments
      */
-    @SuppressWarnings("unchecked")
     public List<Enrollment> loadEnrollments() {
-        File file = new File(ENROLLMENTS_FILE);
-        
-        if (!file.exists()) {
-            System.out.println("ℹ No existing enrollment records");
-            return new ArrayList<>();
-        }
-        
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(ENROLLMENTS_FILE))) {
-            List<Enrollment> enrollments = (List<Enrollment>) ois.readObject();
+        try {
+            EnrollmentStore store = enrollmentStore();
+            if (!store.exists()) {
+                System.out.println("ℹ No existing enrollment records");
+                return new ArrayList<>();
+            }
+            List<Enrollment> enrollments = store.loadAll();
             System.out.println("✓ Loaded " + enrollments.size() + " enrollment records");
             return enrollments;
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException e) {
             System.err.println("✗ Error loading enrollments: " + e.getMessage());
             e.printStackTrace();
             return new ArrayList<>();
         }
     }
     
+    /**
+     * Load the enrollments of one student (read through the student index)
+     * 
+     * @param studentId Student ID
+     * @return List of enrollments
+     */
+    public List<Enrollment> loadEnrollments(String studentId) {
+        try {
+            return enrollmentStore().findByStudent(studentId);
+        } catch (IOException e) {
+            System.err.println("✗ Error loading enrollments of " + studentId + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Save a processed enrollment and the student's new status as one change
+     * (without write-behind: see commit())
+     * 
+     * @param student Student with the updated status
+     * @param enrollment New enrollment
+     * @return true if successful
+     * @throws StudentConflictException if another process saved the student
+     *         since it was loaded (shared store); nothing was saved
+     */
+    public boolean recordEnrollment(Student student, Enrollment enrollment)
+            throws StudentConflictException {
+        try {
+            commit(Mutation.ENROLLMENT_PROCESSED, Collections.singletonList(student),
+                   Collections.singletonList(enrollment));
+            System.out.println("✓ Enrollment saved successfully");
+            return true;
+        } catch (StudentConflictException e) {
+            throw e;
+        } catch (IOException e) {
+            System.err.println("✗ Error saving enrollment: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * Save the enrollments of several students and their new statuses as
+     * one change (one logged record, one write of each store; without
+     * write-behind: see commit())
+     * 
+     * @param students Students with the updated status
+     * @param enrollments Their new enrollments
+     * @return true if successful
+     * @throws StudentConflictException if another process saved one of the
+     *         students since it was loaded (shared store). The file engine
+     *         then saved nothing; the shard engine may have saved the
+     *         students of other shards (their version changed), but none
+     *         of the enrollments
+     */
+    public boolean recordEnrollments(Collection<Student> students, Collection<Enrollment> enrollments)
+            throws StudentConflictException {
+        try {
+            commit(Mutation.ENROLLMENTS_PROCESSED, students, enrollments);
+            System.out.println("✓ " + enrollments.size() + " enrollments saved successfully");
+            return true;
+        } catch (StudentConflictException e) {
+            throw e;
+        } catch (IOException e) {
+            System.err.println("✗ Error saving enrollments: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * Add enrollment records without rewriting the others
+     * 
+     * @param enrollments New enrollments
+     * @return true if successful
+     */
+    public boolean appendEnrollments(Collection<Enrollment> enrollments) {
+        try {
+            enrollmentStore().appendAll(enrollments);
+            return true;
+        } catch (IOException e) {
+            System.err.println("✗ Error saving enrollments: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * Add one enrollment record without rewriting the others
+     * 
+     * @param enrollment New enrollment
+     * @return true if successful
+     */
+    public boolean appendEnrollment(Enrollment enrollment) {
+        try {
+            enrollmentStore().append(enrollment);
+            System.out.println("✓ Enrollment saved successfully");
+            return true;
+        } catch (IOException e) {
+            System.err.println("✗ Error saving enrollment: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * Reserve the next enrollment number of a student
+     * 
+     * @param studentId Student ID
+     * @return Sequence number (1 for the first enrollment), or -1 on error
+     */
+    public int nextEnrollmentSequence(String studentId) {
+        try {
+            return enrollmentStore().nextSequence(studentId);
+        } catch (IOException e) {
+            System.err.println("✗ Error reading enrollments of " + studentId + ": " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    /**
+     * Reserve the next enrollment number of several students at once
+     * 
+     * @param studentIds Student IDs
+     * @return Sequence number of each student, or an empty map on error
+     */
+    public Map<String, Integer> nextEnrollmentSequences(Collection<String> studentIds) {
+        try {
+            return enrollmentStore().nextSequences(studentIds);
+        } catch (IOException e) {
+            System.err.println("✗ Error reading enrollments: " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+    
+    /**
+     * Write any saves still held by the write-behind buffer to disk
+     * 
+     * @return true if successful
+     */
+    public boolean flush() {
+        try {
+            WriteBehind writeBehind = StudentStores.writeBehind(DATA_DIR);
+            if (writeBehind != null) {
+                writeBehind.flush();
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("✗ Error writing pending changes: " + e.getMessage());
+            return false;
+        }
+    }
+    
     /**
      * Update a specific student in the file
      * 
      * @param updatedStudent Student to update
      * @return true if successful
+     * @throws StudentConflictException if another process saved the student
+     *         since it was loaded (shared store); reload it and try again
      */
-    public boolean updateStudent(Student updatedStudent) {
-        List<Student> students = loadStudents();
-        boolean found = false;
-        
-        for (int i = 0; i < students.size(); i++) {
-            if (students.get(i).getStudentId().equals(updatedStudent.getStudentId())) {
-                students.set(i, updatedStudent);
-                found = true;
-                break;
-            }
+    public boolean updateStudent(Student updatedStudent) throws StudentConflictException {
+        if (!hasStudentData()) {
+            loadStudents(); // creates the initial data
         }
-        
-        if (found) {
-            return saveStudents(students);
+        try {
+            if (store().get(updatedStudent.getStudentId()) == null) {
+                System.err.println("✗ Student not found: " + updatedStudent.getStudentId());
+                return false;
+            }
+            commit(Mutation.STATUS_CHANGED, Collections.singletonList(updatedStudent),
+                   Collections.emptyList());
+            return true;
+        } catch (StudentConflictException e) {
+            throw e;
+        } catch (IOException e) {
+            System.err.println("✗ Error saving student: " + e.getMessage());
+            e.printStackTrace();
+            return false;
         }
-        
-        System.err.println("✗ Student not found: " + updatedStudent.getStudentId());
-        return false;
     }
     
     /**
      * Reset all data - for testing purposes
      */
     public void resetAllData() {
-        File studentsFile = new File(STUDENTS_FILE);
-        File enrollmentsFile = new File(ENROLLMENTS_FILE);
-        
-        if (studentsFile.exists()) {
-            studentsFile.delete();
-            System.out.println("✓ Deleted old student data");
+        if (hasStudentData()) {
+            try {
+                store().clear();
+                System.out.println("✓ Deleted old student data");
+            } catch (IOException e) {
+                System.err.println("✗ Error deleting student data: " + e.getMessage());
+            }
         }
         
-        if (enrollmentsFile.exists()) {
-            enrollmentsFile.delete();
-            System.out.println("✓ Deleted old enrollment data");
+        try {
+            EnrollmentStore enrollments = enrollmentStore();
+            if (enrollments.exists()) {
+                enrollments.clear();
+                System.out.println("✓ Deleted old enrollment data");
+            }
+        } catch (IOException e) {
+            System.err.println("✗ Error deleting enrollment data: " + e.getMessage());
         }
         
         // Recreate fresh data
@@ -178,4 +470,65 @@ public class FileManager {
         saveStudents(initializer.getStudents());
         System.out.println("✓ Fresh data created");
     }
+    
+    // Through the write-behind buffer (one logged record) when it is on,
+    // else straight to the stores. Those are two separate writes, students
+    // first: if the enrollments then fail, the students' previous records
+    // are put back (students that did not exist before stay saved) and the
+    // error is rethrown, so the change is all or nothing as far as the
+    // stores allow.
+    private void commit(Mutation mutation, Collection<Student> students,
+                        Collection<Enrollment> enrollments) throws IOException {
+        WriteBehind writeBehind = StudentStores.writeBehind(DATA_DIR);
+        if (writeBehind != null) {
+            writeBehind.commit(mutation, students, enrollments);
+            return;
+        }
+        StudentStore store = store();
+        if (enrollments.isEmpty()) {
+            if (!students.isEmpty()) {
+                store.putAll(students);
+            }
+            return;
+        }
+
+        Map<String, Student> saved = new HashMap<>();
+        List<Student> previous = new ArrayList<>(students.size());
+        for (Student student : students) {
+            saved.put(student.getStudentId(), student);
+            Student stored = store.get(student.getStudentId());
+            if (stored != null) {
+                previous.add(stored);
+            }
+        }
+        if (!students.isEmpty()) {
+            store.putAll(students);
+        }
+        try {
+            enrollmentStore().appendAll(enrollments);
+        } catch (IOException | RuntimeException e) {
+            try {
+                // Stamped with the version just saved, which they replace
+                for (Student p : previous) {
+                    p.setVersion(saved.get(p.getStudentId()).getVersion());
+                }
+                store.putAll(previous);
+                // The callers' copies now match the stored ones' versions
+                for (Student p : previous) {
+                    saved.get(p.getStudentId()).setVersion(p.getVersion());
+                }
+            } catch (IOException | RuntimeException undo) {
+                e.addSuppressed(undo);
+            }
+            throw e;
+        }
+    }
+    
+    private StudentStore store() throws IOException {
+        return StudentStores.students(DATA_DIR);
+    }
+    
+    private EnrollmentStore enrollmentStore() throws IOException {
+        return StudentStores.enrollments(DATA_DIR);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.mycompany.crs.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * IngestPipeline - Reads each CSV source once for every model that needs it
+ *
+ * Loaders register a RowVisitor (sink) per source file instead of opening
+ * the file themselves. run() then parses each distinct file a single time
+ * and hands every record to all sinks registered for it, so e.g. the report
+ * model (crs.model) and the eligibility model (com.mycompany.crs.model) can
+ * be filled from one read of the student and course files.
+ *
+ * A sink may come with a RowCheck. Checks for a source are combined: a
+ * record rejected by any of them is quarantined once (see IngestReport) and
+ * reaches no sink, so every model built from the pass sees the same rows.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public class IngestPipeline {
+
+    /**
+     * Validates a record before it reaches the sinks
+     */
+    @FunctionalInterface
+    public interface RowCheck {
+        /**
+         * @return reject reason (e.g. IngestReport.WRONG_COLUMN_COUNT),
+         *         or null if the record is acceptable
+         */
+        String check(CSVRow row);
+    }
+
+    private static final class Source implements RowCheck, RowVisitor {
+        final String path;
+        final List<RowCheck> checks = new ArrayList<>();
+        final List<RowVisitor> sinks = new ArrayList<>();
+
+        Source(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public String check(CSVRow row) {
+            for (RowCheck c : checks) {
+                String reason = c.check(row);
+                if (reason != null) {
+                    return reason;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void headers(String[] headers) {
+            for (RowVisitor sink : sinks) {
+                sink.headers(headers);
+            }
+        }
+
+        @Override
+        public void visit(CSVRow row) {
+            for (RowVisitor sink : sinks) {
+                sink.visit(row);
+            }
+        }
+    }
+
+    private final Map<Path, Source> sources = new LinkedHashMap<>();
+    private final List<Runnable> completions = new ArrayList<>();
+    private final Map<String, IngestReport> reports = new LinkedHashMap<>();
+
+    // ==========================================================
+    // Registration
+    // ==========================================================
+
+    /**
+     * Register a sink for a source file
+     *
+     * @param path Path to the CSV file
+     * @param sink Receives the headers, then every accepted record
+     * @return this pipeline
+     */
+    public IngestPipeline add(String path, RowVisitor sink) {
+        return add(path, null, sink);
+    }
+
+    /**
+     * Register a sink for a source file, with a check its records must pass
+     *
+     * @param path Path to the CSV file
+     * @param check Record validation (null for none)
+     * @param sink Receives the headers, then every accepted record
+     * @return this pipeline
+     */
+    public IngestPipeline add(String path, RowCheck check, RowVisitor sink) {
+        Source source = sources.computeIfAbsent(key(path), k -> new Source(path));
+        if (check != null) {
+            source.checks.add(check);
+        }
+        source.sinks.add(sink);
+        return this;
+    }
+
+    /**
+     * Run an action once every source has been read (e.g. post-processing
+     * that needs both students and courses)
+     *
+     * @return this pipeline
+     */
+    public IngestPipeline onComplete(Runnable action) {
+        completions.add(action);
+        return this;
+    }
+
+    /**
+     * @return true if no sink has been registered
+     */
+    public boolean isEmpty() {
+        return sources.isEmpty();
+    }
+
+    // ==========================================================
+    // Running
+    // ==========================================================
+
+    /**
+     * Read every registered source once, in registration order, then run
+     * the completion actions. Registrations are consumed, so a pipeline
+     * can be reused for a later, separate pass.
+     *
+     * @return report per source path (as first registered)
+     */
+    public Map<String, IngestReport> run() {
+        List<Source> pending = new ArrayList<>(sources.values());
+        List<Runnable> actions = new ArrayList<>(completions);
+        sources.clear();
+        completions.clear();
+
+        for (Source source : pending) {
+            IngestReport report = new IngestReport(source.path);
+            read(source.path, source.checks.isEmpty() ? null : source, source, report);
+            reports.put(source.path, report.finish());
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+        return new LinkedHashMap<>(reports);
+    }
+
+    /**
+     * @param path Source path as registered
+     * @return report of the last run that read it, or null
+     */
+    public IngestReport getReport(String path) {
+        return reports.get(path);
+    }
+
+    /**
+     * One pass over one file: records failing the check are rejected in
+     * the report, the rest go to the sink. Nothing is printed per record;
+     * an I/O error is recorded with report.fail() and printed once.
+     *
+     * @param path Path to the CSV file (plain or compressed)
+     * @param check Record validation (null for none)
+     * @param sink Receives the headers, then every accepted record
+     * @param report Counters for this pass (not finished here)
+     * @return number of records passed to the sink
+     */
+    public static int read(String path, RowCheck check, RowVisitor sink, IngestReport report) {
+        int count = 0;
+
+        try (CSVParser parser = CSVParser.open(path)) {
+            sink.headers(parser.getHeaders());
+
+            CSVRow row;
+            while ((row = parser.next()) != null) {
+                String reason = check == null ? null : check.check(row);
+                if (reason != null) {
+                    report.reject(reason, row);
+                    continue;
+                }
+                sink.visit(row);
+                report.accept();
+                count++;
+            }
+
+        } catch (IOException e) {
+            report.fail(e.toString());
+            System.err.println("✗ Error reading CSV file: " + path + " (" + e.getMessage() + ")");
+        }
+
+        return count;
+    }
+
+    // The same file registered under different spellings is read once
+    private static Path key(String path) {
+        Path p = Paths.get(path).toAbsolutePath().normalize();
+        try {
+            return p.toRealPath();
+        } catch (IOException e) {
+            return p; // missing file: read() reports it
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.mycompany.crs.util;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * IngestReport - Counters and quarantine for one pass over a source file
+ *
+ * Loaders count every record they read and either accept() it or reject()
+ * it with a short reason. Rejected records are written, with their line
+ * number and reason, to a quarantine file instead of the console:
+ *
+ *   data/quarantine/&lt;source file name&gt;.rejected.csv
+ *
+ * The directory can be changed with -Dcrs.ingest.quarantineDir. The file is
+ * only created when something is rejected, and is replaced (or removed)
+ * by the next non-appending report for the same source. It is a CSV file
+ * (Line,Reason,Record) whose Record column holds the source line exactly
+ * as it was read, quoted, so it can be fixed and fed back in. A report
+ * prints nothing by itself; callers print toString() once per file if
+ * they want a summary.
+ *
+ * @author YourName
+ * @version 1.1
+ */
+public class IngestReport implements Closeable {
+
+    /** Record has fewer (or more) fields than the loader needs */
+    public static final String WRONG_COLUMN_COUNT = "wrong column count";
+    /** A numeric field could not be parsed */
+    public static final String BAD_NUMBER = "bad number";
+
+    private final String source;
+    private final boolean appendQuarantine;
+    private final long startNanos = System.nanoTime();
+    private long endNanos;
+    private long bytes;
+
+    private long rowsRead;
+    private long accepted;
+    private final Map<String, Long> rejected = new LinkedHashMap<>();
+
+    private Path quarantineFile;
+    private BufferedWriter quarantine;
+    private String error;
+
+    /**
+     * Report for reading a whole file; the quarantine file is replaced
+     *
+     * @param source Path of the file being read
+     */
+    public IngestReport(String source) {
+        this(source, false);
+    }
+
+    /**
+     * @param source Path of the file being read
+     * @param appendQuarantine true to add to an existing quarantine file
+     *        (e.g. when only the new tail of a file is read)
+     */
+    public IngestReport(String source, boolean appendQuarantine) {
+        this.source = source;
+        this.appendQuarantine = appendQuarantine;
+        this.bytes = new File(source).length();
+    }
+
+    // ==========================================================
+    // Counting
+    // ==========================================================
+
+    /**
+     * Set how many input bytes this pass covers (defaults to the file size)
+     */
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Count one record that was turned into a model object
+     */
+    public void accept() {
+        rowsRead++;
+        accepted++;
+    }
+
+    /**
+     * Count one record that was skipped and quarantine it
+     *
+     * @param reason Short, fixed reason (e.g. WRONG_COLUMN_COUNT)
+     * @param row The rejected record
+     */
+    public void reject(String reason, CSVRow row) {
+        reject(reason, row.getLineNumber(), row.getSourceText());
+    }
+
+    /**
+     * Count one record that was skipped and quarantine it
+     *
+     * @param reason Short, fixed reason (e.g. WRONG_COLUMN_COUNT)
+     * @param lineNumber 1-based line number in the source
+     * @param text Record text as it was in the source
+     */
+    public void reject(String reason, long lineNumber, String text) {
+        rowsRead++;
+        rejected.merge(reason, 1L, Long::sum);
+        if (quarantineFile == null && error == null) {
+            openQuarantine();
+        }
+        if (quarantine != null) {
+            try {
+                quarantine.write(Long.toString(lineNumber));
+                quarantine.write(',');
+                writeField(reason);
+                quarantine.write(',');
+                writeField(text);
+                quarantine.newLine();
+            } catch (IOException e) {
+                fail("quarantine not written: " + e.getMessage());
+                closeQuarantine();
+            }
+        }
+    }
+
+    /**
+     * Record that the pass stopped early (I/O error, unreadable file)
+     */
+    public void fail(String message) {
+        if (error == null) {
+            error = message;
+        }
+    }
+
+    /**
+     * Stop the clock and close the quarantine file
+     *
+     * @return this report
+     */
+    public IngestReport finish() {
+        if (endNanos == 0) {
+            endNanos = System.nanoTime();
+            if (quarantineFile == null && !appendQuarantine) {
+                try {
+                    Files.deleteIfExists(quarantinePath()); // left over from an earlier run
+                } catch (IOException e) {
+                    fail("stale quarantine not removed: " + e.getMessage());
+                }
+            }
+        }
+        closeQuarantine();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        finish();
+    }
+
+    // ==========================================================
+    // Results
+    // ==========================================================
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        return rowsRead - accepted;
+    }
+
+    /**
+     * @return reason to number of rejected records, in first-seen order
+     */
+    public Map<String, Long> getRejectedByReason() {
+        return new LinkedHashMap<>(rejected);
+    }
+
+    /**
+     * @return quarantine file, or null if nothing was rejected
+     */
+    public Path getQuarantineFile() {
+        return quarantineFile;
+    }
+
+    /**
+     * @return error that stopped the pass, or null
+     */
+    public String getError() {
+        return error;
+    }
+
+    public double getElapsedMillis() {
+        return ((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1e6;
+    }
+
+    public double getBytesPerSecond() {
+        double seconds = getElapsedMillis() / 1000.0;
+        return seconds > 0 ? bytes / seconds : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(source).append(": ").append(rowsRead).append(" read, ")
+          .append(accepted).append(" accepted, ").append(getRejected()).append(" rejected");
+        if (!rejected.isEmpty()) {
+            sb.append(' ').append(rejected);
+        }
+        sb.append(String.format(", %.1f ms, %.1f MB/s", getElapsedMillis(), getBytesPerSecond() / (1 << 20)));
+        if (quarantineFile != null) {
+            sb.append(", quarantine: ").append(quarantineFile);
+        }
+        if (error != null) {
+            sb.append(", ERROR: ").append(error);
+        }
+        return sb.toString();
+    }
+
+    // ==========================================================
+    // Quarantine file
+    // ==========================================================
+
+    private void openQuarantine() {
+        try {
+            quarantineFile = quarantinePath();
+            Files.createDirectories(quarantineFile.getParent());
+            boolean header = !appendQuarantine || !Files.exists(quarantineFile);
+            quarantine = Files.newBufferedWriter(quarantineFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    appendQuarantine ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+            if (header) {
+                quarantine.write("Line,Reason,Record");
+                quarantine.newLine();
+            }
+        } catch (IOException e) {
+            quarantineFile = null;
+            fail("quarantine not written: " + e.getMessage());
+        }
+    }
+
+    // A CSV field, quoted (with "" for quotes) unless it is plain text
+    private void writeField(String value) throws IOException {
+        boolean plain = !value.isEmpty() && value.trim().length() == value.length();
+        for (int i = 0; plain && i < value.length(); i++) {
+            char c = value.charAt(i);
+            plain = c != ',' && c != '"' && c != '\t' && c != '\n' && c != '\r';
+        }
+        if (plain) {
+            quarantine.write(value);
+            return;
+        }
+        quarantine.write('"');
+        quarantine.write(value.replace("\"", "\"\""));
+        quarantine.write('"');
+    }
+
+    private Path quarantinePath() {
+        Path dir = Paths.get(System.getProperty("crs.ingest.quarantineDir", "data/quarantine"));
+        return dir.resolve(Paths.get(source).getFileName() + ".rejected.csv");
+    }
+
+    private void closeQuarantine() {
+        if (quarantine != null) {
+            try {
+                quarantine.close();
+            } catch (IOException e) {
+                fail("quarantine not written: " + e.getMessage());
+            }
+            quarantine = null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mycompany.crs.util;
+
+import com.mycompany.crs.model.Course;
+import com.mycompany.crs.model.Student;
+
+/**
+ * ModelBinders - Column-to-constructor bindings for the CSV model files
+ *
+ * Column names and defaults match the data/*.csv headers (and the values
+ * CSVReader.parseInt fell back to before).
+ *
+ * @author YourName
+ * @version 1.1
+ */
+public class ModelBinders {
+
+    private ModelBinders() {
+    }
+
+    /**
+     * Course(CourseID, CourseName, Credits, Semester, Instructor,
+     *        ExamWeight, AssignmentWeight)
+     *
+     * @param strings Pool for the Semester and Instructor columns
+     */
+    public static RowBinder<Course> course(StringPool strings) {
+        return RowBinder.of(Course.class)
+                .text("CourseID")
+                .text("CourseName")
+                .integer("Credits", 3)
+                .pooled("Semester", strings)
+                .pooled("Instructor", strings)
+                .integer("ExamWeight", 60)
+                .integer("AssignmentWeight", 40)
+                .build();
+    }
+
+    /**
+     * Student(StudentID, FirstName, LastName, Major, Year, Email)
+     *
+     * @param strings Pool for the Major and Year columns
+     */
+    public static RowBinder<Student> student(StringPool strings) {
+        return RowBinder.of(Student.class)
+                .text("StudentID")
+                .text("FirstName")
+                .text("LastName")
+                .pooled("Major", strings)
+                .pooled("Year", strings)
+                .text("Email")
+                .build();
+    }
+}
@@ -0,0 +1,264 @@
+package com.mycompany.crs.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * RowBinder - Binds CSV columns to a model constructor
+ *
+ * A binder is declared once as a list of named columns, one per constructor
+ * parameter and in parameter order. build() resolves the matching public
+ * constructor through a MethodHandle; bind() then turns the file's header row
+ * into column indexes, so each record is converted with plain array reads
+ * and no per-field header lookups.
+ *
+ * Int columns are parsed straight from the row buffer (CSVRow.getInt). A
+ * value that is present but not a number gets the column's default and is
+ * counted against that column, without throwing.
+ *
+ * A binder reuses its argument array and is not thread-safe, like the
+ * CSVRow it reads from.
+ *
+ * @author YourName
+ * @version 1.2
+ */
+public final class RowBinder<T> {
+
+    private enum Kind { TEXT, POOLED, INT }
+
+    private final Class<T> type;
+    private final String[] columns;
+    private final Kind[] kinds;
+    private final int[] intDefaults;
+    private final StringPool[] pools;
+    private final MethodHandle constructor; // (Object[])Object
+
+    private final Object[] args;
+    private final int[] indexes;
+    private final int[] errors;
+    private final List<String> missing = new ArrayList<>();
+    private int rows;
+
+    private RowBinder(Builder<T> builder) {
+        int n = builder.columns.size();
+        this.type = builder.type;
+        this.columns = builder.columns.toArray(new String[0]);
+        this.kinds = builder.kinds.toArray(new Kind[0]);
+        this.intDefaults = new int[n];
+        this.pools = new StringPool[n];
+
+        Class<?>[] parameters = new Class<?>[n];
+        for (int i = 0; i < n; i++) {
+            Object extra = builder.extras.get(i);
+            switch (kinds[i]) {
+                case INT:
+                    intDefaults[i] = (Integer) extra;
+                    parameters[i] = int.class;
+                    break;
+                case POOLED:
+                    pools[i] = (StringPool) extra;
+                    parameters[i] = String.class;
+                    break;
+                default:
+                    parameters[i] = String.class;
+            }
+        }
+
+        try {
+            this.constructor = MethodHandles.publicLookup()
+                    .findConstructor(type, MethodType.methodType(void.class, parameters))
+                    .asSpreader(Object[].class, n)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("No public constructor " + type.getSimpleName()
+                    + Arrays.toString(parameters), e);
+        }
+
+        this.args = new Object[n];
+        this.indexes = new int[n];
+        this.errors = new int[n];
+        Arrays.fill(indexes, -1);
+    }
+
+    /**
+     * Start declaring a binder for a model class
+     *
+     * @param type Class whose constructor the columns are bound to
+     * @return builder; add one column per constructor parameter
+     */
+    public static <T> Builder<T> of(Class<T> type) {
+        return new Builder<>(type);
+    }
+
+    // ==========================================================
+    // Binding
+    // ==========================================================
+
+    /**
+     * Resolve the declared columns against a file's header row and reset
+     * the counters. Columns the file does not have get their defaults
+     * (null for text) and are listed by getMissingColumns().
+     *
+     * @param headers Header row of the file about to be read
+     */
+    public void bind(String[] headers) {
+        missing.clear();
+        rows = 0;
+        Arrays.fill(errors, 0);
+        for (int i = 0; i < columns.length; i++) {
+            indexes[i] = CSVReader.columnIndex(headers, columns[i]);
+            if (indexes[i] < 0) {
+                missing.add(columns[i]);
+            }
+        }
+    }
+
+    /**
+     * Build one object from the current row
+     *
+     * @param row Row from the file passed to the last bind()
+     * @return new model object
+     */
+    @SuppressWarnings("unchecked")
+    public T apply(CSVRow row) {
+        for (int i = 0; i < args.length; i++) {
+            int col = indexes[i];
+            switch (kinds[i]) {
+                case POOLED:
+                    args[i] = row.get(col, pools[i]);
+                    break;
+                case INT:
+                    args[i] = row.getInt(col, intDefaults[i]);
+                    if (row.lastParseFailed()) errors[i]++;
+                    break;
+                default:
+                    args[i] = row.get(col);
+            }
+        }
+        rows++;
+        try {
+            return (T) (Object) constructor.invokeExact(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Cannot create " + type.getSimpleName()
+                    + " from line " + row.getLineNumber(), t);
+        }
+    }
+
+    /**
+     * Adapt this binder to CSVReader.forEachRow: the header row is bound
+     * and each record is converted and passed on.
+     *
+     * @param sink Receives every object built
+     * @return visitor for CSVReader.forEachRow
+     */
+    public RowVisitor into(Consumer<? super T> sink) {
+        return new RowVisitor() {
+            @Override
+            public void headers(String[] headers) {
+                bind(headers);
+            }
+
+            @Override
+            public void visit(CSVRow row) {
+                sink.accept(apply(row));
+            }
+        };
+    }
+
+    // ==========================================================
+    // Error report
+    // ==========================================================
+
+    /**
+     * @return rows converted since the last bind()
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * @return declared columns the bound file does not have
+     */
+    public List<String> getMissingColumns() {
+        return new ArrayList<>(missing);
+    }
+
+    /**
+     * @return column name to number of unparseable values, for columns with errors
+     */
+    public Map<String, Integer> getParseErrors() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            if (errors[i] > 0) {
+                result.put(columns[i], errors[i]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return type.getSimpleName() + " binder: " + rows + " rows, missing columns "
+                + missing + ", parse errors " + getParseErrors();
+    }
+
+    // ==========================================================
+    // Builder
+    // ==========================================================
+
+    /**
+     * Declares the columns of a RowBinder in constructor parameter order
+     */
+    public static final class Builder<T> {
+
+        private final Class<T> type;
+        private final List<String> columns = new ArrayList<>();
+        private final List<Kind> kinds = new ArrayList<>();
+        private final List<Object> extras = new ArrayList<>();
+
+        private Builder(Class<T> type) {
+            this.type = type;
+        }
+
+        private Builder<T> add(String column, Kind kind, Object extra) {
+            columns.add(column);
+            kinds.add(kind);
+            extras.add(extra);
+            return this;
+        }
+
+        /** String parameter, copied from the row */
+        public Builder<T> text(String column) {
+            return add(column, Kind.TEXT, null);
+        }
+
+        /** String parameter shared through a pool (low-cardinality columns) */
+        public Builder<T> pooled(String column, StringPool pool) {
+            return add(column, Kind.POOLED, pool);
+        }
+
+        /** int parameter; empty, missing or bad values give defaultValue */
+        public Builder<T> integer(String column, int defaultValue) {
+            return add(column, Kind.INT, defaultValue);
+        }
+
+        /**
+         * Resolve the constructor
+         *
+         * @throws IllegalArgumentException if the type has no public
+         *         constructor with the declared parameter types
+         */
+        public RowBinder<T> build() {
+            return new RowBinder<>(this);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mycompany.crs.util;
+
+/**
+ * RowVisitor - Push-style callback for streaming CSV ingest
+ *
+ * headers() is called once before the first record so the visitor can
+ * resolve its column indexes; visit() is then called for every record as
+ * it is parsed. The CSVRow passed to visit() is reused for the next record,
+ * so copy out whatever you need before returning.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface RowVisitor {
+
+    /**
+     * Called once with the header row, before any record
+     *
+     * @param headers Column names in file order
+     */
+    default void headers(String[] headers) {
+    }
+
+    /**
+     * Called for each data record
+     *
+     * @param row Current record (only valid during this call)
+     */
+    void visit(CSVRow row);
+}
@@ -0,0 +1,175 @@
+package com.mycompany.crs.util;
+
+/**
+ * StringPool - Ingest-scoped dictionary for low-cardinality column values
+ *
+ * Columns such as Major, Year, Semester, Instructor or Grade only hold a
+ * handful of distinct values, yet every parsed row would otherwise keep its
+ * own String copy. A pool hands back one shared instance per distinct value.
+ * Values looked up straight from a CSVRow buffer are not even allocated
+ * when they are already pooled.
+ *
+ * Not thread-safe: use one pool per loading thread and combine the
+ * statistics with addStatistics() if needed. The pool stops growing after
+ * MAX_ENTRIES distinct values so a mis-tagged high-cardinality column
+ * cannot turn it into a second copy of the data.
+ *
+ * @author YourName
+ * @version 1.0
+ */
+public class StringPool {
+
+    private static final int MAX_ENTRIES = 1 << 16;
+
+    private String[] entries = new String[64];
+    private int[] hashes = new int[64];
+    private int size;
+
+    private long lookups;
+    private long hits;
+    private long bytesSaved;
+
+    /**
+     * Return the pooled instance equal to value
+     *
+     * @param value String to deduplicate (may be null)
+     * @return shared instance, or value itself if it is new
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        lookups++;
+        int hash = value.hashCode();
+        int mask = entries.length - 1;
+        int slot = spread(hash) & mask;
+        for (String e; (e = entries[slot]) != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && e.equals(value)) {
+                return hit(e);
+            }
+        }
+        return insert(value, hash, slot);
+    }
+
+    /**
+     * Pooled lookup on a char range; allocates only for unseen values
+     */
+    String intern(char[] chars, int start, int end) {
+        lookups++;
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int mask = entries.length - 1;
+        int slot = spread(hash) & mask;
+        for (String e; (e = entries[slot]) != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && matches(e, chars, start, end)) {
+                return hit(e);
+            }
+        }
+        return insert(new String(chars, start, end - start), hash, slot);
+    }
+
+    /**
+     * Fold another pool's counters into this one (e.g. per-thread pools)
+     */
+    public void addStatistics(StringPool other) {
+        lookups += other.lookups;
+        hits += other.hits;
+        bytesSaved += other.bytesSaved;
+    }
+
+    public int getDistinctCount() {
+        return size;
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Estimated heap bytes not retained thanks to pooling: one String
+     * object plus its value array for every hit (64-bit JVM, compressed
+     * oops, compact strings).
+     */
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d distinct, %d/%d hits, ~%.1f KB saved",
+                size, hits, lookups, bytesSaved / 1024.0);
+    }
+
+    // ==========================================================
+    // Table management
+    // ==========================================================
+
+    private String hit(String pooled) {
+        hits++;
+        bytesSaved += retainedSize(pooled);
+        return pooled;
+    }
+
+    private String insert(String value, int hash, int slot) {
+        if (size >= MAX_ENTRIES) {
+            return value;
+        }
+        entries[slot] = value;
+        hashes[slot] = hash;
+        if (++size * 2 > entries.length) {
+            rehash();
+        }
+        return value;
+    }
+
+    private void rehash() {
+        String[] oldEntries = entries;
+        int[] oldHashes = hashes;
+        entries = new String[oldEntries.length * 2];
+        hashes = new int[oldEntries.length * 2];
+        int mask = entries.length - 1;
+        for (int i = 0; i < oldEntries.length; i++) {
+            if (oldEntries[i] == null) continue;
+            int slot = spread(oldHashes[i]) & mask;
+            while (entries[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            entries[slot] = oldEntries[i];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String s, char[] chars, int start, int end) {
+        if (s.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i - start) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long retainedSize(String s) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        long array = (16 + (long) s.length() * bytesPerChar + 7) & ~7L;
+        return 24 + array;
+    }
+}
@@ -1,89 +1,179 @@
 package crs.file;
 
+import com.mycompany.crs.util.CSVParser;
+import com.mycompany.crs.util.CSVRow;
+import com.mycompany.crs.util.IngestPipeline;
+import com.mycompany.crs.util.IngestReport;
+import com.mycompany.crs.util.RowVisitor;
+import com.mycompany.crs.util.StringPool;
 import crs.model.*;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class DataLoader {
 
+    private static final String CACHE_FILE = "data/parsed_data.cache";
+
+    // Results tailers created by loadAll, by results file path
+    private static final Map<String, ResultsTailer> tailers = new HashMap<>();
+
     // ==========================================================
-    // LOAD STUDENTS (CSV)
+    // LOAD EVERYTHING (cached)
+    // ----------------------------------------------------------
+    // Students, courses (into CourseRegistry) and results in one call.
+    // Reuses the binary snapshot from the last run when none of the three
+    // files has changed; otherwise parses them and refreshes the snapshot.
+    // Results are loaded through a ResultsTailer (see tailer()), so rows
+    // appended later can be picked up without reloading everything.
     // ==========================================================
-    public static List<Student> loadStudents(String path) {
-        List<Student> students = new ArrayList<>();
-
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line = br.readLine(); // Skip header
+    public static List<Student> loadAll(String studentsPath, String coursesPath, String resultsPath) {
+        return loadAll(studentsPath, coursesPath, resultsPath, new IngestPipeline());
+    }
 
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
+    // Same, with other models' sinks already registered on the pipeline
+    // (e.g. a DataInitializer for the same student / course files). The
+    // student and course files are then read once for all of them; on a
+    // cache hit they are only read if such sinks exist.
+    public static List<Student> loadAll(String studentsPath, String coursesPath, String resultsPath,
+                                        IngestPipeline pipeline) {
+        long start = System.nanoTime();
 
-                String[] p = line.split(",");
+        ParsedDataCache cache = null;
+        try {
+            cache = new ParsedDataCache(CACHE_FILE, studentsPath, coursesPath, resultsPath);
+            ParsedDataCache.Snapshot snapshot = cache.read();
+            if (snapshot != null) {
+                for (Course c : snapshot.courses) CourseRegistry.addCourse(c);
+                tailers.put(resultsPath,
+                        new ResultsTailer(resultsPath, snapshot.students, snapshot.resultsOffset));
+                if (!pipeline.isEmpty()) pipeline.run();
+                System.out.printf("[DataLoader] Startup (warm, from cache): %d students in %.1f ms%n",
+                        snapshot.students.size(), (System.nanoTime() - start) / 1e6);
+                return snapshot.students;
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Data cache unavailable: " + e.getMessage());
+        }
 
-                if (p.length != 6) {
-                    System.out.println("Skipping line (columns = " + p.length + "): " + line);
-                    continue;
-                }
+        List<Student> students = new ArrayList<>();
+        List<Course> courses = new ArrayList<>();
+        StringPool strings = new StringPool();
+        pipeline.add(studentsPath, STUDENT_ROW, studentRows(students::add, strings));
+        pipeline.add(coursesPath, COURSE_ROW, courseRows(c -> {
+            courses.add(c);
+            CourseRegistry.addCourse(c);
+        }, strings));
+        Map<String, IngestReport> reports = pipeline.run();
+        System.out.println("[DataLoader] Students: " + reports.get(studentsPath));
+        System.out.println("[DataLoader] Courses: " + reports.get(coursesPath));
+        System.out.println("[DataLoader] Pooled strings: " + strings);
 
-                Student s = new Student(
-                        p[0].trim(), // ID
-                        p[1].trim(), // First Name
-                        p[2].trim(), // Last Name
-                        p[3].trim(), // Major
-                        p[4].trim(), // Year
-                        p[5].trim()  // Email
-                );
+        ResultsTailer tailer = new ResultsTailer(resultsPath, students);
+        tailer.refresh();
+        IngestReport resultsReport = tailer.getLastReport();
+        System.out.println("[DataLoader] Course Results: "
+                + (resultsReport != null ? resultsReport : resultsPath + ": nothing to load"));
+        tailers.put(resultsPath, tailer);
 
-                students.add(s);
+        if (cache != null) {
+            try {
+                cache.write(students, courses, tailer.getOffset());
+            } catch (IOException e) {
+                System.err.println("❌ Could not write data cache: " + e.getMessage());
             }
+        }
 
-            System.out.println("[DataLoader] Loaded Students: " + students.size());
+        System.out.printf("[DataLoader] Startup (cold, parsed CSV): %d students in %.1f ms%n",
+                students.size(), (System.nanoTime() - start) / 1e6);
+        return students;
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Error loading students from: " + path);
-            e.printStackTrace();
-        }
+    // Tailer for a results file loaded by loadAll (null if none)
+    public static ResultsTailer tailer(String resultsPath) {
+        return tailers.get(resultsPath);
+    }
 
+    // ==========================================================
+    // LOAD STUDENTS (CSV)
+    // ----------------------------------------------------------
+    // Malformed rows are counted in the IngestReport and written to its
+    // quarantine file; nothing is printed per row.
+    // ==========================================================
+    public static List<Student> loadStudents(String path) {
+        List<Student> students = new ArrayList<>();
+        StringPool strings = new StringPool();
+        IngestReport report = new IngestReport(path);
+        loadStudents(path, students::add, strings, report);
+        System.out.println("[DataLoader] Students: " + report.finish());
+        System.out.println("[DataLoader] Pooled strings: " + strings);
         return students;
     }
 
+    // Streaming form: each Student is handed to the sink as its line is parsed.
+    // Major and Year go through the (ingest-scoped) string pool.
+    public static int loadStudents(String path, Consumer<Student> sink, StringPool strings,
+                                   IngestReport report) {
+        return IngestPipeline.read(path, STUDENT_ROW, studentRows(sink, strings), report);
+    }
+
+    private static final IngestPipeline.RowCheck STUDENT_ROW =
+            p -> p.size() != 6 ? IngestReport.WRONG_COLUMN_COUNT : null;
+
+    // Pipeline sink building a Student from each (checked) row
+    public static RowVisitor studentRows(Consumer<Student> sink, StringPool strings) {
+        return p -> sink.accept(new Student(
+                p.get(0), // ID
+                p.get(1), // First Name
+                p.get(2), // Last Name
+                p.get(3, strings), // Major
+                p.get(4, strings), // Year
+                p.get(5)  // Email
+        ));
+    }
+
     // ==========================================================
     // LOAD COURSES (CSV)
     // ==========================================================
     public static void loadCourses(String path) {
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line = br.readLine(); // Skip header
-
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-
-                String[] p = line.split(",");
-
-                if (p.length < 7) {
-                    System.out.println("Skipping course line: " + line);
-                    continue;
-                }
-
-                Course c = new Course(
-                        p[0].trim(),               // course ID
-                        p[1].trim(),               // course name
-                        Integer.parseInt(p[2].trim()), // credit hours
-                        p[3].trim(),               // type
-                        p[4].trim(),               // department
-                        Integer.parseInt(p[5].trim()), // min score
-                        Integer.parseInt(p[6].trim())  // max score
-                );
-
-                CourseRegistry.addCourse(c);
-            }
+        StringPool strings = new StringPool();
+        IngestReport report = new IngestReport(path);
+        loadCourses(path, CourseRegistry::addCourse, strings, report);
+        System.out.println("[DataLoader] Courses: " + report.finish());
+        System.out.println("[DataLoader] Pooled strings: " + strings);
+    }
 
-            System.out.println("[DataLoader] Loaded Courses: " + CourseRegistry.getAllCourses().size());
+    // Streaming form: each Course is handed to the sink as its line is parsed.
+    // Type and Department go through the (ingest-scoped) string pool.
+    public static int loadCourses(String path, Consumer<Course> sink, StringPool strings,
+                                  IngestReport report) {
+        return IngestPipeline.read(path, COURSE_ROW, courseRows(sink, strings), report);
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Error loading courses from: " + path);
-            e.printStackTrace();
-        }
+    private static final IngestPipeline.RowCheck COURSE_ROW = p -> {
+        if (p.size() < 7) return IngestReport.WRONG_COLUMN_COUNT;
+        if (!isInt(p, 2) || !isInt(p, 5) || !isInt(p, 6)) return IngestReport.BAD_NUMBER;
+        return null;
+    };
+
+    // Pipeline sink building a Course from each (checked) row
+    public static RowVisitor courseRows(Consumer<Course> sink, StringPool strings) {
+        return p -> sink.accept(new Course(
+                p.get(0),                       // course ID
+                p.get(1),                       // course name
+                p.getInt(2, 0),                 // credit hours
+                p.get(3, strings),              // type
+                p.get(4, strings),              // department
+                p.getInt(5, 0),                 // min score
+                p.getInt(6, 0)                  // max score
+        ));
+    }
+
+    private static boolean isInt(CSVRow p, int col) {
+        p.getInt(col, 0);
+        return !p.lastParseFailed() && !p.isEmpty(col);
     }
 
     // ==========================================================
@@ -94,45 +184,84 @@ public class DataLoader {
         Map<String, Student> studentMap = new HashMap<>();
         for (Student s : students) studentMap.put(s.getStudentId(), s);
 
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line = br.readLine(); // Skip header
-            int count = 0;
-
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-
-                String[] p = line.split(",");
-
-                if (p.length < 8) {
-                    System.out.println("Skipping result line: " + line);
-                    continue;
-                }
-
-                String studentId = p[0].trim();
-                String courseId = p[1].trim();
-                double examScore = Double.parseDouble(p[2].trim());
-                double assignmentScore = Double.parseDouble(p[3].trim());
-                double finalMark = Double.parseDouble(p[4].trim());
-                String grade = p[5].trim();
-                double gradePoint = Double.parseDouble(p[6].trim());
-                boolean passed = Boolean.parseBoolean(p[7].trim());
-
-                CourseResult result = new CourseResult(
-                        courseId, examScore, assignmentScore,
-                        finalMark, grade, gradePoint, passed
-                );
-
-                if (studentMap.containsKey(studentId)) {
-                    studentMap.get(studentId).addCourseResult(result);
-                    count++;
-                }
+        int[] count = {0};
+        StringPool strings = new StringPool();
+        IngestReport report = new IngestReport(path);
+        loadResults(path, (studentId, result) -> {
+            Student s = studentMap.get(studentId);
+            if (s != null) {
+                s.addCourseResult(result);
+                count[0]++;
             }
+        }, strings, report);
 
-            System.out.println("[DataLoader] Loaded Course Results: " + count);
+        System.out.println("[DataLoader] Course Results: " + report.finish()
+                           + " (" + count[0] + " matched a student)");
+        System.out.println("[DataLoader] Pooled strings: " + strings);
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Error loading course results from: " + path);
-            e.printStackTrace();
+    // Streaming form: each CourseResult is handed to the sink, keyed by
+    // student ID, in file order. Large exports are parsed on all cores
+    // (see ParallelResultLoader); everything else is parsed as it streams in.
+    // Course ID and Grade go through the (ingest-scoped) string pool.
+    public static int loadResults(String path, BiConsumer<String, CourseResult> sink,
+                                  StringPool strings, IngestReport report) {
+        if (ParallelResultLoader.worthwhile(new File(path).length())) {
+            try {
+                int count = ParallelResultLoader.load(path, Long.MAX_VALUE, sink, strings, report);
+                if (count != ParallelResultLoader.FALLBACK) return count;
+            } catch (IOException e) {
+                System.err.println("❌ Parallel load failed, retrying sequentially: " + path);
+            }
         }
+
+        int count = 0;
+
+        try (CSVParser parser = CSVParser.open(path)) {
+            count = parseResults(parser, sink, strings, report);
+        } catch (IOException e) {
+            report.fail(e.toString());
+            System.err.println("❌ Error loading course results from: " + path + " (" + e.getMessage() + ")");
+        }
+
+        return count;
+    }
+
+    // Row loop shared by loadResults and ResultsTailer
+    static int parseResults(CSVParser parser, BiConsumer<String, CourseResult> sink,
+                            StringPool strings, IngestReport report) throws IOException {
+        int count = 0;
+        CSVRow p;
+
+        while ((p = parser.next()) != null) {
+            if (p.size() < 8) {
+                report.reject(IngestReport.WRONG_COLUMN_COUNT, p);
+                continue;
+            }
+
+            // NaN marks an empty or unparseable number
+            double exam = p.getDouble(2, Double.NaN);
+            double assignment = p.getDouble(3, Double.NaN);
+            double finalMark = p.getDouble(4, Double.NaN);
+            double gradePoint = p.getDouble(6, Double.NaN);
+            if (Double.isNaN(exam + assignment + finalMark + gradePoint)) {
+                report.reject(IngestReport.BAD_NUMBER, p);
+                continue;
+            }
+
+            sink.accept(p.get(0), new CourseResult(
+                    p.get(1, strings),                  // course ID
+                    exam,                               // exam score
+                    assignment,                         // assignment score
+                    finalMark,                          // final mark
+                    p.get(5, strings),                  // grade
+                    gradePoint,                         // grade point
+                    Boolean.parseBoolean(p.get(7))      // passed
+            ));
+            report.accept();
+            count++;
+        }
+
+        return count;
     }
 }
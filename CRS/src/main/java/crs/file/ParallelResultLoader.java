@@ -0,0 +1,321 @@
+package crs.file;
+
+import com.mycompany.crs.util.CSVInput;
+import com.mycompany.crs.util.DecimalParser;
+import com.mycompany.crs.util.IngestReport;
+import com.mycompany.crs.util.StringPool;
+import crs.model.CourseResult;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+
+// ==========================================================
+// PARALLEL COURSE RESULTS LOADER
+// ----------------------------------------------------------
+// Cuts the results file into byte ranges at line boundaries, memory-maps
+// each range and parses it on the common ForkJoin pool. Parsed results are
+// then handed to the sink on the calling thread in file order, so every
+// student's result list keeps the same order as a sequential load.
+//
+// Only plain (unquoted, uncompressed) files are handled here. For gzip/zlib
+// input, or if a chunk sees a quote, load() returns FALLBACK before
+// anything reaches the sink and the caller uses the sequential CSVParser
+// path instead. Rows with too few columns or a bad number are rejected
+// through the IngestReport, as the sequential path does.
+//
+// Each chunk pools its Course ID / Grade strings in its own StringPool (so
+// there is no sharing between threads); their counters are added to the
+// caller's pool once the load succeeds.
+// ==========================================================
+class ParallelResultLoader {
+
+    static final int FALLBACK = -1;
+
+    // Smaller files parse faster on one thread than the split/merge costs
+    static final long MIN_PARALLEL_BYTES = 2L << 20;
+
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final long MAX_CHUNK_BYTES = 256L << 20;
+    private static final int HEADER_SCAN_BYTES = 64 * 1024;
+    private static final int RESULT_COLUMNS = 8;
+
+    static boolean worthwhile(long fileSize) {
+        return fileSize >= MIN_PARALLEL_BYTES && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * @param limit Parse only the first limit bytes (Long.MAX_VALUE = whole file)
+     * @return number of results passed to the sink, or FALLBACK
+     */
+    static int load(String path, long limit, BiConsumer<String, CourseResult> sink,
+                    StringPool strings, IngestReport report) throws IOException {
+        List<ChunkResult> chunks = new ArrayList<>();
+        long headerLines = 0;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = Math.min(channel.size(), limit);
+
+            // Header: first non-blank line; it also decides the delimiter
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(size, HEADER_SCAN_BYTES));
+            while (head.hasRemaining() && channel.read(head, head.position()) > 0) { }
+            head.flip();
+            if (CSVInput.detect(path) != CSVInput.Format.PLAIN) {
+                return FALLBACK; // compressed: only decodable as one stream
+            }
+
+            long bodyStart = -1;
+            byte delimiter = ',';
+            int lineStart = 0;
+            for (int i = 0; i < head.limit(); i++) {
+                if (head.get(i) != '\n') continue;
+                if (isBlank(head, lineStart, i)) {
+                    lineStart = i + 1;
+                    continue;
+                }
+                for (int j = lineStart; j < i; j++) {
+                    if (head.get(j) == '\t') {
+                        delimiter = '\t';
+                        break;
+                    }
+                }
+                bodyStart = i + 1;
+                break;
+            }
+            for (int i = 0; i < bodyStart; i++) {
+                if (head.get(i) == '\n') headerLines++;
+            }
+            if (bodyStart < 0) {
+                return FALLBACK; // header longer than the scan window, or no body
+            }
+
+            int parallelism = ForkJoinPool.getCommonPoolParallelism();
+            long chunkSize = (size - bodyStart) / (parallelism * 4L);
+            chunkSize = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, chunkSize));
+
+            List<ChunkTask> tasks = new ArrayList<>();
+            long start = bodyStart;
+            while (start < size) {
+                long end = Math.min(start + chunkSize, size);
+                if (end < size) {
+                    end = nextLineStart(channel, end, size);
+                }
+                tasks.add(new ChunkTask(channel, start, end, delimiter));
+                start = end;
+            }
+
+            for (ChunkTask task : tasks) task.fork();
+            try {
+                for (ChunkTask task : tasks) chunks.add(task.join());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        for (ChunkResult chunk : chunks) {
+            if (chunk.needsSequential) return FALLBACK;
+        }
+
+        int count = 0;
+        long firstLine = headerLines + 1;
+        for (ChunkResult chunk : chunks) {
+            strings.addStatistics(chunk.strings);
+            int rejected = 0;
+            for (int i = 0; i < chunk.results.size(); i++) {
+                CourseResult result = chunk.results.get(i);
+                if (result == null) {
+                    report.reject(chunk.rejectReasons.get(rejected),
+                            firstLine + chunk.rejectedLines.get(rejected), chunk.keys.get(i));
+                    rejected++;
+                    continue;
+                }
+                sink.accept(chunk.keys.get(i), result);
+                report.accept();
+                count++;
+            }
+            firstLine += chunk.lines;
+        }
+        return count;
+    }
+
+    // First byte after the '\n' that ends the line containing pos - 1
+    private static long nextLineStart(FileChannel channel, long pos, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long at = pos - 1;
+        while (at < size) {
+            buf.clear();
+            int n = channel.read(buf, at);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) == '\n') return at + i + 1;
+            }
+            at += n;
+        }
+        return size;
+    }
+
+    private static boolean isBlank(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((buf.get(i) & 0xFF) > ' ') return false;
+        }
+        return true;
+    }
+
+    // ==========================================================
+    // CHUNK PARSING
+    // ==========================================================
+    private static final class ChunkResult {
+        // keys[i] is the student ID, or the raw line when results[i] is null (skipped)
+        final List<String> keys = new ArrayList<>();
+        final List<CourseResult> results = new ArrayList<>();
+        final List<Integer> rejectedLines = new ArrayList<>(); // line index in the chunk, per skipped line
+        final List<String> rejectReasons = new ArrayList<>();  // IngestReport reason, per skipped line
+        final StringPool strings = new StringPool();
+        int lines;
+        boolean needsSequential;
+    }
+
+    private static final class ChunkTask extends RecursiveTask<ChunkResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final byte delimiter;
+        private final Charset charset = Charset.defaultCharset();
+
+        private final int[] fieldStart = new int[RESULT_COLUMNS];
+        private final int[] fieldEnd = new int[RESULT_COLUMNS];
+        private byte[] line = new byte[256];
+        private char[] digits = new char[32];
+
+        ChunkTask(FileChannel channel, long start, long end, byte delimiter) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            ChunkResult out = new ChunkResult();
+            MappedByteBuffer data;
+            try {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            int limit = data.limit();
+            int lineStart = 0;
+            for (int i = 0; i <= limit; i++) {
+                if (i < limit && data.get(i) != '\n') continue;
+
+                int len = i - lineStart;
+                if (i == limit && len == 0) break;
+                if (len > line.length) line = new byte[Math.max(len, line.length * 2)];
+                data.get(lineStart, line, 0, len);
+                lineStart = i + 1;
+
+                if (!parseLine(len, out)) {
+                    out.needsSequential = true;
+                    return out;
+                }
+                out.lines++;
+            }
+            return out;
+        }
+
+        private boolean parseLine(int len, ChunkResult out) {
+            int fields = 0;
+            int s = 0;
+            for (int i = 0; i <= len; i++) {
+                if (i < len && line[i] != delimiter) {
+                    if (line[i] == '"') return false;
+                    continue;
+                }
+                int fs = s;
+                int fe = i;
+                while (fs < fe && (line[fs] & 0xFF) <= ' ') fs++;
+                while (fe > fs && (line[fe - 1] & 0xFF) <= ' ') fe--;
+                if (fields < RESULT_COLUMNS) {
+                    fieldStart[fields] = fs;
+                    fieldEnd[fields] = fe;
+                }
+                fields++;
+                s = i + 1;
+            }
+
+            if (fields == 1 && fieldStart[0] == fieldEnd[0]) {
+                return true; // blank line
+            }
+            if (fields < RESULT_COLUMNS) {
+                reject(IngestReport.WRONG_COLUMN_COUNT, len, out);
+                return true;
+            }
+
+            // NaN marks an empty or unparseable number
+            double exam = number(2);
+            double assignment = number(3);
+            double finalMark = number(4);
+            double gradePoint = number(6);
+            if (Double.isNaN(exam + assignment + finalMark + gradePoint)) {
+                reject(IngestReport.BAD_NUMBER, len, out);
+                return true;
+            }
+
+            out.keys.add(text(0));
+            out.results.add(new CourseResult(
+                    out.strings.intern(text(1)),    // course ID
+                    exam,                           // exam score
+                    assignment,                     // assignment score
+                    finalMark,                      // final mark
+                    out.strings.intern(text(5)),    // grade
+                    gradePoint,                     // grade point
+                    isTrue(7)                       // passed
+            ));
+            return true;
+        }
+
+        private void reject(String reason, int len, ChunkResult out) {
+            if (len > 0 && line[len - 1] == '\r') len--; // the line as written, without its terminator
+            out.keys.add(new String(line, 0, len, charset));
+            out.results.add(null);
+            out.rejectedLines.add(out.lines);
+            out.rejectReasons.add(reason);
+        }
+
+        private String text(int f) {
+            return new String(line, fieldStart[f], fieldEnd[f] - fieldStart[f], charset);
+        }
+
+        private boolean isTrue(int f) {
+            int s = fieldStart[f];
+            if (fieldEnd[f] - s != 4) return false;
+            return (line[s] | 0x20) == 't' && (line[s + 1] | 0x20) == 'r'
+                    && (line[s + 2] | 0x20) == 'u' && (line[s + 3] | 0x20) == 'e';
+        }
+
+        // Parsed by DecimalParser, like CSVRow.getDouble in the sequential
+        // path; number bytes are ASCII, so they are widened into a scratch
+        // buffer rather than decoded. NaN if empty or not a number.
+        private double number(int f) {
+            int len = fieldEnd[f] - fieldStart[f];
+            if (len > digits.length) digits = new char[Math.max(len, digits.length * 2)];
+            for (int i = 0; i < len; i++) {
+                digits[i] = (char) (line[fieldStart[f] + i] & 0xFF);
+            }
+            return DecimalParser.parse(digits, 0, len);
+        }
+    }
+}
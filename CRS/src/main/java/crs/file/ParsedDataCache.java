@@ -0,0 +1,207 @@
+package crs.file;
+
+import com.mycompany.crs.store.AtomicFile;
+import crs.model.*;
+import java.io.*;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import static com.mycompany.crs.store.StudentCodec.readVarint;
+import static com.mycompany.crs.store.StudentCodec.writeVarint;
+
+// ==========================================================
+// PARSED DATA CACHE
+// ----------------------------------------------------------
+// Binary snapshot of the Student / Course / CourseResult graph built from
+// the CSV sources, keyed by a SHA-256 of each source file's content. When
+// every source still hashes the same, the snapshot is loaded instead of
+// parsing text; any changed (or newly created / deleted) file is a miss.
+//
+// Layout: magic, version, source hashes, results offset, string table,
+// courses, students (each with its results). The results offset is how far
+// into the results file the cached results go, so a ResultsTailer can
+// carry on from there. Strings are written once in the table and
+// referenced by index, so pooled values stay shared after a reload.
+// ==========================================================
+public class ParsedDataCache {
+
+    private static final int MAGIC = 0x43525343; // "CRSC"
+    private static final int VERSION = 3; // 3: the results offset may end in a row without a newline
+
+    private final Path cacheFile;
+    private final String[] sources;
+    private final byte[][] hashes;
+
+    // Hashes are taken once, up front: if a source changes while it is being
+    // parsed, the stored hash no longer matches and the next start re-parses.
+    public ParsedDataCache(String cacheFile, String... sources) throws IOException {
+        this.cacheFile = Paths.get(cacheFile);
+        this.sources = sources.clone();
+        this.hashes = new byte[sources.length][];
+        for (int i = 0; i < sources.length; i++) {
+            hashes[i] = hash(Paths.get(sources[i]));
+        }
+    }
+
+    public static class Snapshot {
+        public final List<Student> students;
+        public final List<Course> courses;
+        public final long resultsOffset;
+
+        Snapshot(List<Student> students, List<Course> courses, long resultsOffset) {
+            this.students = students;
+            this.courses = courses;
+            this.resultsOffset = resultsOffset;
+        }
+    }
+
+    // ==========================================================
+    // READ (null on miss or unreadable cache)
+    // ==========================================================
+    public Snapshot read() {
+        if (!Files.exists(cacheFile)) return null;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(cacheFile), 64 * 1024))) {
+
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            if (readVarint(in) != sources.length) return null;
+            for (byte[] expected : hashes) {
+                byte[] stored = new byte[expected.length];
+                in.readFully(stored);
+                if (!Arrays.equals(stored, expected)) return null;
+            }
+            long resultsOffset = in.readLong();
+
+            String[] strings = new String[readVarint(in) + 1]; // index 0 = null
+            for (int i = 1; i < strings.length; i++) strings[i] = in.readUTF();
+
+            int courseCount = readVarint(in);
+            List<Course> courses = new ArrayList<>(courseCount);
+            for (int i = 0; i < courseCount; i++) {
+                courses.add(new Course(
+                        strings[readVarint(in)], strings[readVarint(in)], in.readInt(),
+                        strings[readVarint(in)], strings[readVarint(in)],
+                        in.readInt(), in.readInt()));
+            }
+
+            int studentCount = readVarint(in);
+            List<Student> students = new ArrayList<>(studentCount);
+            for (int i = 0; i < studentCount; i++) {
+                Student s = new Student(
+                        strings[readVarint(in)], strings[readVarint(in)], strings[readVarint(in)],
+                        strings[readVarint(in)], strings[readVarint(in)], strings[readVarint(in)]);
+                int results = readVarint(in);
+                for (int r = 0; r < results; r++) {
+                    s.addCourseResult(new CourseResult(
+                            strings[readVarint(in)], in.readDouble(), in.readDouble(),
+                            in.readDouble(), strings[readVarint(in)], in.readDouble(),
+                            in.readBoolean()));
+                }
+                students.add(s);
+            }
+            return new Snapshot(students, courses, resultsOffset);
+
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ Ignoring unreadable data cache: " + cacheFile + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    // ==========================================================
+    // WRITE (AtomicFile, so a crash never leaves half a cache)
+    // ==========================================================
+    public void write(List<Student> students, Collection<Course> courses,
+                      long resultsOffset) throws IOException {
+        Map<String, Integer> table = new LinkedHashMap<>();
+        for (Course c : courses) {
+            intern(table, c.getCourseId(), c.getCourseName(), c.getSemester(), c.getInstructor());
+        }
+        for (Student s : students) {
+            intern(table, s.getStudentId(), s.getFirstName(), s.getLastName(),
+                   s.getMajor(), s.getStudyYear(), s.getEmail());
+            for (CourseResult r : s.getCourseResults()) {
+                intern(table, r.getCourseId(), r.getGrade());
+            }
+        }
+
+        AtomicFile.write(cacheFile, stream -> {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeVarint(out, hashes.length);
+            for (byte[] h : hashes) out.write(h);
+            out.writeLong(resultsOffset);
+
+            writeVarint(out, table.size());
+            for (String str : table.keySet()) out.writeUTF(str);
+
+            writeVarint(out, courses.size());
+            for (Course c : courses) {
+                ref(out, table, c.getCourseId());
+                ref(out, table, c.getCourseName());
+                out.writeInt(c.getCredits());
+                ref(out, table, c.getSemester());
+                ref(out, table, c.getInstructor());
+                out.writeInt(c.getExamWeight());
+                out.writeInt(c.getAssignmentWeight());
+            }
+
+            writeVarint(out, students.size());
+            for (Student s : students) {
+                ref(out, table, s.getStudentId());
+                ref(out, table, s.getFirstName());
+                ref(out, table, s.getLastName());
+                ref(out, table, s.getMajor());
+                ref(out, table, s.getStudyYear());
+                ref(out, table, s.getEmail());
+
+                writeVarint(out, s.getCourseResults().size());
+                for (CourseResult r : s.getCourseResults()) {
+                    ref(out, table, r.getCourseId());
+                    out.writeDouble(r.getExamScore());
+                    out.writeDouble(r.getAssignmentScore());
+                    out.writeDouble(r.getFinalMark());
+                    ref(out, table, r.getGrade());
+                    out.writeDouble(r.getGradePoint());
+                    out.writeBoolean(r.isPassed());
+                }
+            }
+            out.flush();
+        });
+    }
+
+    // ==========================================================
+    // HELPERS
+    // ==========================================================
+
+    // SHA-256 of the file content; a missing file hashes like an empty one
+    private static byte[] hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+        if (Files.exists(file)) {
+            byte[] buf = new byte[64 * 1024];
+            try (InputStream in = Files.newInputStream(file)) {
+                int n;
+                while ((n = in.read(buf)) > 0) digest.update(buf, 0, n);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void intern(Map<String, Integer> table, String... values) {
+        for (String v : values) {
+            if (v != null && !table.containsKey(v)) table.put(v, table.size() + 1);
+        }
+    }
+
+    private static void ref(DataOutput out, Map<String, Integer> table, String value) throws IOException {
+        writeVarint(out, value == null ? 0 : table.get(value));
+    }
+}
@@ -0,0 +1,325 @@
+package crs.file;
+
+import com.mycompany.crs.store.RangeInputStream;
+import com.mycompany.crs.util.CSVInput;
+import com.mycompany.crs.util.CSVParser;
+import com.mycompany.crs.util.IngestReport;
+import com.mycompany.crs.util.StringPool;
+import crs.model.CourseResult;
+import crs.model.Student;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+// ==========================================================
+// INCREMENTAL COURSE RESULTS INGEST
+// ----------------------------------------------------------
+// Keeps the in-memory Student.courseResults in step with a results file
+// that is only ever appended to. The tailer remembers how many bytes it has
+// applied and a CRC32 of that whole prefix; refresh() then parses only the
+// new complete lines. If the prefix no longer matches (file truncated,
+// rewritten or edited anywhere) every student's results are cleared and
+// the file is reloaded.
+//
+// Checking the prefix reads it again, but that is far cheaper than parsing
+// it, and a refresh that finds the size and modification time unchanged
+// since the last one reads nothing at all.
+//
+// A full load reads the whole file, as DataLoader.loadResults does, so a
+// last row without '\n' is kept. An incremental refresh holds such a row
+// back while the file is still growing (it may be half written) and takes
+// it once a refresh finds the size unchanged. If rows are appended after an
+// applied row that had no '\n', that row may have been cut short, so the
+// file is reloaded unless the appended bytes start with the missing '\n'.
+//
+// refresh() is poll() followed by apply(): poll() does all the file work and
+// returns the parsed rows without touching any Student, apply() adds them
+// and moves the offset in one step. A poll that fails therefore applies
+// nothing, and a UI can poll on a background thread and apply on its own.
+// Polls must not overlap, and each must be applied before the next.
+//
+// A gzip/zlib compressed results file cannot be parsed from the middle, so
+// any change to it (size or checksum) means a full reload.
+// ==========================================================
+public class ResultsTailer {
+
+    private static final int SCAN_BLOCK = 8192;
+    private static final int CHECKSUM_BLOCK = 64 * 1024;
+
+    private final Path path;
+    private final Map<String, Student> studentMap = new HashMap<>();
+    private final StringPool strings = new StringPool();
+
+    private long offset;        // bytes applied so far (always at a line start)
+    private long checksum;      // CRC32 of those bytes
+    private long lines;         // line breaks in them, to number the rows of a tail
+    private boolean openLine;   // they end in a row without '\n'
+    private long checkedSize = -1;   // file size and modification time at the
+    private long checkedModified;    // last poll (-1: check the prefix next time)
+    private String[] headers;   // from the last full load, reused for appended rows
+    private char delimiter;
+
+    private int fullReloads;
+    private IngestReport lastReport;
+
+    // Rows read by poll(), waiting to be applied
+    public static final class Update {
+        private final boolean full;
+        private final List<String> studentIds = new ArrayList<>();
+        private final List<CourseResult> results = new ArrayList<>();
+        private long offset;
+        private long checksum;
+        private long lines;
+        private boolean openLine;
+        private long size;
+        private long modified;
+        private String[] headers;
+        private char delimiter;
+
+        private Update(boolean full) {
+            this.full = full;
+        }
+
+        // True if applying it replaces all results (file new or rewritten)
+        public boolean isFullReload() { return full; }
+    }
+
+    // Tailer whose first refresh() does a full load
+    public ResultsTailer(String path, List<Student> students) {
+        this.path = Paths.get(path);
+        for (Student s : students) studentMap.put(s.getStudentId(), s);
+    }
+
+    // Tailer for results that were already applied up to loadedOffset
+    // (e.g. restored from ParsedDataCache)
+    public ResultsTailer(String path, List<Student> students, long loadedOffset) throws IOException {
+        this(path, students);
+        if (loadedOffset > 0 && Files.exists(this.path)) {
+            try (FileChannel ch = FileChannel.open(this.path, StandardOpenOption.READ)) {
+                if (ch.size() >= loadedOffset) {
+                    boolean compressed = isCompressed();
+                    if (!compressed) {
+                        Update header = new Update(true);
+                        readHeader(ch, header);
+                        headers = header.headers;
+                        delimiter = header.delimiter;
+                    }
+                    offset = loadedOffset;
+                    CRC32 crc = new CRC32();
+                    lines = checksum(ch, 0, offset, crc);
+                    checksum = crc.getValue();
+                    openLine = !compressed && byteAt(ch, offset - 1) != '\n';
+                }
+            }
+        }
+    }
+
+    public long getOffset() { return offset; }
+    public int getFullReloads() { return fullReloads; }
+
+    // Counters of the last refresh that read anything (null before the first).
+    // A full reload replaces the quarantine file, an incremental one appends.
+    public IngestReport getLastReport() { return lastReport; }
+
+    // ==========================================================
+    // REFRESH
+    // ==========================================================
+    // Returns the number of results added (after a full reload: all of them)
+    public int refresh() {
+        return apply(poll());
+    }
+
+    // Reads what changed since the last apply(); touches no Student.
+    // Returns null if there is nothing to apply (or the file could not be read).
+    public Update poll() {
+        if (!Files.exists(path)) {
+            if (offset == 0) return null;
+            Update gone = new Update(true); // removed: no results
+            gone.size = -1;                 // and check again next time
+            return gone;
+        }
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (offset > 0 && offset == size && size == checkedSize && modified == checkedModified) {
+                return null; // untouched since the last poll
+            }
+
+            boolean compressed = isCompressed();
+            CRC32 crc = new CRC32();
+            boolean full = offset == 0 || size < offset || !prefixUnchanged(ch, crc)
+                    || (compressed && size != offset)
+                    || (openLine && size > offset && byteAt(ch, offset) != '\n');
+            long from = full ? 0 : offset;
+            long end = size;
+            if (!full && !compressed && size != checkedSize) {
+                end = lastLineEnd(ch, size); // still growing: hold back a partial row
+                if (end < from) end = from;
+            }
+
+            Update update = new Update(full);
+            update.size = size;
+            update.modified = modified;
+            update.headers = headers;
+            update.delimiter = delimiter;
+            if (full) {
+                if (offset > 0) {
+                    System.out.println("[DataLoader] " + path + " was rewritten, reloading all results");
+                }
+                crc.reset();
+                if (!compressed) readHeader(ch, update);
+            }
+            if (end <= from) {
+                if (full && offset == 0) return null; // still nothing to load
+                update.offset = from;
+                update.checksum = crc.getValue();
+                update.lines = full ? 0 : lines;
+                update.openLine = !full && openLine;
+                return update;
+            }
+
+            IngestReport report = new IngestReport(path.toString(), !full);
+            report.setBytes(end - from);
+            lastReport = report;
+
+            BiConsumer<String, CourseResult> sink = (studentId, result) -> {
+                update.studentIds.add(studentId);
+                update.results.add(result);
+            };
+
+            try {
+                boolean parsedInParallel = !compressed && full && ParallelResultLoader.worthwhile(end)
+                        && ParallelResultLoader.load(path.toString(), end, sink, strings, report)
+                           != ParallelResultLoader.FALLBACK;
+                if (compressed) {
+                    try (CSVParser parser = CSVParser.open(path.toString())) {
+                        DataLoader.parseResults(parser, sink, strings, report);
+                    }
+                } else if (!parsedInParallel) {
+                    try (CSVParser parser = new CSVParser(new InputStreamReader(
+                            new RangeInputStream(ch, from, end)), update.delimiter)) {
+                        if (!full) {
+                            parser.setHeaders(update.headers);
+                            parser.setFirstLineNumber(lines + 1); // quarantine shows file lines
+                        }
+                        DataLoader.parseResults(parser, sink, strings, report);
+                    }
+                }
+            } finally {
+                report.finish();
+            }
+
+            update.lines = (full ? 0 : lines) + checksum(ch, from, end, crc);
+            update.offset = end;
+            update.checksum = crc.getValue();
+            update.openLine = !compressed && byteAt(ch, end - 1) != '\n';
+            return update;
+
+        } catch (IOException | RuntimeException e) {
+            if (lastReport != null) lastReport.fail(e.toString());
+            System.err.println("❌ Error refreshing course results from: " + path + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    // Adds the rows of a poll() and moves the offset past them.
+    // Returns the number of results added (after a full reload: all of them)
+    public int apply(Update update) {
+        if (update == null) return 0;
+        if (update.full) {
+            if (offset > 0) clearResults();
+            fullReloads++;
+        }
+        int count = 0;
+        for (int i = 0; i < update.results.size(); i++) {
+            Student s = studentMap.get(update.studentIds.get(i));
+            if (s != null) {
+                s.addCourseResult(update.results.get(i));
+                count++;
+            }
+        }
+        offset = update.offset;
+        checksum = update.checksum;
+        lines = update.lines;
+        openLine = update.openLine;
+        checkedSize = update.size;
+        checkedModified = update.modified;
+        headers = update.headers;
+        delimiter = update.delimiter;
+        return count;
+    }
+
+    private void clearResults() {
+        for (Student s : studentMap.values()) s.getCourseResults().clear();
+    }
+
+    // Leaves crc at the checksum of the applied prefix
+    private boolean prefixUnchanged(FileChannel ch, CRC32 crc) throws IOException {
+        checksum(ch, 0, offset, crc);
+        return crc.getValue() == checksum;
+    }
+
+    // Header row and delimiter, so appended rows can be parsed on their own
+    private void readHeader(FileChannel ch, Update into) throws IOException {
+        try (CSVParser parser = new CSVParser(new InputStreamReader(
+                new RangeInputStream(ch, 0, ch.size())))) {
+            into.headers = parser.getHeaders();
+            into.delimiter = parser.getDelimiter();
+        }
+    }
+
+    // ==========================================================
+    // BYTE-LEVEL HELPERS
+    // ==========================================================
+
+    private boolean isCompressed() throws IOException {
+        return CSVInput.detect(path.toString()) != CSVInput.Format.PLAIN;
+    }
+
+    private static byte byteAt(FileChannel ch, long pos) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(1);
+        if (ch.read(buf, pos) <= 0) throw new EOFException("Results file shrank while being read");
+        return buf.get(0);
+    }
+
+    // Position just after the last '\n' before size (0 if there is none)
+    private static long lastLineEnd(FileChannel ch, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(SCAN_BLOCK);
+        long blockEnd = size;
+        while (blockEnd > 0) {
+            long blockStart = Math.max(0, blockEnd - SCAN_BLOCK);
+            buf.clear().limit((int) (blockEnd - blockStart));
+            while (buf.hasRemaining() && ch.read(buf, blockStart + buf.position()) > 0) { }
+            for (int i = buf.position() - 1; i >= 0; i--) {
+                if (buf.get(i) == '\n') return blockStart + i + 1;
+            }
+            blockEnd = blockStart;
+        }
+        return 0;
+    }
+
+    // Adds bytes [from, to) to crc; returns how many '\n' they hold
+    private static long checksum(FileChannel ch, long from, long to, CRC32 crc) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) Math.min(CHECKSUM_BLOCK, Math.max(0, to - from)));
+        long lines = 0;
+        long pos = from;
+        while (pos < to) {
+            buf.clear().limit((int) Math.min(buf.capacity(), to - pos));
+            int n = ch.read(buf, pos);
+            if (n <= 0) throw new EOFException("Results file shrank while being read");
+            buf.flip();
+            byte[] bytes = buf.array();
+            for (int i = 0; i < n; i++) {
+                if (bytes[i] == '\n') lines++;
+            }
+            crc.update(buf);
+            pos += n;
+        }
+        return lines;
+    }
+}
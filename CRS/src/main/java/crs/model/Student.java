@@ -38,6 +38,8 @@ public class Student {
     // Getters
     //======================================
     public String getStudentId() { return studentId; }
+    public String getFirstName() { return firstName; }
+    public String getLastName() { return lastName; }
     public String getFullName() { return firstName + " " + lastName; }
     public String getMajor() { return major; }
     public String getStudyYear() { return studyYear; }
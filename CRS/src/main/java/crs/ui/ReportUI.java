@@ -6,6 +6,10 @@ import crs.model.Course;
 import crs.model.CourseResult;
 import crs.model.CourseRegistry;
 import crs.file.DataLoader;
+import crs.file.ResultsTailer;
+import com.mycompany.crs.util.DataInitializer;
+import com.mycompany.crs.util.FileManager;
+import com.mycompany.crs.util.IngestPipeline;
 import javax.swing.table.DefaultTableModel;
 import crs.report.AcademicReportGenerator;
 import javax.swing.JOptionPane;
@@ -19,6 +23,7 @@ import javax.swing.JOptionPane;
  */
 public class ReportUI extends javax.swing.JFrame {
     private List<Student> students;
+    private boolean pollingResults; // a results file poll is running (EDT only)
 
     
     private static final java.util.logging.Logger logger = java.util.logging.Logger.getLogger(ReportUI.class.getName());
@@ -28,10 +33,19 @@ public class ReportUI extends javax.swing.JFrame {
     public ReportUI() {
         initComponents();
         
-        // Load data
-students = DataLoader.loadStudents("data/student_information.csv");
-DataLoader.loadCourses("data/course_assessment_information.csv");
-DataLoader.loadResults("data/course_results.csv", students);
+        // Load data. On the first run the eligibility data (students.dat) is
+        // built from the same read of the student and course files.
+IngestPipeline ingest = new IngestPipeline();
+FileManager fileManager = new FileManager();
+DataInitializer eligibilityData = fileManager.hasStudentData() ? null
+        : new DataInitializer(ingest, "data/student_information.csv",
+                              "data/course_assessment_information.csv");
+students = DataLoader.loadAll("data/student_information.csv",
+        "data/course_assessment_information.csv",
+        "data/course_results.csv", ingest);
+if (eligibilityData != null) {
+    fileManager.saveStudents(eligibilityData.getStudents());
+}
 
 // Populate combo box
 student.removeAllItems();
@@ -53,6 +67,35 @@ if (!students.isEmpty()) {
     updateTableResults();
 }
 
+// Pick up result rows appended while the window is open (only new bytes are
+// parsed). The file is read on a background thread; the rows are added to
+// the students here on the EDT, which is also the only thread showing them.
+new javax.swing.Timer(5000, e -> {
+    ResultsTailer tailer = DataLoader.tailer("data/course_results.csv");
+    if (tailer == null || pollingResults) return;
+    pollingResults = true;
+    new javax.swing.SwingWorker<ResultsTailer.Update, Void>() {
+        @Override
+        protected ResultsTailer.Update doInBackground() {
+            return tailer.poll();
+        }
+
+        @Override
+        protected void done() {
+            pollingResults = false;
+            try {
+                ResultsTailer.Update update = get();
+                if (tailer.apply(update) > 0 || (update != null && update.isFullReload())) {
+                    updateStudentDetails();
+                    updateTableResults();
+                }
+            } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                logger.log(java.util.logging.Level.WARNING, "Refreshing course results failed", ex);
+            }
+        }
+    }.execute();
+}).start();
+
     }
 
     private void updateStudentDetails() {